@@ -0,0 +1,74 @@
+package com.example.benchmark;
+
+import com.example.matchservice.chess.core.Fen;
+import com.example.matchservice.chess.core.Move;
+import com.example.matchservice.chess.core.Position;
+import com.example.matchservice.model.BotProfile;
+import com.example.matchservice.service.BotScheduler;
+import com.example.matchservice.service.BotService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of one bot move as {@code GameService} sees it: table and
+ * book probes plus the search under the profile's budget.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BotMoveBenchmark {
+
+    @Param({"STARTPOS", "KIWIPETE", "POSITION_6"})
+    public PerftPosition position;
+
+    @Param({"CURLER", "SKIPPER"})
+    public BotProfile profile;
+
+    private BotScheduler botScheduler;
+    private BotService botService;
+    private Position root;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Only its idle workers are used here, as Lazy SMP helpers
+        botScheduler = new BotScheduler(new SimpleMeterRegistry(), 0, 64, 0);
+    }
+
+    // A warm table would answer the repeated root position straight from its entries
+    @Setup(Level.Invocation)
+    public void freshTable() {
+        botService = new BotService(16, "", "", "", botScheduler);
+        root = Fen.parse(position.getFen());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        botScheduler.shutdown();
+    }
+
+    @Benchmark
+    public int generateMove() {
+        int move = botService.generateMove(root, profile);
+        if (move == Move.NONE) {
+            throw new IllegalStateException("Bot found no move for " + position);
+        }
+        return move;
+    }
+}
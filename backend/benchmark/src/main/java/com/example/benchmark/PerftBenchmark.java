@@ -0,0 +1,82 @@
+package com.example.benchmark;
+
+import com.example.matchservice.chess.core.Fen;
+import com.example.matchservice.chess.core.Perft;
+import com.example.matchservice.chess.core.Position;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Perft throughput of the bitboard move generator that backs {@code BotService}.
+ * The {@code nodes} counter is reported as nodes/second. Every invocation checks
+ * its count against the published value and throws on a mismatch, so run with
+ * {@code -foe true} to turn a wrong count into a failed build step:
+ *
+ * <pre>
+ * java -jar benchmark/target/benchmarks.jar PerftBenchmark -foe true
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PerftBenchmark {
+
+    @Param({"STARTPOS", "KIWIPETE", "POSITION_3", "POSITION_4", "POSITION_5", "POSITION_6"})
+    public PerftPosition position;
+
+    private Position board;
+    private Perft perft;
+    private int depth;
+    private long expected;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Nodes {
+        public long nodes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        depth = position.getBenchmarkDepth();
+        expected = position.expectedNodes(depth);
+        board = Fen.parse(position.getFen());
+        perft = new Perft(depth);
+
+        // Shallower depths first so a broken generator fails fast
+        for (int d = 1; d < depth; d++) {
+            check(perft.count(board, d), d);
+        }
+    }
+
+    @Benchmark
+    public long perft(Nodes counter) {
+        long nodes = perft.count(board, depth);
+        check(nodes, depth);
+        counter.nodes += nodes;
+        return nodes;
+    }
+
+    private void check(long nodes, int atDepth) {
+        long want = position.expectedNodes(atDepth);
+        if (nodes != want) {
+            throw new IllegalStateException("Perft mismatch for " + position + " at depth " + atDepth
+                    + ": expected " + want + ", got " + nodes);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.benchmark;
+
+import com.example.matchservice.chess.core.Fen;
+import com.example.matchservice.chess.core.Perft;
+import com.example.matchservice.chess.core.Position;
+
+import java.util.Map;
+
+/**
+ * Plain perft run without JMH, for checking the generator quickly and for
+ * finding the offending move when a count is wrong.
+ *
+ * <pre>
+ * java -cp benchmark/target/benchmarks.jar com.example.benchmark.PerftRunner
+ * java -cp benchmark/target/benchmarks.jar com.example.benchmark.PerftRunner KIWIPETE 3 divide
+ * java -cp benchmark/target/benchmarks.jar com.example.benchmark.PerftRunner "&lt;fen&gt;" 4 divide
+ * </pre>
+ *
+ * Exits with status 1 if any count differs from the published value.
+ */
+public final class PerftRunner {
+
+    private PerftRunner() {
+    }
+
+    public static void main(String[] args) {
+        boolean divide = args.length > 2 && "divide".equalsIgnoreCase(args[2]);
+        boolean ok = true;
+
+        if (args.length == 0) {
+            for (PerftPosition position : PerftPosition.values()) {
+                ok &= run(position.name(), position.getFen(), position.getBenchmarkDepth(), position, false);
+            }
+        } else {
+            PerftPosition known = find(args[0]);
+            String fen = known != null ? known.getFen() : args[0];
+            int depth = args.length > 1 ? Integer.parseInt(args[1])
+                    : known != null ? known.getBenchmarkDepth() : 4;
+            ok = run(known != null ? known.name() : fen, fen, depth, known, divide);
+        }
+
+        if (!ok) {
+            System.err.println("❌ Perft mismatch");
+            System.exit(1);
+        }
+        System.out.println("✅ All perft counts match");
+    }
+
+    private static boolean run(String name, String fen, int depth, PerftPosition known, boolean divide) {
+        System.out.println("=== " + name + " ===");
+        Position position = Fen.parse(fen);
+        Perft perft = new Perft(depth);
+        boolean ok = true;
+
+        for (int d = 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            long nodes = perft.count(position, d);
+            long elapsed = Math.max(1L, System.nanoTime() - start);
+
+            String status = "";
+            if (known != null && d <= known.getMaxKnownDepth()) {
+                long expected = known.expectedNodes(d);
+                status = nodes == expected ? "  ok" : "  MISMATCH (expected " + expected + ")";
+                ok &= nodes == expected;
+            }
+            System.out.printf("depth %d: %,d nodes in %,d ms (%,d nodes/s)%s%n",
+                    d, nodes, elapsed / 1_000_000, nodes * 1_000_000_000L / elapsed, status);
+        }
+
+        if (divide || !ok) {
+            long total = 0;
+            for (Map.Entry<String, Long> entry : perft.divide(position, depth).entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                total += entry.getValue();
+            }
+            System.out.println("total: " + total);
+        }
+        return ok;
+    }
+
+    private static PerftPosition find(String name) {
+        for (PerftPosition position : PerftPosition.values()) {
+            if (position.name().equalsIgnoreCase(name)) {
+                return position;
+            }
+        }
+        return null;
+    }
+}
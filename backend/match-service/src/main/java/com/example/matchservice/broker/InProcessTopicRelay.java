@@ -0,0 +1,48 @@
+package com.example.matchservice.broker;
+
+import com.example.matchservice.model.DTO.RelayedMessage;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+/**
+ * Relays between the nodes running in this JVM, such as several application
+ * contexts started side by side in a test. With a single node, the default,
+ * there is no one to relay to and publishing costs nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "game.broker.relay", havingValue = "in-process", matchIfMissing = true)
+public class InProcessTopicRelay implements TopicRelay {
+
+    private static final Set<InProcessTopicRelay> NODES = new CopyOnWriteArraySet<>();
+
+    private volatile Consumer<RelayedMessage> listener = message -> {
+    };
+
+    public InProcessTopicRelay() {
+        NODES.add(this);
+    }
+
+    @Override
+    public void publish(RelayedMessage message) {
+        for (InProcessTopicRelay node : NODES) {
+            if (node != this) {
+                node.listener.accept(message);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<RelayedMessage> listener) {
+        this.listener = listener;
+    }
+
+    @PreDestroy
+    public void leave() {
+        NODES.remove(this);
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.matchservice.broker;
+
+import com.example.matchservice.model.DTO.RelayedMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Relays to the other instances of this service registered in Eureka. Each
+ * peer has its own queue, sent as batches by one POST at a time, so a peer
+ * receives broadcasts in the order they were published. A peer that is down
+ * or too slow has its oldest broadcasts dropped; its clients see the gap in
+ * plies and reload the game.
+ *
+ * <p>
+ * Only broadcasts are shared. A game is played from the state of the node
+ * that loaded it, so two nodes taking moves for one game would each save
+ * their own line over the other's; the load balancer must send every player
+ * of a game to one node, which {@code game.broker.peers.match-affinity}
+ * confirms.
+ */
+@Component
+@ConditionalOnProperty(name = "game.broker.relay", havingValue = "peers")
+public class PeerTopicRelay implements TopicRelay {
+
+    /** Header carrying the shared secret that peers must present to relay to this node. */
+    public static final String SECRET_HEADER = "X-Relay-Secret";
+
+    /** Where peers post their broadcasts; see RelayController. */
+    public static final String PATH = "/internal/relay";
+
+    private static final int BATCH = 64;
+
+    private final DiscoveryClient discoveryClient;
+    private final Registration registration;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final byte[] secret;
+    private final long refreshMs;
+    private final int maxQueued;
+
+    private final ExecutorService senders = Executors.newCachedThreadPool(namedThreads("relay-sender"));
+    private final Map<String, Peer> peers = new ConcurrentHashMap<>();
+    private volatile long refreshedAt;
+    private volatile Consumer<RelayedMessage> listener = message -> {
+    };
+
+    private final Counter sent;
+    private final Counter received;
+    private final Counter dropped;
+    private final Counter failures;
+
+    private final class Peer implements Runnable {
+        private final String instanceId;
+        private final URI uri;
+        private final Queue<RelayedMessage> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean removed;
+
+        private Peer(String instanceId, URI uri) {
+            this.instanceId = instanceId;
+            this.uri = uri;
+        }
+
+        void enqueue(RelayedMessage message) {
+            queue.add(message);
+            if (size.incrementAndGet() > maxQueued && queue.poll() != null) {
+                size.decrementAndGet();
+                dropped.increment();
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                senders.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                List<RelayedMessage> batch = new ArrayList<>(BATCH);
+                for (RelayedMessage message; batch.size() < BATCH && (message = queue.poll()) != null; ) {
+                    size.decrementAndGet();
+                    batch.add(message);
+                }
+                if (batch.isEmpty()) {
+                    scheduled.set(false);
+                    // A message added after the poll but before the flag cleared would be stranded
+                    if (queue.isEmpty() || !scheduled.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                if (removed) {
+                    dropped.increment(batch.size());
+                } else {
+                    send(batch);
+                }
+            }
+        }
+
+        private void send(List<RelayedMessage> batch) {
+            try {
+                HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                        .timeout(Duration.ofSeconds(5))
+                        .header("Content-Type", "application/json")
+                        .header(SECRET_HEADER, new String(secret, StandardCharsets.UTF_8))
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(batch)));
+                HttpResponse<Void> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() / 100 == 2) {
+                    sent.increment(batch.size());
+                    return;
+                }
+                System.err.println("⚠️ Relay to " + instanceId + " answered " + response.statusCode());
+            } catch (JsonProcessingException e) {
+                System.err.println("⚠️ Could not serialize relayed broadcasts: " + e.getMessage());
+            } catch (IOException e) {
+                System.err.println("⚠️ Relay to " + instanceId + " failed: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                removed = true;
+            }
+            failures.increment();
+            dropped.increment(batch.size());
+        }
+    }
+
+    public PeerTopicRelay(DiscoveryClient discoveryClient, Registration registration, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${game.broker.peers.secret:}") String secret,
+            @Value("${game.broker.peers.match-affinity:false}") boolean matchAffinity,
+            @Value("${game.broker.peers.refresh-ms:5000}") long refreshMs,
+            @Value("${game.broker.peers.max-queued:10000}") int maxQueued) {
+        this.discoveryClient = discoveryClient;
+        this.registration = registration;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        if (secret.isBlank()) {
+            throw new IllegalStateException("game.broker.peers.secret must be set when game.broker.relay=peers,"
+                    + " or any caller could post broadcasts to " + PATH);
+        }
+        if (!matchAffinity) {
+            throw new IllegalStateException("game.broker.relay=peers needs a load balancer that sends every player"
+                    + " of a game to the same node; set game.broker.peers.match-affinity=true once it does");
+        }
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.refreshMs = refreshMs;
+        this.maxQueued = maxQueued;
+
+        this.sent = Counter.builder("game.broker.relay.sent").register(meterRegistry);
+        this.received = Counter.builder("game.broker.relay.received").register(meterRegistry);
+        this.dropped = Counter.builder("game.broker.relay.dropped")
+                .description("Broadcasts not delivered to a peer that was down or too far behind")
+                .register(meterRegistry);
+        this.failures = Counter.builder("game.broker.relay.failures").register(meterRegistry);
+
+        System.out.println("🛰️ Relaying broadcasts to " + registration.getServiceId() + " peers");
+    }
+
+    @Override
+    public void publish(RelayedMessage message) {
+        if (System.currentTimeMillis() - refreshedAt > refreshMs) {
+            refreshPeers();
+        }
+        for (Peer peer : peers.values()) {
+            peer.enqueue(message);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<RelayedMessage> listener) {
+        this.listener = listener;
+    }
+
+    /** Delivers a batch posted by a peer, in order. False if the secret does not match. */
+    public boolean receive(String presentedSecret, List<RelayedMessage> messages) {
+        // Constant time, so the secret cannot be guessed from how long a rejection takes
+        if (presentedSecret == null
+                || !MessageDigest.isEqual(secret, presentedSecret.getBytes(StandardCharsets.UTF_8))) {
+            return false;
+        }
+        received.increment(messages.size());
+        for (RelayedMessage message : messages) {
+            listener.accept(message);
+        }
+        return true;
+    }
+
+    private synchronized void refreshPeers() {
+        if (System.currentTimeMillis() - refreshedAt <= refreshMs) {
+            return;
+        }
+        Set<String> current = new HashSet<>();
+        for (ServiceInstance instance : discoveryClient.getInstances(registration.getServiceId())) {
+            String instanceId = instance.getInstanceId();
+            if (instanceId == null || instanceId.equals(registration.getInstanceId())) {
+                continue;
+            }
+            current.add(instanceId);
+            peers.computeIfAbsent(instanceId, id -> {
+                System.out.println("🛰️ Relay peer joined: " + id + " at " + instance.getUri());
+                return new Peer(id, instance.getUri().resolve(PATH));
+            });
+        }
+        peers.values().removeIf(peer -> {
+            if (current.contains(peer.instanceId)) {
+                return false;
+            }
+            System.out.println("🛰️ Relay peer left: " + peer.instanceId);
+            peer.removed = true;
+            return true;
+        });
+        refreshedAt = System.currentTimeMillis();
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.matchservice.broker;
+
+import com.example.matchservice.config.GameBinaryCodec;
+import com.example.matchservice.config.OutboundQueues;
+import com.example.matchservice.config.RecipientInterceptor;
+import com.example.matchservice.model.DTO.RelayedMessage;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+/**
+ * Hands broadcasts relayed from other nodes to this node's broker, with the
+ * headers they were published with.
+ */
+@Component
+public class RelayDelivery {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public RelayDelivery(TopicRelay relay, SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+        relay.subscribe(this::deliver);
+    }
+
+    void deliver(RelayedMessage message) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        if (message.getContentType() != null) {
+            headers.setContentType(MimeType.valueOf(message.getContentType()));
+        }
+        if (message.getBinaryPayload() != null) {
+            headers.setHeader(GameBinaryCodec.BINARY_PAYLOAD_HEADER, message.getBinaryPayload());
+        }
+        if (message.getConflationKey() != null) {
+            headers.setNativeHeader(OutboundQueues.CONFLATION_KEY_HEADER, message.getConflationKey());
+        }
+        if (message.getRecipient() != null) {
+            headers.setHeader(RecipientInterceptor.RECIPIENT_HEADER, message.getRecipient());
+        }
+        headers.setHeader(TopicRelay.RELAYED_HEADER, true);
+        headers.setLeaveMutable(true);
+        messagingTemplate.send(message.getDestination(),
+                MessageBuilder.createMessage(message.getPayload(), headers.getMessageHeaders()));
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.matchservice.broker;
+
+import com.example.matchservice.model.DTO.RelayedMessage;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries {@code /topic} broadcasts between match-service nodes. Each node
+ * keeps its own simple broker and WebSocket sessions; what one node
+ * publishes is handed to the relay and delivered to the broker of every
+ * other node, so a spectator sees a game's events whichever node they are
+ * connected to. Picked with {@code game.broker.relay}.
+ */
+public interface TopicRelay {
+
+    /** Header marking a message delivered from another node, so it is not relayed again. */
+    String RELAYED_HEADER = "relayed";
+
+    /** Sends a broadcast published on this node to the other nodes. */
+    void publish(RelayedMessage message);
+
+    /** Sets where broadcasts from other nodes are delivered on this node. */
+    void subscribe(Consumer<RelayedMessage> listener);
+}
@@ -0,0 +1,54 @@
+package com.example.matchservice.broker;
+
+import com.example.matchservice.config.GameBinaryCodec;
+import com.example.matchservice.config.OutboundQueues;
+import com.example.matchservice.config.RecipientInterceptor;
+import com.example.matchservice.model.DTO.RelayedMessage;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sits on the broker channel and hands every {@code /topic} broadcast this
+ * node's application publishes to the {@link TopicRelay}. Broadcasts that
+ * came from another node carry {@link TopicRelay#RELAYED_HEADER} and are
+ * left alone.
+ */
+@Component
+public class TopicRelayInterceptor implements ChannelInterceptor {
+
+    private static final String TOPIC_PREFIX = "/topic/";
+
+    private final TopicRelay relay;
+
+    public TopicRelayInterceptor(TopicRelay relay) {
+        this.relay = relay;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (destination == null || !destination.startsWith(TOPIC_PREFIX)
+                || headers.containsKey(TopicRelay.RELAYED_HEADER)
+                || !(message.getPayload() instanceof byte[] payload)) {
+            return message;
+        }
+        Object contentType = headers.get(MessageHeaders.CONTENT_TYPE);
+        Object binary = headers.get(GameBinaryCodec.BINARY_PAYLOAD_HEADER);
+        Object recipient = headers.get(RecipientInterceptor.RECIPIENT_HEADER);
+        NativeMessageHeaderAccessor accessor = NativeMessageHeaderAccessor.getAccessor(message,
+                NativeMessageHeaderAccessor.class);
+        String conflationKey = accessor != null
+                ? accessor.getFirstNativeHeader(OutboundQueues.CONFLATION_KEY_HEADER)
+                : null;
+        relay.publish(new RelayedMessage(destination, contentType != null ? contentType.toString() : null,
+                payload, binary instanceof byte[] bytes ? bytes : null, conflationKey,
+                recipient instanceof String user ? user : null));
+        return message;
+    }
+}
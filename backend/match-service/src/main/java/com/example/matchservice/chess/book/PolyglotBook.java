@@ -0,0 +1,128 @@
+package com.example.matchservice.chess.book;
+
+import com.example.matchservice.chess.core.Move;
+import com.example.matchservice.chess.core.MoveGenerator;
+import com.example.matchservice.chess.core.MoveList;
+import com.example.matchservice.chess.core.Piece;
+import com.example.matchservice.chess.core.Position;
+import com.example.matchservice.chess.core.Square;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Read-only Polyglot {@code .bin} opening book. The file is memory-mapped, not
+ * read onto the heap, and looked up by binary search over its 16-byte entries
+ * (key, move, weight, learn; big-endian, sorted by key). Lookups only use
+ * absolute reads, so one instance is shared by every bot thread.
+ */
+public final class PolyglotBook {
+
+    private static final int ENTRY_SIZE = 16;
+    private static final int MAX_ENTRIES_PER_KEY = 64;
+
+    // Polyglot promotion codes: none, knight, bishop, rook, queen
+    private static final int[] PROMOTION_TYPES = { 0, Piece.KNIGHT, Piece.BISHOP, Piece.ROOK, Piece.QUEEN };
+
+    private final MappedByteBuffer entries;
+    private final int entryCount;
+    private final PolyglotKeys keys;
+
+    private PolyglotBook(MappedByteBuffer entries, PolyglotKeys keys) {
+        this.entries = entries;
+        this.entryCount = entries.capacity() / ENTRY_SIZE;
+        this.keys = keys;
+    }
+
+    public static PolyglotBook open(Path bookPath, PolyglotKeys keys) throws IOException {
+        try (FileChannel channel = FileChannel.open(bookPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % ENTRY_SIZE != 0 || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a Polyglot book: " + bookPath);
+            }
+            // The mapping stays valid after the channel is closed
+            return new PolyglotBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), keys);
+        }
+    }
+
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * Picks a book move for {@code position}, weighted by the entry weights, or
+     * returns {@link Move#NONE} if the position is not in the book.
+     */
+    public int probe(Position position) {
+        long key = keys.key(position);
+        int first = lowerBound(key);
+        if (first == entryCount || keyAt(first) != key) {
+            return Move.NONE;
+        }
+
+        int[] codes = new int[MAX_ENTRIES_PER_KEY];
+        int[] weights = new int[MAX_ENTRIES_PER_KEY];
+        int count = 0;
+        int totalWeight = 0;
+        for (int i = first; i < entryCount && count < MAX_ENTRIES_PER_KEY && keyAt(i) == key; i++) {
+            int offset = i * ENTRY_SIZE;
+            codes[count] = entries.getShort(offset + 8) & 0xFFFF;
+            weights[count] = entries.getShort(offset + 10) & 0xFFFF;
+            totalWeight += weights[count];
+            count++;
+        }
+
+        int chosen = 0;
+        if (totalWeight > 0) {
+            int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+            while (pick >= weights[chosen]) {
+                pick -= weights[chosen];
+                chosen++;
+            }
+        }
+        return toMove(position, codes[chosen]);
+    }
+
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(mid), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(int index) {
+        return entries.getLong(index * ENTRY_SIZE);
+    }
+
+    private static int toMove(Position position, int code) {
+        int to = Square.of(code & 7, (code >>> 3) & 7);
+        int from = Square.of((code >>> 6) & 7, (code >>> 9) & 7);
+        int promotion = PROMOTION_TYPES[Math.min((code >>> 12) & 7, 4)];
+
+        // Polyglot writes castling as the king taking its own rook
+        int piece = position.pieceAt(from);
+        if (piece != Piece.NONE && Piece.type(piece) == Piece.KING) {
+            if (from == Square.E1 && to == Square.H1 || from == Square.E8 && to == Square.H8) {
+                to = from + 2;
+            } else if (from == Square.E1 && to == Square.A1 || from == Square.E8 && to == Square.A8) {
+                to = from - 2;
+            }
+        }
+
+        // Only play book moves that are legal here; a corrupt entry or key collision is just a miss
+        MoveList legal = new MoveList();
+        MoveGenerator.generateLegal(position, legal);
+        return legal.find(from, to, promotion);
+    }
+}
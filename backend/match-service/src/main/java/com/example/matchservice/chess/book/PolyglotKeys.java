@@ -0,0 +1,106 @@
+package com.example.matchservice.chess.book;
+
+import com.example.matchservice.chess.core.Attacks;
+import com.example.matchservice.chess.core.Piece;
+import com.example.matchservice.chess.core.Position;
+import com.example.matchservice.chess.core.Square;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Polyglot position keys. Book files are indexed by these, not by our own
+ * {@code Zobrist} hash, and the 781 standard Random64 values are loaded from
+ * a text file (one hex value per line, {@code #} comments allowed) rather
+ * than compiled in.
+ */
+public final class PolyglotKeys {
+
+    public static final int COUNT = 781;
+
+    private static final int CASTLING_OFFSET = 768;
+    private static final int EN_PASSANT_OFFSET = 772;
+    private static final int TURN_OFFSET = 780;
+
+    private final long[] random64;
+
+    private PolyglotKeys(long[] random64) {
+        this.random64 = random64;
+    }
+
+    public static PolyglotKeys load(Path path) throws IOException {
+        List<String> lines = Files.readAllLines(path);
+        long[] values = new long[COUNT];
+        int count = 0;
+        for (String line : lines) {
+            String value = line.strip();
+            int comment = value.indexOf('#');
+            if (comment >= 0) {
+                value = value.substring(0, comment).strip();
+            }
+            if (value.isEmpty()) {
+                continue;
+            }
+            // Also accept values pasted from a C array, e.g. "0x9D39247E33776D41ULL,"
+            if (value.endsWith(",")) {
+                value = value.substring(0, value.length() - 1);
+            }
+            if (value.startsWith("0x") || value.startsWith("0X")) {
+                value = value.substring(2);
+            }
+            while (value.endsWith("U") || value.endsWith("L") || value.endsWith("u") || value.endsWith("l")) {
+                value = value.substring(0, value.length() - 1);
+            }
+            if (count == COUNT) {
+                throw new IOException("More than " + COUNT + " keys in " + path);
+            }
+            values[count++] = Long.parseUnsignedLong(value, 16);
+        }
+        if (count != COUNT) {
+            throw new IOException("Expected " + COUNT + " keys in " + path + ", found " + count);
+        }
+        return new PolyglotKeys(values);
+    }
+
+    public long key(Position position) {
+        long key = 0L;
+        for (int sq = 0; sq < 64; sq++) {
+            int piece = position.pieceAt(sq);
+            if (piece != Piece.NONE) {
+                // Polyglot orders black before white for each piece type
+                int kind = 2 * Piece.type(piece) + (Piece.color(piece) == Piece.WHITE ? 1 : 0);
+                key ^= random64[64 * kind + sq];
+            }
+        }
+
+        int castling = position.castling();
+        if ((castling & Position.WHITE_KINGSIDE) != 0) {
+            key ^= random64[CASTLING_OFFSET];
+        }
+        if ((castling & Position.WHITE_QUEENSIDE) != 0) {
+            key ^= random64[CASTLING_OFFSET + 1];
+        }
+        if ((castling & Position.BLACK_KINGSIDE) != 0) {
+            key ^= random64[CASTLING_OFFSET + 2];
+        }
+        if ((castling & Position.BLACK_QUEENSIDE) != 0) {
+            key ^= random64[CASTLING_OFFSET + 3];
+        }
+
+        // The en passant file only counts when a pawn could actually take
+        int ep = position.epSquare();
+        if (ep != Square.NONE) {
+            int us = position.sideToMove();
+            if ((Attacks.pawn(us ^ 1, ep) & position.pieces(us, Piece.PAWN)) != 0) {
+                key ^= random64[EN_PASSANT_OFFSET + Square.file(ep)];
+            }
+        }
+
+        if (position.sideToMove() == Piece.WHITE) {
+            key ^= random64[TURN_OFFSET];
+        }
+        return key;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.matchservice.chess.core;
+
+/**
+ * Precomputed attack tables. Knight, king and pawn attacks are plain lookups;
+ * sliding attacks use the classical ray approach: take the ray from the
+ * square, find the first blocker with a bit scan and cut the ray behind it.
+ */
+public final class Attacks {
+
+    private static final int NORTH = 0, EAST = 1, NORTH_EAST = 2, NORTH_WEST = 3;
+    private static final int SOUTH = 4, WEST = 5, SOUTH_WEST = 6, SOUTH_EAST = 7;
+
+    private static final int[] DIR_FILE = { 0, 1, 1, -1, 0, -1, -1, 1 };
+    private static final int[] DIR_RANK = { 1, 0, 1, 1, -1, 0, -1, -1 };
+
+    static final long[] KNIGHT = new long[64];
+    static final long[] KING = new long[64];
+    static final long[][] PAWN = new long[2][64];
+    private static final long[][] RAYS = new long[8][64];
+
+    static {
+        int[][] knightSteps = { { 1, 2 }, { 2, 1 }, { 2, -1 }, { 1, -2 }, { -1, -2 }, { -2, -1 }, { -2, 1 },
+                { -1, 2 } };
+        for (int sq = 0; sq < 64; sq++) {
+            int file = Square.file(sq);
+            int rank = Square.rank(sq);
+
+            for (int[] step : knightSteps) {
+                KNIGHT[sq] |= bit(file + step[0], rank + step[1]);
+            }
+            for (int df = -1; df <= 1; df++) {
+                for (int dr = -1; dr <= 1; dr++) {
+                    if (df != 0 || dr != 0) {
+                        KING[sq] |= bit(file + df, rank + dr);
+                    }
+                }
+            }
+            PAWN[Piece.WHITE][sq] = bit(file - 1, rank + 1) | bit(file + 1, rank + 1);
+            PAWN[Piece.BLACK][sq] = bit(file - 1, rank - 1) | bit(file + 1, rank - 1);
+
+            for (int dir = 0; dir < 8; dir++) {
+                long ray = 0L;
+                for (int f = file + DIR_FILE[dir], r = rank + DIR_RANK[dir]; f >= 0 && f < 8 && r >= 0
+                        && r < 8; f += DIR_FILE[dir], r += DIR_RANK[dir]) {
+                    ray |= 1L << Square.of(f, r);
+                }
+                RAYS[dir][sq] = ray;
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    private static long bit(int file, int rank) {
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            return 0L;
+        }
+        return 1L << Square.of(file, rank);
+    }
+
+    public static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    public static long king(int square) {
+        return KING[square];
+    }
+
+    public static long pawn(int color, int square) {
+        return PAWN[color][square];
+    }
+
+    public static long bishop(int square, long occupied) {
+        return positiveRay(NORTH_EAST, square, occupied) | positiveRay(NORTH_WEST, square, occupied)
+                | negativeRay(SOUTH_WEST, square, occupied) | negativeRay(SOUTH_EAST, square, occupied);
+    }
+
+    public static long rook(int square, long occupied) {
+        return positiveRay(NORTH, square, occupied) | positiveRay(EAST, square, occupied)
+                | negativeRay(SOUTH, square, occupied) | negativeRay(WEST, square, occupied);
+    }
+
+    public static long queen(int square, long occupied) {
+        return bishop(square, occupied) | rook(square, occupied);
+    }
+
+    private static long positiveRay(int dir, int square, long occupied) {
+        long ray = RAYS[dir][square];
+        long blockers = ray & occupied;
+        if (blockers != 0) {
+            ray ^= RAYS[dir][Long.numberOfTrailingZeros(blockers)];
+        }
+        return ray;
+    }
+
+    private static long negativeRay(int dir, int square, long occupied) {
+        long ray = RAYS[dir][square];
+        long blockers = ray & occupied;
+        if (blockers != 0) {
+            ray ^= RAYS[dir][63 - Long.numberOfLeadingZeros(blockers)];
+        }
+        return ray;
+    }
+}
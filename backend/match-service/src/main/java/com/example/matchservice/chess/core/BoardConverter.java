@@ -0,0 +1,83 @@
+package com.example.matchservice.chess.core;
+
+/**
+ * Converts between {@link Position} and the legacy {@code String[][]} board
+ * used by the DTOs (row 0 is rank 8, "" marks an empty square).
+ */
+public final class BoardConverter {
+
+    private static final String[] PIECE_STRINGS = new String[Piece.CODES];
+
+    static {
+        for (int piece = 0; piece < Piece.CODES; piece++) {
+            if (Piece.type(piece) <= Piece.KING) {
+                PIECE_STRINGS[piece] = String.valueOf(Piece.toChar(piece));
+            }
+        }
+    }
+
+    private BoardConverter() {
+    }
+
+    /**
+     * Positions go over the wire as FEN; clients still rendering the
+     * {@code String[][]} board ask for it with {@code boardFormat=legacy}.
+     */
+    public static boolean wantsLegacyBoard(String boardFormat) {
+        return "legacy".equalsIgnoreCase(boardFormat);
+    }
+
+    /**
+     * The legacy board carries no castling or en passant state, so castling
+     * rights are inferred from kings and rooks still standing on their home
+     * squares and no en passant square is set.
+     */
+    public static Position fromBoard(String[][] board, boolean isWhiteTurn) {
+        Position position = new Position();
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                String piece = board[row][col];
+                if (piece != null && !piece.isEmpty()) {
+                    position.putPiece(Square.fromRowCol(row, col), Piece.fromChar(piece.charAt(0)));
+                }
+            }
+        }
+        position.setSideToMove(isWhiteTurn ? Piece.WHITE : Piece.BLACK);
+        position.setCastling(inferCastling(position));
+        return position;
+    }
+
+    public static String[][] toBoard(Position position) {
+        String[][] board = new String[8][8];
+        for (int sq = 0; sq < 64; sq++) {
+            int piece = position.pieceAt(sq);
+            board[Square.row(sq)][Square.col(sq)] = piece == Piece.NONE ? "" : PIECE_STRINGS[piece];
+        }
+        return board;
+    }
+
+    public static String pieceString(int piece) {
+        return piece == Piece.NONE ? null : PIECE_STRINGS[piece];
+    }
+
+    static int inferCastling(Position position) {
+        int rights = 0;
+        if (position.pieceAt(Square.E1) == Piece.W_KING) {
+            if (position.pieceAt(Square.H1) == Piece.W_ROOK) {
+                rights |= Position.WHITE_KINGSIDE;
+            }
+            if (position.pieceAt(Square.A1) == Piece.W_ROOK) {
+                rights |= Position.WHITE_QUEENSIDE;
+            }
+        }
+        if (position.pieceAt(Square.E8) == Piece.B_KING) {
+            if (position.pieceAt(Square.H8) == Piece.B_ROOK) {
+                rights |= Position.BLACK_KINGSIDE;
+            }
+            if (position.pieceAt(Square.A8) == Piece.B_ROOK) {
+                rights |= Position.BLACK_QUEENSIDE;
+            }
+        }
+        return rights;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.matchservice.chess.core;
+
+import java.util.Arrays;
+
+/**
+ * FEN parsing and formatting with the full state: castling rights, en passant
+ * square and both move clocks. Missing trailing fields default to "w - - 0 1".
+ * An en passant square is kept only if a pawn of the side to move stands
+ * next to the pushed pawn, as {@link Position} does, so it is written as "-"
+ * otherwise.
+ */
+public final class Fen {
+
+    public static final String INITIAL = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    // Piece code by FEN letter, -1 for anything else
+    private static final int[] PIECES = new int[128];
+
+    static {
+        Arrays.fill(PIECES, -1);
+        for (int piece = 0; piece < Piece.CODES; piece++) {
+            if (Piece.type(piece) <= Piece.KING) {
+                PIECES[Piece.toChar(piece)] = piece;
+            }
+        }
+    }
+
+    private Fen() {
+    }
+
+    /**
+     * Parses all six fields in one pass over the string. Throws
+     * {@link IllegalArgumentException} for malformed input.
+     */
+    public static Position parse(String fen) {
+        Position position = new Position();
+        int length = fen.length();
+        int i = skipSpaces(fen, 0);
+
+        int rank = 7;
+        int file = 0;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (file != 8 || rank == 0) {
+                    throw bad(fen);
+                }
+                rank--;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+                if (file > 8) {
+                    throw bad(fen);
+                }
+            } else {
+                int piece = PIECES[c & 0x7F];
+                if (c > 0x7F || piece < 0 || file > 7) {
+                    throw bad(fen);
+                }
+                position.putPiece(Square.of(file, rank), piece);
+                file++;
+            }
+        }
+        if (rank != 0 || file != 8) {
+            throw bad(fen);
+        }
+
+        i = skipSpaces(fen, i);
+        if (i < length) {
+            char side = fen.charAt(i++);
+            if (side != 'w' && side != 'b') {
+                throw bad(fen);
+            }
+            position.setSideToMove(side == 'b' ? Piece.BLACK : Piece.WHITE);
+        }
+
+        int castling = 0;
+        i = skipSpaces(fen, i);
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            switch (fen.charAt(i)) {
+                case 'K' -> castling |= Position.WHITE_KINGSIDE;
+                case 'Q' -> castling |= Position.WHITE_QUEENSIDE;
+                case 'k' -> castling |= Position.BLACK_KINGSIDE;
+                case 'q' -> castling |= Position.BLACK_QUEENSIDE;
+                case '-' -> {
+                }
+                default -> throw bad(fen);
+            }
+        }
+        // Older rows were saved with "KQkq" regardless of the position; keep only rights the pieces allow
+        position.setCastling(castling & BoardConverter.inferCastling(position));
+
+        i = skipSpaces(fen, i);
+        if (i < length && fen.charAt(i) != '-') {
+            if (i + 1 >= length) {
+                throw bad(fen);
+            }
+            int epFile = fen.charAt(i) - 'a';
+            int epRank = fen.charAt(i + 1) - '1';
+            if (epFile < 0 || epFile > 7 || (epRank != 2 && epRank != 5)) {
+                throw bad(fen);
+            }
+            if (position.canCaptureEnPassant(Square.of(epFile, epRank), position.sideToMove())) {
+                position.setEpSquare(Square.of(epFile, epRank));
+            }
+            i += 2;
+        } else if (i < length) {
+            i++;
+        }
+
+        i = skipSpaces(fen, i);
+        if (i < length) {
+            int end = fieldEnd(fen, i);
+            position.setHalfmoveClock(parseNumber(fen, i, end));
+            i = skipSpaces(fen, end);
+        }
+        if (i < length) {
+            int end = fieldEnd(fen, i);
+            position.setFullmoveNumber(Math.max(1, parseNumber(fen, i, end)));
+        }
+        return position;
+    }
+
+    private static int skipSpaces(String fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int fieldEnd(String fen, int i) {
+        while (i < fen.length() && fen.charAt(i) != ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int parseNumber(String fen, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9' || value > 100_000) {
+                throw bad(fen);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException bad(String fen) {
+        return new IllegalArgumentException("Bad FEN: " + fen);
+    }
+
+    public static String format(Position position) {
+        StringBuilder fen = new StringBuilder(90);
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                int piece = position.pieceAt(Square.of(file, rank));
+                if (piece == Piece.NONE) {
+                    empty++;
+                } else {
+                    if (empty > 0) {
+                        fen.append(empty);
+                        empty = 0;
+                    }
+                    fen.append(Piece.toChar(piece));
+                }
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (rank > 0) {
+                fen.append('/');
+            }
+        }
+
+        fen.append(position.sideToMove() == Piece.WHITE ? " w " : " b ");
+
+        int castling = position.castling();
+        if (castling == 0) {
+            fen.append('-');
+        } else {
+            if ((castling & Position.WHITE_KINGSIDE) != 0) {
+                fen.append('K');
+            }
+            if ((castling & Position.WHITE_QUEENSIDE) != 0) {
+                fen.append('Q');
+            }
+            if ((castling & Position.BLACK_KINGSIDE) != 0) {
+                fen.append('k');
+            }
+            if ((castling & Position.BLACK_QUEENSIDE) != 0) {
+                fen.append('q');
+            }
+        }
+
+        fen.append(' ').append(position.epSquare() == Square.NONE ? "-" : Square.name(position.epSquare()));
+        fen.append(' ').append(position.halfmoveClock());
+        fen.append(' ').append(position.fullmoveNumber());
+        return fen.toString();
+    }
+}
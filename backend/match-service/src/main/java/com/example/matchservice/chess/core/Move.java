@@ -0,0 +1,85 @@
+package com.example.matchservice.chess.core;
+
+/**
+ * Moves are packed into a single {@code int}:
+ *
+ * <pre>
+ *  bits  0-5   from square
+ *  bits  6-11  to square
+ *  bits 12-14  promotion piece type (0 = none)
+ *  bits 16-19  flags (capture, en passant, castle, double push)
+ *  bits 20-23  moving piece code
+ *  bits 24-27  captured piece code ({@link Piece#NONE} if quiet)
+ * </pre>
+ *
+ * The low 16 bits alone identify the move within a position.
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 16;
+    public static final int EN_PASSANT = 1 << 17;
+    public static final int CASTLE = 1 << 18;
+    public static final int DOUBLE_PUSH = 1 << 19;
+
+    private Move() {
+    }
+
+    public static int encode(int from, int to, int piece, int captured, int promotion, int flags) {
+        return from | (to << 6) | (promotion << 12) | flags | (piece << 20) | (captured << 24);
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int promotion(int move) {
+        return (move >>> 12) & 7;
+    }
+
+    public static int piece(int move) {
+        return (move >>> 20) & 0xF;
+    }
+
+    public static int captured(int move) {
+        return (move >>> 24) & 0xF;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    public static boolean isDoublePush(int move) {
+        return (move & DOUBLE_PUSH) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return promotion(move) != 0;
+    }
+
+    /** The position-independent part of the move: from, to and promotion. */
+    public static int code(int move) {
+        return move & 0x7FFF;
+    }
+
+    public static String toUci(int move) {
+        String uci = Square.name(from(move)) + Square.name(to(move));
+        if (isPromotion(move)) {
+            uci += Character.toLowerCase(Piece.toChar(promotion(move)));
+        }
+        return uci;
+    }
+}
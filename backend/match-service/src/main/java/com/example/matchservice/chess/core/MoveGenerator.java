@@ -0,0 +1,177 @@
+package com.example.matchservice.chess.core;
+
+/**
+ * Bitboard move generator. Moves are written into a caller supplied
+ * {@link MoveList}; legality is decided by make/unmake on the same position and
+ * checking whether the mover's king is attacked, so generation never allocates.
+ */
+public final class MoveGenerator {
+
+    /** Upper bound on the number of moves in any reachable position. */
+    public static final int MAX_MOVES = 256;
+
+    private static final long RANK_1 = 0xFFL;
+    private static final long RANK_8 = 0xFFL << 56;
+
+    private MoveGenerator() {
+    }
+
+    public static void generateLegal(Position position, MoveList list) {
+        generatePseudoLegal(position, list);
+        int[] moves = list.moves;
+        int legal = 0;
+        for (int i = 0; i < list.size; i++) {
+            if (isLegal(position, moves[i])) {
+                moves[legal++] = moves[i];
+            }
+        }
+        list.size = legal;
+    }
+
+    public static boolean isLegal(Position position, int move) {
+        int us = position.sideToMove;
+        position.makeMove(move);
+        boolean legal = !position.isKingAttacked(us);
+        position.unmakeMove(move);
+        return legal;
+    }
+
+    public static void generatePseudoLegal(Position position, MoveList list) {
+        int[] moves = list.moves;
+        int us = position.sideToMove;
+        int them = us ^ 1;
+        long own = position.colors[us];
+        long enemy = position.colors[them];
+        long occupied = position.occupied;
+        long targets = ~own;
+
+        int count = generatePawnMoves(position, moves, 0, us, enemy, occupied);
+
+        int knight = Piece.make(us, Piece.KNIGHT);
+        for (long bb = position.pieces[knight]; bb != 0; bb &= bb - 1) {
+            int from = Long.numberOfTrailingZeros(bb);
+            count = addTargets(position, moves, count, from, knight, Attacks.KNIGHT[from] & targets);
+        }
+
+        int bishop = Piece.make(us, Piece.BISHOP);
+        for (long bb = position.pieces[bishop]; bb != 0; bb &= bb - 1) {
+            int from = Long.numberOfTrailingZeros(bb);
+            count = addTargets(position, moves, count, from, bishop, Attacks.bishop(from, occupied) & targets);
+        }
+
+        int rook = Piece.make(us, Piece.ROOK);
+        for (long bb = position.pieces[rook]; bb != 0; bb &= bb - 1) {
+            int from = Long.numberOfTrailingZeros(bb);
+            count = addTargets(position, moves, count, from, rook, Attacks.rook(from, occupied) & targets);
+        }
+
+        int queen = Piece.make(us, Piece.QUEEN);
+        for (long bb = position.pieces[queen]; bb != 0; bb &= bb - 1) {
+            int from = Long.numberOfTrailingZeros(bb);
+            count = addTargets(position, moves, count, from, queen, Attacks.queen(from, occupied) & targets);
+        }
+
+        int king = Piece.make(us, Piece.KING);
+        long kings = position.pieces[king];
+        if (kings != 0) {
+            int from = Long.numberOfTrailingZeros(kings);
+            count = addTargets(position, moves, count, from, king, Attacks.KING[from] & targets);
+            count = generateCastles(position, moves, count, us, king);
+        }
+
+        list.size = count;
+    }
+
+    private static int addTargets(Position position, int[] moves, int count, int from, int piece, long targets) {
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            int captured = position.board[to];
+            int flags = captured == Piece.NONE ? 0 : Move.CAPTURE;
+            moves[count++] = Move.encode(from, to, piece, captured, 0, flags);
+        }
+        return count;
+    }
+
+    private static int generatePawnMoves(Position position, int[] moves, int count, int us, long enemy,
+            long occupied) {
+        int pawn = Piece.make(us, Piece.PAWN);
+        int forward = us == Piece.WHITE ? 8 : -8;
+        long promotionRank = us == Piece.WHITE ? RANK_8 : RANK_1;
+        int startRank = us == Piece.WHITE ? 1 : 6;
+
+        for (long bb = position.pieces[pawn]; bb != 0; bb &= bb - 1) {
+            int from = Long.numberOfTrailingZeros(bb);
+            int to = from + forward;
+
+            if ((occupied & (1L << to)) == 0) {
+                if (((1L << to) & promotionRank) != 0) {
+                    count = addPromotions(moves, count, from, to, pawn, Piece.NONE, 0);
+                } else {
+                    moves[count++] = Move.encode(from, to, pawn, Piece.NONE, 0, 0);
+                    int doubleTo = to + forward;
+                    if (Square.rank(from) == startRank && (occupied & (1L << doubleTo)) == 0) {
+                        moves[count++] = Move.encode(from, doubleTo, pawn, Piece.NONE, 0, Move.DOUBLE_PUSH);
+                    }
+                }
+            }
+
+            long attacks = Attacks.PAWN[us][from];
+            for (long captures = attacks & enemy; captures != 0; captures &= captures - 1) {
+                int target = Long.numberOfTrailingZeros(captures);
+                int captured = position.board[target];
+                if (((1L << target) & promotionRank) != 0) {
+                    count = addPromotions(moves, count, from, target, pawn, captured, Move.CAPTURE);
+                } else {
+                    moves[count++] = Move.encode(from, target, pawn, captured, 0, Move.CAPTURE);
+                }
+            }
+
+            int ep = position.epSquare;
+            if (ep != Square.NONE && (attacks & (1L << ep)) != 0) {
+                moves[count++] = Move.encode(from, ep, pawn, Piece.make(us ^ 1, Piece.PAWN), 0,
+                        Move.CAPTURE | Move.EN_PASSANT);
+            }
+        }
+        return count;
+    }
+
+    private static int addPromotions(int[] moves, int count, int from, int to, int pawn, int captured, int flags) {
+        moves[count++] = Move.encode(from, to, pawn, captured, Piece.QUEEN, flags);
+        moves[count++] = Move.encode(from, to, pawn, captured, Piece.KNIGHT, flags);
+        moves[count++] = Move.encode(from, to, pawn, captured, Piece.ROOK, flags);
+        moves[count++] = Move.encode(from, to, pawn, captured, Piece.BISHOP, flags);
+        return count;
+    }
+
+    private static int generateCastles(Position position, int[] moves, int count, int us, int king) {
+        int them = us ^ 1;
+        long occupied = position.occupied;
+        int rights = position.castling;
+
+        if (us == Piece.WHITE) {
+            if ((rights & Position.WHITE_KINGSIDE) != 0 && (occupied & 0x60L) == 0
+                    && castlePathSafe(position, them, Square.E1, Square.F1, Square.G1)) {
+                moves[count++] = Move.encode(Square.E1, Square.G1, king, Piece.NONE, 0, Move.CASTLE);
+            }
+            if ((rights & Position.WHITE_QUEENSIDE) != 0 && (occupied & 0x0EL) == 0
+                    && castlePathSafe(position, them, Square.E1, Square.D1, Square.C1)) {
+                moves[count++] = Move.encode(Square.E1, Square.C1, king, Piece.NONE, 0, Move.CASTLE);
+            }
+        } else {
+            if ((rights & Position.BLACK_KINGSIDE) != 0 && (occupied & (0x60L << 56)) == 0
+                    && castlePathSafe(position, them, Square.E8, Square.F8, Square.G8)) {
+                moves[count++] = Move.encode(Square.E8, Square.G8, king, Piece.NONE, 0, Move.CASTLE);
+            }
+            if ((rights & Position.BLACK_QUEENSIDE) != 0 && (occupied & (0x0EL << 56)) == 0
+                    && castlePathSafe(position, them, Square.E8, Square.D8, Square.C8)) {
+                moves[count++] = Move.encode(Square.E8, Square.C8, king, Piece.NONE, 0, Move.CASTLE);
+            }
+        }
+        return count;
+    }
+
+    private static boolean castlePathSafe(Position position, int them, int a, int b, int c) {
+        return !position.isSquareAttacked(a, them) && !position.isSquareAttacked(b, them)
+                && !position.isSquareAttacked(c, them);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.matchservice.chess.core;
+
+/**
+ * Reusable buffer of packed moves. Callers keep one list per search ply (or
+ * per thread) and {@link #clear()} it instead of allocating a new one.
+ */
+public final class MoveList {
+
+    final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    int size;
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void swap(int i, int j) {
+        int tmp = moves[i];
+        moves[i] = moves[j];
+        moves[j] = tmp;
+    }
+
+    /** Finds the legal move matching from, to and promotion, or {@link Move#NONE}. */
+    public int find(int from, int to, int promotion) {
+        for (int i = 0; i < size; i++) {
+            int move = moves[i];
+            if (Move.from(move) == from && Move.to(move) == to && Move.promotion(move) == promotion) {
+                return move;
+            }
+        }
+        return Move.NONE;
+    }
+}
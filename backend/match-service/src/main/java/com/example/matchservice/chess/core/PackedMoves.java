@@ -0,0 +1,58 @@
+package com.example.matchservice.chess.core;
+
+/**
+ * A game's moves as a byte array of big-endian 16-bit values, one per ply.
+ * The values are {@link Move#code} move codes, replayed from the start
+ * position to rebuild any position of the game. The same layout holds the
+ * optional per-move think times, in tenths of a second.
+ */
+public final class PackedMoves {
+
+    public static final int BYTES_PER_MOVE = 2;
+
+    private static final int MAX_VALUE = 0xFFFF;
+
+    private PackedMoves() {
+    }
+
+    /** Number of plies in {@code packed}; 0 for null. */
+    public static int count(byte[] packed) {
+        return packed == null ? 0 : packed.length / BYTES_PER_MOVE;
+    }
+
+    public static int get(byte[] packed, int ply) {
+        int offset = ply * BYTES_PER_MOVE;
+        return (packed[offset] & 0xFF) << 8 | (packed[offset + 1] & 0xFF);
+    }
+
+    public static void put(byte[] packed, int ply, int value) {
+        int offset = ply * BYTES_PER_MOVE;
+        packed[offset] = (byte) (value >>> 8);
+        packed[offset + 1] = (byte) value;
+    }
+
+    public static byte[] encode(int[] values) {
+        byte[] packed = new byte[values.length * BYTES_PER_MOVE];
+        for (int i = 0; i < values.length; i++) {
+            put(packed, i, values[i]);
+        }
+        return packed;
+    }
+
+    public static int[] decode(byte[] packed) {
+        int[] values = new int[count(packed)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = get(packed, i);
+        }
+        return values;
+    }
+
+    /** A think time as stored: tenths of a second, capped at about 109 minutes. */
+    public static int toTenths(long millis) {
+        return (int) Math.max(0, Math.min(MAX_VALUE, millis / 100));
+    }
+
+    public static long toMillis(int tenths) {
+        return tenths * 100L;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.matchservice.chess.core;
+
+/**
+ * Fixed 32-byte binary form of a position, for storage and the wire:
+ *
+ * <pre>
+ *  0..7   occupancy bitboard, big-endian (bit n = square n, a1 = 0)
+ *  8..23  one 4-bit piece code per occupied square in square order, high nibble first
+ *  24     side to move (bit 7) and castling rights (bits 3-6)
+ *  25     en passant file + 1, 0 for none
+ *  26     halfmove clock, capped at 255
+ *  27..28 fullmove number, big-endian
+ *  29..31 zero
+ * </pre>
+ *
+ * A position never has more than 32 pieces, so the nibbles always fit.
+ */
+public final class PackedPosition {
+
+    public static final int SIZE = 32;
+
+    private static final int PIECES_OFFSET = 8;
+    private static final int FLAGS_OFFSET = 24;
+    private static final int EP_OFFSET = 25;
+    private static final int HALFMOVE_OFFSET = 26;
+    private static final int FULLMOVE_OFFSET = 27;
+
+    private PackedPosition() {
+    }
+
+    public static byte[] encode(Position position) {
+        byte[] bytes = new byte[SIZE];
+        encode(position, bytes, 0);
+        return bytes;
+    }
+
+    public static void encode(Position position, byte[] out, int offset) {
+        long occupied = position.occupied();
+        if (Long.bitCount(occupied) > 32) {
+            throw new IllegalArgumentException("More than 32 pieces on the board");
+        }
+        for (int i = 0; i < 8; i++) {
+            out[offset + i] = (byte) (occupied >>> (56 - 8 * i));
+        }
+        for (int i = PIECES_OFFSET; i < SIZE; i++) {
+            out[offset + i] = 0;
+        }
+
+        int nibble = 0;
+        long remaining = occupied;
+        while (remaining != 0) {
+            int sq = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            int index = offset + PIECES_OFFSET + (nibble >>> 1);
+            int shift = (nibble & 1) == 0 ? 4 : 0;
+            out[index] |= (byte) (position.pieceAt(sq) << shift);
+            nibble++;
+        }
+
+        out[offset + FLAGS_OFFSET] = (byte) (position.sideToMove() << 7 | position.castling() << 3);
+        int ep = position.epSquare();
+        out[offset + EP_OFFSET] = (byte) (ep == Square.NONE ? 0 : Square.file(ep) + 1);
+        out[offset + HALFMOVE_OFFSET] = (byte) Math.min(255, position.halfmoveClock());
+        int fullmove = Math.min(0xFFFF, position.fullmoveNumber());
+        out[offset + FULLMOVE_OFFSET] = (byte) (fullmove >>> 8);
+        out[offset + FULLMOVE_OFFSET + 1] = (byte) fullmove;
+    }
+
+    public static Position decode(byte[] bytes) {
+        return decode(bytes, 0);
+    }
+
+    public static Position decode(byte[] in, int offset) {
+        if (in.length - offset < SIZE) {
+            throw new IllegalArgumentException("Packed position needs " + SIZE + " bytes");
+        }
+        long occupied = 0L;
+        for (int i = 0; i < 8; i++) {
+            occupied = occupied << 8 | (in[offset + i] & 0xFFL);
+        }
+
+        Position position = new Position();
+        int nibble = 0;
+        while (occupied != 0) {
+            int sq = Long.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            int value = in[offset + PIECES_OFFSET + (nibble >>> 1)] & 0xFF;
+            int piece = (nibble & 1) == 0 ? value >>> 4 : value & 0xF;
+            if (Piece.type(piece) > Piece.KING) {
+                throw new IllegalArgumentException("Bad piece code " + piece + " in packed position");
+            }
+            position.putPiece(sq, piece);
+            nibble++;
+        }
+
+        int flags = in[offset + FLAGS_OFFSET] & 0xFF;
+        int side = flags >>> 7;
+        position.setSideToMove(side);
+        position.setCastling((flags >>> 3) & 0xF);
+        int epFile = in[offset + EP_OFFSET] & 0xFF;
+        // The captured pawn just double-pushed, so the rank follows from the side to move. Checkpoints saved
+        // before uncapturable squares were dropped may still have one
+        int epSquare = epFile != 0 ? Square.of(epFile - 1, side == Piece.WHITE ? 5 : 2) : Square.NONE;
+        if (epSquare != Square.NONE && position.canCaptureEnPassant(epSquare, side)) {
+            position.setEpSquare(epSquare);
+        }
+        position.setHalfmoveClock(in[offset + HALFMOVE_OFFSET] & 0xFF);
+        position.setFullmoveNumber(
+                (in[offset + FULLMOVE_OFFSET] & 0xFF) << 8 | (in[offset + FULLMOVE_OFFSET + 1] & 0xFF));
+        return position;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.matchservice.chess.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Perft: counts the leaf nodes of the legal move tree to a fixed depth. The
+ * counts for the standard test positions are known exactly, so any mismatch
+ * points to a move generation or make/unmake bug.
+ */
+public final class Perft {
+
+    private final MoveList[] lists;
+
+    public Perft(int maxDepth) {
+        lists = new MoveList[maxDepth + 1];
+        for (int i = 0; i <= maxDepth; i++) {
+            lists[i] = new MoveList();
+        }
+    }
+
+    public long count(Position position, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList moves = lists[depth];
+        MoveGenerator.generateLegal(position, moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            position.makeMove(move);
+            nodes += count(position, depth - 1);
+            position.unmakeMove(move);
+        }
+        return nodes;
+    }
+
+    /** Node counts per root move in UCI notation, in generation order. */
+    public Map<String, Long> divide(Position position, int depth) {
+        MoveList rootMoves = new MoveList();
+        MoveGenerator.generateLegal(position, rootMoves);
+
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < rootMoves.size(); i++) {
+            int move = rootMoves.get(i);
+            position.makeMove(move);
+            result.put(Move.toUci(move), count(position, depth - 1));
+            position.unmakeMove(move);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.matchservice.chess.core;
+
+/**
+ * Piece and color constants. A piece code packs the type in the low three bits
+ * and the color in bit 3, so white pieces are 0-5 and black pieces are 8-13.
+ */
+public final class Piece {
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    public static final int NONE = 15;
+
+    public static final int W_PAWN = PAWN;
+    public static final int W_KNIGHT = KNIGHT;
+    public static final int W_BISHOP = BISHOP;
+    public static final int W_ROOK = ROOK;
+    public static final int W_QUEEN = QUEEN;
+    public static final int W_KING = KING;
+    public static final int B_PAWN = 8 | PAWN;
+    public static final int B_KNIGHT = 8 | KNIGHT;
+    public static final int B_BISHOP = 8 | BISHOP;
+    public static final int B_ROOK = 8 | ROOK;
+    public static final int B_QUEEN = 8 | QUEEN;
+    public static final int B_KING = 8 | KING;
+
+    /** Size of arrays indexed by piece code. */
+    public static final int CODES = 14;
+
+    private static final String CHARS = "PNBRQK??pnbrqk";
+
+    private Piece() {
+    }
+
+    public static int make(int color, int type) {
+        return (color << 3) | type;
+    }
+
+    public static int type(int piece) {
+        return piece & 7;
+    }
+
+    public static int color(int piece) {
+        return piece >>> 3;
+    }
+
+    public static char toChar(int piece) {
+        return CHARS.charAt(piece);
+    }
+
+    public static int fromChar(char c) {
+        int index = CHARS.indexOf(c);
+        if (index < 0 || c == '?') {
+            throw new IllegalArgumentException("Unknown piece: " + c);
+        }
+        return index;
+    }
+}
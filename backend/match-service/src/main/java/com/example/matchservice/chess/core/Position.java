@@ -0,0 +1,350 @@
+package com.example.matchservice.chess.core;
+
+import java.util.Arrays;
+
+/**
+ * Mutable chess position backed by one bitboard per piece code, per-color
+ * occupancy and a square-indexed mailbox for O(1) piece lookup.
+ */
+public final class Position {
+
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+
+    private static final int[] CASTLE_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLE_MASK, 0xF);
+        CASTLE_MASK[Square.E1] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLE_MASK[Square.H1] &= ~WHITE_KINGSIDE;
+        CASTLE_MASK[Square.A1] &= ~WHITE_QUEENSIDE;
+        CASTLE_MASK[Square.E8] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLE_MASK[Square.H8] &= ~BLACK_KINGSIDE;
+        CASTLE_MASK[Square.A8] &= ~BLACK_QUEENSIDE;
+    }
+
+    final long[] pieces = new long[Piece.CODES];
+    final long[] colors = new long[2];
+    long occupied;
+    final byte[] board = new byte[64];
+
+    int sideToMove = Piece.WHITE;
+    int castling;
+    int epSquare = Square.NONE;
+    int halfmoveClock;
+    int fullmoveNumber = 1;
+    long hash = Zobrist.CASTLING[0];
+
+    // Irreversible state saved by makeMove and restored by unmakeMove
+    private int[] history = new int[256];
+    private long[] hashHistory = new long[256];
+    private int historySize;
+
+    public Position() {
+        Arrays.fill(board, (byte) Piece.NONE);
+    }
+
+    public static Position initial() {
+        Position position = new Position();
+        String back = "RNBQKBNR";
+        for (int file = 0; file < 8; file++) {
+            position.putPiece(Square.of(file, 0), Piece.fromChar(back.charAt(file)));
+            position.putPiece(Square.of(file, 1), Piece.W_PAWN);
+            position.putPiece(Square.of(file, 6), Piece.B_PAWN);
+            position.putPiece(Square.of(file, 7), Piece.fromChar(Character.toLowerCase(back.charAt(file))));
+        }
+        position.setCastling(WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        return position;
+    }
+
+    /**
+     * Copies the current state along with the history since the last capture
+     * or pawn move, so the copy still sees repetitions; it cannot unmake moves
+     * played before that.
+     */
+    public Position copy() {
+        Position copy = new Position();
+        System.arraycopy(pieces, 0, copy.pieces, 0, pieces.length);
+        System.arraycopy(colors, 0, copy.colors, 0, colors.length);
+        System.arraycopy(board, 0, copy.board, 0, board.length);
+        copy.occupied = occupied;
+        copy.sideToMove = sideToMove;
+        copy.castling = castling;
+        copy.epSquare = epSquare;
+        copy.halfmoveClock = halfmoveClock;
+        copy.fullmoveNumber = fullmoveNumber;
+        copy.hash = hash;
+        // Nothing before the last irreversible move can repeat the current position
+        int kept = Math.min(historySize, halfmoveClock);
+        if (kept > copy.history.length) {
+            copy.history = new int[kept];
+            copy.hashHistory = new long[kept];
+        }
+        System.arraycopy(history, historySize - kept, copy.history, 0, kept);
+        System.arraycopy(hashHistory, historySize - kept, copy.hashHistory, 0, kept);
+        copy.historySize = kept;
+        return copy;
+    }
+
+    public void putPiece(int square, int piece) {
+        long bit = 1L << square;
+        pieces[piece] |= bit;
+        colors[Piece.color(piece)] |= bit;
+        occupied |= bit;
+        board[square] = (byte) piece;
+        hash ^= Zobrist.PIECE_SQUARE[piece][square];
+    }
+
+    public void removePiece(int square) {
+        int piece = board[square];
+        long bit = ~(1L << square);
+        pieces[piece] &= bit;
+        colors[Piece.color(piece)] &= bit;
+        occupied &= bit;
+        board[square] = (byte) Piece.NONE;
+        hash ^= Zobrist.PIECE_SQUARE[piece][square];
+    }
+
+    private void movePiece(int from, int to) {
+        int piece = board[from];
+        long fromTo = (1L << from) | (1L << to);
+        pieces[piece] ^= fromTo;
+        colors[Piece.color(piece)] ^= fromTo;
+        occupied ^= fromTo;
+        board[from] = (byte) Piece.NONE;
+        board[to] = (byte) piece;
+        hash ^= Zobrist.PIECE_SQUARE[piece][from] ^ Zobrist.PIECE_SQUARE[piece][to];
+    }
+
+    public void makeMove(int move) {
+        int us = sideToMove;
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int piece = Move.piece(move);
+
+        if (historySize == history.length) {
+            history = Arrays.copyOf(history, historySize * 2);
+            hashHistory = Arrays.copyOf(hashHistory, historySize * 2);
+        }
+        hashHistory[historySize] = hash;
+        history[historySize++] = castling | ((epSquare + 1) << 4) | (halfmoveClock << 11);
+        hash ^= Zobrist.CASTLING[castling];
+        if (epSquare != Square.NONE) {
+            hash ^= Zobrist.EP_FILE[Square.file(epSquare)];
+        }
+
+        halfmoveClock++;
+        if (Piece.type(piece) == Piece.PAWN) {
+            halfmoveClock = 0;
+        }
+
+        if (Move.isEnPassant(move)) {
+            removePiece(us == Piece.WHITE ? to - 8 : to + 8);
+            halfmoveClock = 0;
+        } else if (Move.isCapture(move)) {
+            removePiece(to);
+            halfmoveClock = 0;
+        }
+
+        movePiece(from, to);
+
+        if (Move.isPromotion(move)) {
+            removePiece(to);
+            putPiece(to, Piece.make(us, Move.promotion(move)));
+        } else if (Move.isCastle(move)) {
+            switch (to) {
+                case Square.G1 -> movePiece(Square.H1, Square.F1);
+                case Square.C1 -> movePiece(Square.A1, Square.D1);
+                case Square.G8 -> movePiece(Square.H8, Square.F8);
+                case Square.C8 -> movePiece(Square.A8, Square.D8);
+                default -> throw new IllegalStateException("Bad castle target: " + Square.name(to));
+            }
+        }
+
+        castling &= CASTLE_MASK[from] & CASTLE_MASK[to];
+        epSquare = Move.isDoublePush(move) && canCaptureEnPassant((from + to) >>> 1, us ^ 1)
+                ? (from + to) >>> 1 : Square.NONE;
+        hash ^= Zobrist.CASTLING[castling] ^ Zobrist.SIDE;
+        if (epSquare != Square.NONE) {
+            hash ^= Zobrist.EP_FILE[Square.file(epSquare)];
+        }
+
+        if (us == Piece.BLACK) {
+            fullmoveNumber++;
+        }
+        sideToMove = us ^ 1;
+    }
+
+    public void unmakeMove(int move) {
+        int us = sideToMove ^ 1;
+        int from = Move.from(move);
+        int to = Move.to(move);
+
+        sideToMove = us;
+        if (us == Piece.BLACK) {
+            fullmoveNumber--;
+        }
+
+        int state = history[--historySize];
+        castling = state & 0xF;
+        epSquare = ((state >>> 4) & 0x7F) - 1;
+        halfmoveClock = state >>> 11;
+
+        if (Move.isPromotion(move)) {
+            removePiece(to);
+            putPiece(to, Move.piece(move));
+        } else if (Move.isCastle(move)) {
+            switch (to) {
+                case Square.G1 -> movePiece(Square.F1, Square.H1);
+                case Square.C1 -> movePiece(Square.D1, Square.A1);
+                case Square.G8 -> movePiece(Square.F8, Square.H8);
+                case Square.C8 -> movePiece(Square.D8, Square.A8);
+                default -> throw new IllegalStateException("Bad castle target: " + Square.name(to));
+            }
+        }
+
+        movePiece(to, from);
+
+        if (Move.isEnPassant(move)) {
+            putPiece(us == Piece.WHITE ? to - 8 : to + 8, Move.captured(move));
+        } else if (Move.isCapture(move)) {
+            putPiece(to, Move.captured(move));
+        }
+        hash = hashHistory[historySize];
+    }
+
+    /** True if the current position already occurred since the last irreversible move. */
+    public boolean isRepetition() {
+        int earliest = Math.max(0, historySize - halfmoveClock);
+        for (int i = historySize - 2; i >= earliest; i -= 2) {
+            if (hashHistory[i] == hash) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** How often the current position has occurred since the last irreversible move, this one included. */
+    public int repetitionCount() {
+        int count = 1;
+        int earliest = Math.max(0, historySize - halfmoveClock);
+        for (int i = historySize - 2; i >= earliest; i -= 2) {
+            if (hashHistory[i] == hash) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean isSquareAttacked(int square, int byColor) {
+        int base = byColor << 3;
+        if ((Attacks.PAWN[byColor ^ 1][square] & pieces[base | Piece.PAWN]) != 0) {
+            return true;
+        }
+        if ((Attacks.KNIGHT[square] & pieces[base | Piece.KNIGHT]) != 0) {
+            return true;
+        }
+        if ((Attacks.KING[square] & pieces[base | Piece.KING]) != 0) {
+            return true;
+        }
+        long queens = pieces[base | Piece.QUEEN];
+        if ((Attacks.bishop(square, occupied) & (pieces[base | Piece.BISHOP] | queens)) != 0) {
+            return true;
+        }
+        return (Attacks.rook(square, occupied) & (pieces[base | Piece.ROOK] | queens)) != 0;
+    }
+
+    public int kingSquare(int color) {
+        return Long.numberOfTrailingZeros(pieces[Piece.make(color, Piece.KING)]);
+    }
+
+    public boolean isKingAttacked(int color) {
+        long king = pieces[Piece.make(color, Piece.KING)];
+        return king != 0 && isSquareAttacked(Long.numberOfTrailingZeros(king), color ^ 1);
+    }
+
+    public boolean isInCheck() {
+        return isKingAttacked(sideToMove);
+    }
+
+    public int pieceAt(int square) {
+        return board[square];
+    }
+
+    public long pieces(int piece) {
+        return pieces[piece];
+    }
+
+    public long pieces(int color, int type) {
+        return pieces[Piece.make(color, type)];
+    }
+
+    public long colorOccupancy(int color) {
+        return colors[color];
+    }
+
+    public long occupied() {
+        return occupied;
+    }
+
+    public int sideToMove() {
+        return sideToMove;
+    }
+
+    public void setSideToMove(int sideToMove) {
+        if (this.sideToMove != sideToMove) {
+            hash ^= Zobrist.SIDE;
+        }
+        this.sideToMove = sideToMove;
+    }
+
+    public long hash() {
+        return hash;
+    }
+
+    public int castling() {
+        return castling;
+    }
+
+    public void setCastling(int castling) {
+        hash ^= Zobrist.CASTLING[this.castling] ^ Zobrist.CASTLING[castling];
+        this.castling = castling;
+    }
+
+    public int epSquare() {
+        return epSquare;
+    }
+
+    // The Polyglot rule: an en passant square no pawn can take on is not set, so it does not split repetitions
+    boolean canCaptureEnPassant(int square, int color) {
+        return (Attacks.pawn(color ^ 1, square) & pieces(color, Piece.PAWN)) != 0;
+    }
+
+    public void setEpSquare(int epSquare) {
+        if (this.epSquare != Square.NONE) {
+            hash ^= Zobrist.EP_FILE[Square.file(this.epSquare)];
+        }
+        if (epSquare != Square.NONE) {
+            hash ^= Zobrist.EP_FILE[Square.file(epSquare)];
+        }
+        this.epSquare = epSquare;
+    }
+
+    public int halfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    public int fullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public void setFullmoveNumber(int fullmoveNumber) {
+        this.fullmoveNumber = fullmoveNumber;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.matchservice.chess.core;
+
+/**
+ * Square indexing helpers. Squares are numbered a1 = 0 ... h8 = 63. The legacy
+ * {@code String[][]} board uses row 0 for rank 8, which {@link #fromRowCol} and
+ * {@link #row} translate.
+ */
+public final class Square {
+
+    public static final int NONE = -1;
+
+    public static final int A1 = 0, B1 = 1, C1 = 2, D1 = 3, E1 = 4, F1 = 5, G1 = 6, H1 = 7;
+    public static final int A8 = 56, B8 = 57, C8 = 58, D8 = 59, E8 = 60, F8 = 61, G8 = 62, H8 = 63;
+
+    private Square() {
+    }
+
+    public static int of(int file, int rank) {
+        return (rank << 3) | file;
+    }
+
+    public static int file(int square) {
+        return square & 7;
+    }
+
+    public static int rank(int square) {
+        return square >>> 3;
+    }
+
+    public static int fromRowCol(int row, int col) {
+        return ((7 - row) << 3) | col;
+    }
+
+    public static int row(int square) {
+        return 7 - (square >>> 3);
+    }
+
+    public static int col(int square) {
+        return square & 7;
+    }
+
+    public static String name(int square) {
+        return "" + (char) ('a' + file(square)) + (char) ('1' + rank(square));
+    }
+
+    public static int parse(String name) {
+        return of(name.charAt(0) - 'a', name.charAt(1) - '1');
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.matchservice.chess.core;
+
+/**
+ * Ways a game ends on the board. Repetition and the 50-move rule are applied
+ * automatically rather than waiting for a claim.
+ */
+public enum Termination {
+    CHECKMATE,
+    STALEMATE,
+    THREEFOLD_REPETITION,
+    FIFTY_MOVE_RULE,
+    INSUFFICIENT_MATERIAL;
+
+    private static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+    public boolean isDraw() {
+        return this != CHECKMATE;
+    }
+
+    /** How the game ended with {@code position} on the board, or null if it goes on. */
+    public static Termination detect(Position position) {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(position, moves);
+        if (moves.size() == 0) {
+            return position.isInCheck() ? CHECKMATE : STALEMATE;
+        }
+        if (position.halfmoveClock() >= 100) {
+            return FIFTY_MOVE_RULE;
+        }
+        if (position.repetitionCount() >= 3) {
+            return THREEFOLD_REPETITION;
+        }
+        if (isInsufficientMaterial(position)) {
+            return INSUFFICIENT_MATERIAL;
+        }
+        return null;
+    }
+
+    /** K vs K, a single minor piece, or bishops that all stand on one square colour. */
+    static boolean isInsufficientMaterial(Position position) {
+        long heavy = 0L;
+        for (int color = Piece.WHITE; color <= Piece.BLACK; color++) {
+            heavy |= position.pieces(color, Piece.PAWN) | position.pieces(color, Piece.ROOK)
+                    | position.pieces(color, Piece.QUEEN);
+        }
+        if (heavy != 0) {
+            return false;
+        }
+
+        long knights = position.pieces(Piece.WHITE, Piece.KNIGHT) | position.pieces(Piece.BLACK, Piece.KNIGHT);
+        long bishops = position.pieces(Piece.WHITE, Piece.BISHOP) | position.pieces(Piece.BLACK, Piece.BISHOP);
+        if (Long.bitCount(knights | bishops) <= 1) {
+            return true;
+        }
+        return knights == 0 && ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
+    }
+}
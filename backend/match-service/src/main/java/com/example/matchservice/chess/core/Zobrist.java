@@ -0,0 +1,53 @@
+package com.example.matchservice.chess.core;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys. The seed is fixed so every node produces the same hash for the
+ * same position, which lets hashes be compared across processes.
+ */
+public final class Zobrist {
+
+    static final long[][] PIECE_SQUARE = new long[Piece.CODES][64];
+    static final long[] CASTLING = new long[16];
+    static final long[] EP_FILE = new long[8];
+    static final long SIDE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x1D1C4E55L);
+        for (int piece = 0; piece < Piece.CODES; piece++) {
+            for (int sq = 0; sq < 64; sq++) {
+                PIECE_SQUARE[piece][sq] = random.nextLong();
+            }
+        }
+        for (int i = 0; i < CASTLING.length; i++) {
+            CASTLING[i] = random.nextLong();
+        }
+        for (int i = 0; i < EP_FILE.length; i++) {
+            EP_FILE[i] = random.nextLong();
+        }
+        SIDE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /** Full recomputation; used to verify the incrementally maintained key. */
+    public static long compute(Position position) {
+        long hash = 0L;
+        for (int sq = 0; sq < 64; sq++) {
+            int piece = position.pieceAt(sq);
+            if (piece != Piece.NONE) {
+                hash ^= PIECE_SQUARE[piece][sq];
+            }
+        }
+        hash ^= CASTLING[position.castling()];
+        if (position.epSquare() != Square.NONE) {
+            hash ^= EP_FILE[Square.file(position.epSquare())];
+        }
+        if (position.sideToMove() == Piece.BLACK) {
+            hash ^= SIDE;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.matchservice.chess.endgame;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * Bit-packed table of small unsigned values, one per position index, using
+ * just enough bits for the largest value. Our tables store 0 for "not a win"
+ * and otherwise the distance to mate plus one.
+ */
+public final class Bitbase {
+
+    private static final int MAGIC = 0x49434242; // "ICBB"
+    // 2 added the CRC-32 of the data after the layout
+    private static final int VERSION = 2;
+
+    private final int entries;
+    private final int bits;
+    private final long[] data;
+
+    private Bitbase(int entries, int bits, long[] data) {
+        this.entries = entries;
+        this.bits = bits;
+        this.data = data;
+    }
+
+    static Bitbase pack(byte[] values) {
+        int max = 0;
+        for (byte value : values) {
+            max = Math.max(max, value & 0xFF);
+        }
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(max));
+        long[] data = new long[(int) (((long) values.length * bits + 63) / 64)];
+        for (int i = 0; i < values.length; i++) {
+            long bitIndex = (long) i * bits;
+            int word = (int) (bitIndex >>> 6);
+            int shift = (int) (bitIndex & 63);
+            long value = values[i] & 0xFFL;
+            data[word] |= value << shift;
+            if (shift + bits > 64) {
+                data[word + 1] |= value >>> (64 - shift);
+            }
+        }
+        return new Bitbase(values.length, bits, data);
+    }
+
+    public int get(int index) {
+        long bitIndex = (long) index * bits;
+        int word = (int) (bitIndex >>> 6);
+        int shift = (int) (bitIndex & 63);
+        long value = data[word] >>> shift;
+        if (shift + bits > 64) {
+            value |= data[word + 1] << (64 - shift);
+        }
+        return (int) (value & ((1L << bits) - 1));
+    }
+
+    public int entries() {
+        return entries;
+    }
+
+    public int bits() {
+        return bits;
+    }
+
+    public long sizeBytes() {
+        return (long) data.length * Long.BYTES;
+    }
+
+    // Each writer gets its own temp file, so services sharing the directory never write into one another's
+    void write(Path path) throws IOException {
+        Path tmp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(entries);
+                out.writeInt(bits);
+                out.writeInt(checksum(data));
+                for (long word : data) {
+                    out.writeLong(word);
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    static Bitbase read(Path path, int expectedEntries) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a bitbase file: " + path);
+            }
+            int entries = in.readInt();
+            int bits = in.readInt();
+            if (entries != expectedEntries || bits < 1 || bits > 8) {
+                throw new IOException("Unexpected bitbase layout in " + path);
+            }
+            int checksum = in.readInt();
+            long[] data = new long[(int) (((long) entries * bits + 63) / 64)];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = in.readLong();
+            }
+            if (checksum(data) != checksum || in.read() != -1) {
+                throw new IOException("Corrupt bitbase file: " + path);
+            }
+            return new Bitbase(entries, bits, data);
+        }
+    }
+
+    private static int checksum(long[] data) {
+        ByteBuffer bytes = ByteBuffer.allocate(data.length * Long.BYTES);
+        bytes.asLongBuffer().put(data);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.matchservice.chess.endgame;
+
+import com.example.matchservice.chess.core.Attacks;
+import com.example.matchservice.chess.core.Piece;
+import com.example.matchservice.chess.core.Square;
+
+/**
+ * Retrograde analysis for king + piece vs king, with the strong side
+ * normalised to white. Positions are indexed as
+ * {@code side << 18 | strongKing << 12 | weakKing << 6 | piece}, where side 0
+ * means the strong side is to move.
+ *
+ * <p>
+ * Starting from the positions where the lone king is mated, pass {@code n}
+ * marks every position that is won in exactly {@code n} plies: odd passes
+ * look for a strong-side move into a position already won in fewer plies,
+ * even passes for lone-king positions where every reply is already won.
+ * Whatever is never marked is a draw.
+ */
+final class BitbaseGenerator {
+
+    static final int SIZE = 1 << 19;
+    static final int STRONG = 0;
+    static final int WEAK = 1;
+
+    private final int pieceType;
+    private final byte[] queenTable;
+    private final byte[] rookTable;
+
+    // 0 = not (yet) a win, otherwise plies to mate + 1
+    private final byte[] values = new byte[SIZE];
+    private final boolean[] valid = new boolean[SIZE];
+
+    /** Pawn endings need the finished queen and rook tables for promotions. */
+    BitbaseGenerator(int pieceType, byte[] queenTable, byte[] rookTable) {
+        this.pieceType = pieceType;
+        this.queenTable = queenTable;
+        this.rookTable = rookTable;
+    }
+
+    static int index(int side, int strongKing, int weakKing, int piece) {
+        return side << 18 | strongKing << 12 | weakKing << 6 | piece;
+    }
+
+    byte[] generate() {
+        for (int index = 0; index < SIZE; index++) {
+            int side = index >>> 18;
+            int sk = (index >>> 12) & 63;
+            int wk = (index >>> 6) & 63;
+            int p = index & 63;
+            if (!isValid(side, sk, wk, p)) {
+                continue;
+            }
+            valid[index] = true;
+            if (side == WEAK && isMate(sk, wk, p)) {
+                values[index] = 1;
+            }
+        }
+
+        int longestPromotion = 0;
+        if (pieceType == Piece.PAWN) {
+            longestPromotion = Math.max(longest(queenTable), longest(rookTable));
+        }
+
+        for (int plies = 1; plies < 255; plies++) {
+            int side = (plies & 1) == 1 ? STRONG : WEAK;
+            boolean changed = false;
+            for (int index = side << 18; index < (side + 1) << 18; index++) {
+                if (!valid[index] || values[index] != 0) {
+                    continue;
+                }
+                int sk = (index >>> 12) & 63;
+                int wk = (index >>> 6) & 63;
+                int p = index & 63;
+                boolean won = side == STRONG ? strongWins(sk, wk, p, plies) : weakLoses(sk, wk, p, plies);
+                if (won) {
+                    values[index] = (byte) (plies + 1);
+                    changed = true;
+                }
+            }
+            // A promotion can still lead into a longer queen or rook ending
+            if (!changed && plies > longestPromotion) {
+                break;
+            }
+        }
+        return values;
+    }
+
+    private boolean isValid(int side, int sk, int wk, int p) {
+        if (sk == wk || sk == p || wk == p || (Attacks.king(sk) & bit(wk)) != 0) {
+            return false;
+        }
+        if (pieceType == Piece.PAWN && (Square.rank(p) == 0 || Square.rank(p) == 7)) {
+            return false;
+        }
+        // The side not to move can never be in check
+        return side == WEAK || (pieceAttacks(p, bit(sk) | bit(wk)) & bit(wk)) == 0;
+    }
+
+    private boolean isMate(int sk, int wk, int p) {
+        if ((pieceAttacks(p, bit(sk) | bit(wk)) & bit(wk)) == 0) {
+            return false;
+        }
+        long defended = pieceAttacks(p, bit(sk)) | Attacks.king(sk);
+        return (Attacks.king(wk) & ~defended) == 0;
+    }
+
+    private boolean strongWins(int sk, int wk, int p, int plies) {
+        long kingTargets = Attacks.king(sk) & ~Attacks.king(wk) & ~bit(p);
+        while (kingTargets != 0) {
+            int to = Long.numberOfTrailingZeros(kingTargets);
+            kingTargets &= kingTargets - 1;
+            if (wonWithin(values, index(WEAK, to, wk, p), plies - 1)) {
+                return true;
+            }
+        }
+
+        long occupied = bit(sk) | bit(wk);
+        if (pieceType == Piece.PAWN) {
+            int to = p + 8;
+            if ((occupied & bit(to)) != 0) {
+                return false;
+            }
+            if (Square.rank(to) == 7) {
+                int promoted = index(WEAK, sk, wk, to);
+                return wonWithin(queenTable, promoted, plies - 1) || wonWithin(rookTable, promoted, plies - 1);
+            }
+            if (wonWithin(values, index(WEAK, sk, wk, to), plies - 1)) {
+                return true;
+            }
+            int doublePush = p + 16;
+            return Square.rank(p) == 1 && (occupied & bit(doublePush)) == 0
+                    && wonWithin(values, index(WEAK, sk, wk, doublePush), plies - 1);
+        }
+
+        long pieceTargets = pieceAttacks(p, occupied) & ~occupied;
+        while (pieceTargets != 0) {
+            int to = Long.numberOfTrailingZeros(pieceTargets);
+            pieceTargets &= pieceTargets - 1;
+            if (wonWithin(values, index(WEAK, sk, wk, to), plies - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean weakLoses(int sk, int wk, int p, int plies) {
+        // Squares the piece covers once the lone king has stepped off its square
+        long covered = pieceAttacks(p, bit(sk)) | Attacks.king(sk);
+        long targets = Attacks.king(wk) & ~covered;
+        if (targets == 0) {
+            // Mates were marked up front, so this is stalemate
+            return false;
+        }
+        if ((targets & bit(p)) != 0) {
+            // Taking the undefended piece draws
+            return false;
+        }
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (!wonWithin(values, index(STRONG, sk, to, p), plies - 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean wonWithin(byte[] table, int index, int plies) {
+        int value = table[index] & 0xFF;
+        return value != 0 && value - 1 <= plies;
+    }
+
+    private static int longest(byte[] table) {
+        int max = 0;
+        for (byte value : table) {
+            max = Math.max(max, value & 0xFF);
+        }
+        return max;
+    }
+
+    private long pieceAttacks(int square, long occupied) {
+        return switch (pieceType) {
+            case Piece.PAWN -> Attacks.pawn(Piece.WHITE, square);
+            case Piece.ROOK -> Attacks.rook(square, occupied);
+            case Piece.QUEEN -> Attacks.queen(square, occupied);
+            default -> throw new IllegalArgumentException("No bitbase for piece type " + pieceType);
+        };
+    }
+
+    private static long bit(int square) {
+        return 1L << square;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.matchservice.chess.endgame;
+
+import com.example.matchservice.chess.core.Move;
+import com.example.matchservice.chess.core.MoveGenerator;
+import com.example.matchservice.chess.core.MoveList;
+import com.example.matchservice.chess.core.Piece;
+import com.example.matchservice.chess.core.Position;
+import com.example.matchservice.chess.search.Searcher;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * KPK, KRK and KQK tables. Each entry is 0 for a draw and otherwise the
+ * distance to mate, so the bot can both tell won from drawn and make steady
+ * progress; with win/draw alone every KRK move would look equally good.
+ *
+ * <p>
+ * Tables are generated on first use of a directory and read back afterwards.
+ */
+public final class EndgameTables {
+
+    /** Returned by {@link #probe(Position)} for material the tables do not cover. */
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private final Bitbase kpk;
+    private final Bitbase krk;
+    private final Bitbase kqk;
+
+    private EndgameTables(Bitbase kpk, Bitbase krk, Bitbase kqk) {
+        this.kpk = kpk;
+        this.krk = krk;
+        this.kqk = kqk;
+    }
+
+    public static EndgameTables loadOrGenerate(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path kqkPath = directory.resolve("kqk.bin");
+        Path krkPath = directory.resolve("krk.bin");
+        Path kpkPath = directory.resolve("kpk.bin");
+
+        if (Files.exists(kqkPath) && Files.exists(krkPath) && Files.exists(kpkPath)) {
+            try {
+                return new EndgameTables(Bitbase.read(kpkPath, BitbaseGenerator.SIZE),
+                        Bitbase.read(krkPath, BitbaseGenerator.SIZE),
+                        Bitbase.read(kqkPath, BitbaseGenerator.SIZE));
+            } catch (IOException e) {
+                System.err.println("⚠️ Regenerating endgame tables: " + e.getMessage());
+            }
+        }
+
+        byte[] queen = new BitbaseGenerator(Piece.QUEEN, null, null).generate();
+        byte[] rook = new BitbaseGenerator(Piece.ROOK, null, null).generate();
+        byte[] pawn = new BitbaseGenerator(Piece.PAWN, queen, rook).generate();
+
+        EndgameTables tables = new EndgameTables(Bitbase.pack(pawn), Bitbase.pack(rook), Bitbase.pack(queen));
+        tables.kqk.write(kqkPath);
+        tables.krk.write(krkPath);
+        tables.kpk.write(kpkPath);
+        return tables;
+    }
+
+    public long sizeBytes() {
+        return kpk.sizeBytes() + krk.sizeBytes() + kqk.sizeBytes();
+    }
+
+    /**
+     * Score from the side to move: {@code MATE - plies} when winning,
+     * {@code -(MATE - plies)} when losing, 0 for a draw, or {@link #UNKNOWN}.
+     */
+    public int probe(Position position) {
+        long occupied = position.occupied();
+        int count = Long.bitCount(occupied);
+        if (count == 2) {
+            return 0;
+        }
+        if (count != 3) {
+            return UNKNOWN;
+        }
+
+        long others = occupied & ~position.pieces(Piece.WHITE, Piece.KING) & ~position.pieces(Piece.BLACK, Piece.KING);
+        if (Long.bitCount(others) != 1) {
+            return UNKNOWN;
+        }
+        int pieceSquare = Long.numberOfTrailingZeros(others);
+        int piece = position.pieceAt(pieceSquare);
+        int strong = Piece.color(piece);
+
+        Bitbase table = switch (Piece.type(piece)) {
+            case Piece.PAWN -> kpk;
+            case Piece.ROOK -> krk;
+            case Piece.QUEEN -> kqk;
+            default -> null;
+        };
+        if (table == null) {
+            // A lone minor piece cannot mate
+            return 0;
+        }
+
+        // Tables are built with the strong side as white; mirror ranks for black
+        int flip = strong == Piece.WHITE ? 0 : 56;
+        int side = position.sideToMove() == strong ? BitbaseGenerator.STRONG : BitbaseGenerator.WEAK;
+        int index = BitbaseGenerator.index(side,
+                position.kingSquare(strong) ^ flip,
+                position.kingSquare(strong ^ 1) ^ flip,
+                pieceSquare ^ flip);
+
+        int value = table.get(index);
+        if (value == 0) {
+            return 0;
+        }
+        int score = Searcher.MATE - (value - 1);
+        return side == BitbaseGenerator.STRONG ? score : -score;
+    }
+
+    /**
+     * The fastest win, or the longest defence, or {@link Move#NONE} if the
+     * position is not covered.
+     */
+    public int bestMove(Position position) {
+        if (probe(position) == UNKNOWN) {
+            return Move.NONE;
+        }
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(position, moves);
+
+        int bestMove = Move.NONE;
+        int bestScore = Integer.MIN_VALUE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            position.makeMove(move);
+            int childScore = probe(position);
+            position.unmakeMove(move);
+            if (childScore == UNKNOWN) {
+                continue;
+            }
+            if (-childScore > bestScore) {
+                bestScore = -childScore;
+                bestMove = move;
+            }
+        }
+        return bestMove;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.matchservice.chess.search;
+
+import com.example.matchservice.chess.core.Piece;
+import com.example.matchservice.chess.core.Position;
+
+/**
+ * Material plus piece-square-table evaluation, returned from the point of view
+ * of the side to move. King tables are blended between middlegame and endgame
+ * by the remaining non-pawn material.
+ */
+public final class Evaluator {
+
+    public static final int[] VALUES = { 100, 320, 330, 500, 900, 0 };
+
+    private static final int[] PHASE_WEIGHT = { 0, 1, 1, 2, 4, 0 };
+    private static final int MAX_PHASE = 24;
+
+    // Tables are laid out as seen from White: first row is rank 8
+    private static final int[] PAWN_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0 };
+
+    private static final int[] KNIGHT_TABLE = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50 };
+
+    private static final int[] BISHOP_TABLE = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20 };
+
+    private static final int[] ROOK_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0 };
+
+    private static final int[] QUEEN_TABLE = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20 };
+
+    private static final int[] KING_MIDDLE_TABLE = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20 };
+
+    private static final int[] KING_END_TABLE = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50 };
+
+    private static final int[][] TABLES = { PAWN_TABLE, KNIGHT_TABLE, BISHOP_TABLE, ROOK_TABLE, QUEEN_TABLE };
+
+    private Evaluator() {
+    }
+
+    public static int evaluate(Position position) {
+        int score = 0;
+        int phase = 0;
+
+        for (int type = Piece.PAWN; type <= Piece.QUEEN; type++) {
+            int[] table = TABLES[type];
+            for (long bb = position.pieces(Piece.WHITE, type); bb != 0; bb &= bb - 1) {
+                score += VALUES[type] + table[Long.numberOfTrailingZeros(bb) ^ 56];
+                phase += PHASE_WEIGHT[type];
+            }
+            for (long bb = position.pieces(Piece.BLACK, type); bb != 0; bb &= bb - 1) {
+                score -= VALUES[type] + table[Long.numberOfTrailingZeros(bb)];
+                phase += PHASE_WEIGHT[type];
+            }
+        }
+
+        phase = Math.min(phase, MAX_PHASE);
+        long whiteKing = position.pieces(Piece.WHITE, Piece.KING);
+        if (whiteKing != 0) {
+            int sq = Long.numberOfTrailingZeros(whiteKing) ^ 56;
+            score += (KING_MIDDLE_TABLE[sq] * phase + KING_END_TABLE[sq] * (MAX_PHASE - phase)) / MAX_PHASE;
+        }
+        long blackKing = position.pieces(Piece.BLACK, Piece.KING);
+        if (blackKing != 0) {
+            int sq = Long.numberOfTrailingZeros(blackKing);
+            score -= (KING_MIDDLE_TABLE[sq] * phase + KING_END_TABLE[sq] * (MAX_PHASE - phase)) / MAX_PHASE;
+        }
+
+        return position.sideToMove() == Piece.WHITE ? score : -score;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.matchservice.chess.search;
+
+/**
+ * Hard budget for one search. The search stops at whichever limit is hit
+ * first and returns the best move of the last completed iteration.
+ */
+public final class SearchLimits {
+
+    private final int maxDepth;
+    private final long moveTimeMillis;
+    private final long maxNodes;
+
+    public SearchLimits(int maxDepth, long moveTimeMillis, long maxNodes) {
+        this.maxDepth = maxDepth;
+        this.moveTimeMillis = moveTimeMillis;
+        this.maxNodes = maxNodes;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getMoveTimeMillis() {
+        return moveTimeMillis;
+    }
+
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+}
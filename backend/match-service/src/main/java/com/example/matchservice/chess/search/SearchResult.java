@@ -0,0 +1,38 @@
+package com.example.matchservice.chess.search;
+
+import com.example.matchservice.chess.core.Move;
+
+public final class SearchResult {
+
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+
+    public SearchResult(int bestMove, int score, int depth, long nodes) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+    }
+
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    public boolean hasMove() {
+        return bestMove != Move.NONE;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+}
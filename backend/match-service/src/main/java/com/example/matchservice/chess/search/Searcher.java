@@ -0,0 +1,301 @@
+package com.example.matchservice.chess.search;
+
+import com.example.matchservice.chess.core.Move;
+import com.example.matchservice.chess.core.MoveGenerator;
+import com.example.matchservice.chess.core.MoveList;
+import com.example.matchservice.chess.core.Piece;
+import com.example.matchservice.chess.core.Position;
+
+/**
+ * Iterative deepening negamax with alpha-beta pruning and a captures-only
+ * quiescence search. A searcher owns its per-ply buffers and is reused by one
+ * thread at a time; {@link #stop()} may be called from any thread, and
+ * interrupting the searching thread has the same effect. The
+ * transposition table is shared with every other searcher on the node.
+ */
+public final class Searcher {
+
+    public static final int MATE = 30000;
+    public static final int MAX_PLY = 64;
+
+    private static final int INFINITY = 32000;
+    private static final int CHECK_INTERVAL = 1024;
+
+    private static final int ORDER_BEST = 1_000_000;
+    private static final int ORDER_CAPTURE = 100_000;
+    private static final int ORDER_PROMOTION = 90_000;
+
+    private final TranspositionTable transpositionTable;
+    private final MoveList[] moveLists = new MoveList[MAX_PLY + 1];
+    private final int[][] orderScores = new int[MAX_PLY + 1][MoveGenerator.MAX_MOVES];
+
+    private Position position;
+    private long nodes;
+    private long maxNodes;
+    private long deadline;
+    private volatile boolean stopped;
+
+    public Searcher(TranspositionTable transpositionTable) {
+        this.transpositionTable = transpositionTable;
+        for (int i = 0; i <= MAX_PLY; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    public void stop() {
+        stopped = true;
+    }
+
+    /** Searches {@code position} in place; it is restored before returning. */
+    public SearchResult search(Position position, SearchLimits limits) {
+        transpositionTable.newSearch();
+        return iterate(position, limits, 1);
+    }
+
+    /**
+     * Lazy SMP helper: the same search, run only to fill the shared
+     * transposition table for a main searcher on another thread. Odd helpers
+     * start one ply deeper so the threads do not all walk the tree in step.
+     */
+    public SearchResult searchAsHelper(Position position, SearchLimits limits, int helperIndex) {
+        return iterate(position, limits, 1 + (helperIndex & 1));
+    }
+
+    private SearchResult iterate(Position position, SearchLimits limits, int startDepth) {
+        this.position = position;
+        this.nodes = 0;
+        this.maxNodes = limits.getMaxNodes();
+        this.deadline = System.nanoTime() + limits.getMoveTimeMillis() * 1_000_000L;
+        this.stopped = false;
+
+        MoveList rootMoves = moveLists[0];
+        MoveGenerator.generateLegal(position, rootMoves);
+        if (rootMoves.isEmpty()) {
+            return new SearchResult(Move.NONE, position.isInCheck() ? -MATE : 0, 0, 0);
+        }
+
+        int bestMove = rootMoves.get(0);
+        int bestScore = -INFINITY;
+        int completedDepth = 0;
+        int maxDepth = Math.min(limits.getMaxDepth(), MAX_PLY - 1);
+
+        for (int depth = Math.min(startDepth, maxDepth); depth <= maxDepth; depth++) {
+            int iterationBest = Move.NONE;
+            int alpha = -INFINITY;
+
+            scoreMoves(rootMoves, 0, bestMove);
+            for (int i = 0; i < rootMoves.size(); i++) {
+                int move = pickNext(rootMoves, 0, i);
+                position.makeMove(move);
+                int score = -negamax(depth - 1, -INFINITY, -alpha, 1);
+                position.unmakeMove(move);
+
+                if (stopped) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBest = move;
+                }
+            }
+
+            if (stopped) {
+                break;
+            }
+            bestMove = iterationBest;
+            bestScore = alpha;
+            completedDepth = depth;
+            transpositionTable.store(position.hash(), bestMove, toTableScore(bestScore, 0), depth,
+                    TranspositionTable.BOUND_EXACT);
+
+            if (Math.abs(bestScore) >= MATE - MAX_PLY) {
+                break;
+            }
+        }
+
+        this.position = null;
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes);
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        if (depth <= 0) {
+            return quiescence(alpha, beta, ply);
+        }
+        if (checkLimits()) {
+            return 0;
+        }
+        if (position.halfmoveClock() >= 100 || position.isRepetition()) {
+            return 0;
+        }
+
+        long key = position.hash();
+        long entry = transpositionTable.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = fromTableScore(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && score >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        MoveList moves = moveLists[ply];
+        MoveGenerator.generatePseudoLegal(position, moves);
+        scoreMoves(moves, ply, hashMove);
+
+        int us = position.sideToMove();
+        int originalAlpha = alpha;
+        int bestMove = Move.NONE;
+        int legalMoves = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, ply, i);
+            position.makeMove(move);
+            if (position.isKingAttacked(us)) {
+                position.unmakeMove(move);
+                continue;
+            }
+            legalMoves++;
+            int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            position.unmakeMove(move);
+
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                transpositionTable.store(key, move, toTableScore(score, ply), depth, TranspositionTable.BOUND_LOWER);
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+            }
+        }
+
+        if (legalMoves == 0) {
+            return position.isInCheck() ? -MATE + ply : 0;
+        }
+        transpositionTable.store(key, bestMove, toTableScore(alpha, ply), depth,
+                alpha > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER);
+        return alpha;
+    }
+
+    // Mate scores are stored relative to the node so they stay valid at any ply
+    private static int toTableScore(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTableScore(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    private int quiescence(int alpha, int beta, int ply) {
+        if (checkLimits()) {
+            return 0;
+        }
+
+        int standPat = Evaluator.evaluate(position);
+        if (ply >= MAX_PLY || standPat >= beta) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        MoveList moves = moveLists[ply];
+        MoveGenerator.generatePseudoLegal(position, moves);
+        scoreMoves(moves, ply, Move.NONE);
+
+        int us = position.sideToMove();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, ply, i);
+            if (!Move.isCapture(move) && !Move.isPromotion(move)) {
+                // Ordering puts every capture and promotion first
+                break;
+            }
+            position.makeMove(move);
+            if (position.isKingAttacked(us)) {
+                position.unmakeMove(move);
+                continue;
+            }
+            int score = -quiescence(-beta, -alpha, ply + 1);
+            position.unmakeMove(move);
+
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        return alpha;
+    }
+
+    private boolean checkLimits() {
+        if (stopped) {
+            return true;
+        }
+        // An interrupted worker means the game no longer wants this move
+        if ((++nodes & (CHECK_INTERVAL - 1)) == 0
+                && (nodes >= maxNodes || System.nanoTime() - deadline >= 0
+                        || Thread.currentThread().isInterrupted())) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    private void scoreMoves(MoveList moves, int ply, int bestMove) {
+        int[] scores = orderScores[ply];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int score = 0;
+            if (move == bestMove) {
+                score = ORDER_BEST;
+            } else if (Move.isCapture(move)) {
+                // Most valuable victim, least valuable attacker
+                score = ORDER_CAPTURE + 10 * Evaluator.VALUES[Piece.type(Move.captured(move))]
+                        - Evaluator.VALUES[Piece.type(Move.piece(move))];
+            }
+            if (Move.isPromotion(move)) {
+                score += ORDER_PROMOTION + Evaluator.VALUES[Move.promotion(move)];
+            }
+            scores[i] = score;
+        }
+    }
+
+    private int pickNext(MoveList moves, int ply, int index) {
+        int[] scores = orderScores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            moves.swap(index, best);
+            int tmp = scores[index];
+            scores[index] = scores[best];
+            scores[best] = tmp;
+        }
+        return moves.get(index);
+    }
+}
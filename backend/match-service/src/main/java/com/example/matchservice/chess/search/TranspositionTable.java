@@ -0,0 +1,111 @@
+package com.example.matchservice.chess.search;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-size transposition table shared by every searcher on the node.
+ *
+ * <p>
+ * Entries are two longs: {@code key ^ data} and {@code data}. Writers never
+ * lock; a reader recomputes the key from both words, so an entry torn by two
+ * concurrent writers simply fails verification and counts as a miss.
+ *
+ * <p>
+ * Buckets hold two entries. The first is depth-preferred and is only replaced
+ * by an equal or deeper result (or one from a newer search generation); the
+ * second is always replaced so shallow results still find a home.
+ */
+public final class TranspositionTable {
+
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_UPPER = 3;
+
+    private static final int LONGS_PER_BUCKET = 4;
+    private static final int BYTES_PER_BUCKET = LONGS_PER_BUCKET * Long.BYTES;
+
+    private final long[] table;
+    private final long bucketMask;
+    private final AtomicInteger searches = new AtomicInteger();
+
+    public TranspositionTable(int sizeMb) {
+        long buckets = Long.highestOneBit(Math.max(1L, (long) sizeMb * 1024 * 1024 / BYTES_PER_BUCKET));
+        buckets = Math.min(buckets, 1L << 28);
+        this.table = new long[(int) (buckets * LONGS_PER_BUCKET)];
+        this.bucketMask = buckets - 1;
+    }
+
+    /**
+     * Called at the start of each root search. The generation advances every
+     * 256 searches, so results written by concurrent games in the same window
+     * still count as current while older ones age out.
+     */
+    public void newSearch() {
+        searches.incrementAndGet();
+    }
+
+    /** Returns the packed data for {@code key}, or 0 on a miss. */
+    public long probe(long key) {
+        int index = (int) (key & bucketMask) * LONGS_PER_BUCKET;
+        for (int slot = index; slot < index + LONGS_PER_BUCKET; slot += 2) {
+            long data = table[slot + 1];
+            if ((table[slot] ^ data) == key && data != 0) {
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound) {
+        int age = (searches.get() >>> 8) & 0x3F;
+        long data = (move & 0xFFFFFFFFL)
+                | ((long) (score & 0xFFFF) << 32)
+                | ((long) (depth & 0xFF) << 48)
+                | ((long) bound << 56)
+                | ((long) age << 58);
+
+        int index = (int) (key & bucketMask) * LONGS_PER_BUCKET;
+        long deepData = table[index + 1];
+        boolean sameKey = (table[index] ^ deepData) == key;
+        if (sameKey || depth >= depth(deepData) || age(deepData) != age) {
+            if (sameKey && move == 0) {
+                // Keep the best move we already know for this position
+                data |= deepData & 0xFFFFFFFFL;
+            }
+            table[index] = key ^ data;
+            table[index + 1] = data;
+        } else {
+            table[index + 2] = key ^ data;
+            table[index + 3] = data;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+    }
+
+    public long sizeBytes() {
+        return (long) table.length * Long.BYTES;
+    }
+
+    public static int move(long data) {
+        return (int) data;
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> 32);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 48) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 56) & 0x3);
+    }
+
+    private static int age(long data) {
+        return (int) ((data >>> 58) & 0x3F);
+    }
+}
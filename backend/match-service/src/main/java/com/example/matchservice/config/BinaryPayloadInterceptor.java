@@ -0,0 +1,74 @@
+package com.example.matchservice.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lets a STOMP session take game broadcasts in binary. A client asks for it
+ * with an {@code accept: application/octet-stream} header on CONNECT; the
+ * broadcasts it then receives carry the binary form attached by
+ * {@link GameBinaryCodec#attach} instead of the JSON payload. Sent on the
+ * inbound channel to see CONNECT and DISCONNECT, and on the outbound channel
+ * to swap payloads. Binary frames need a plain WebSocket; SockJS only carries
+ * text.
+ */
+@Component
+public class BinaryPayloadInterceptor implements ChannelInterceptor {
+
+    private static final String ACCEPT_HEADER = "accept";
+
+    private final Set<String> binarySessions = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor stomp = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (stomp != null && StompCommand.CONNECT.equals(stomp.getCommand())) {
+            String accept = stomp.getFirstNativeHeader(ACCEPT_HEADER);
+            if (acceptsBinary(accept)) {
+                binarySessions.add(stomp.getSessionId());
+            }
+            return message;
+        }
+        if (stomp != null && StompCommand.DISCONNECT.equals(stomp.getCommand())) {
+            binarySessions.remove(stomp.getSessionId());
+            return message;
+        }
+
+        Object binary = message.getHeaders().get(GameBinaryCodec.BINARY_PAYLOAD_HEADER);
+        if (!(binary instanceof byte[] bytes)) {
+            return message;
+        }
+        // JSON sessions keep the message as is; the attached header is not written to the frame
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId == null || !binarySessions.contains(sessionId)) {
+            return message;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        accessor.removeHeader(GameBinaryCodec.BINARY_PAYLOAD_HEADER);
+        accessor.setContentType(GameBinaryCodec.MIME_TYPE);
+        return MessageBuilder.createMessage(bytes, accessor.getMessageHeaders());
+    }
+
+    private static boolean acceptsBinary(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        try {
+            return MimeType.valueOf(accept).isCompatibleWith(GameBinaryCodec.MIME_TYPE);
+        } catch (InvalidMimeTypeException e) {
+            return false;
+        }
+    }
+}
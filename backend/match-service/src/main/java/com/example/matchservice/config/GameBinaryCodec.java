@@ -0,0 +1,266 @@
+package com.example.matchservice.config;
+
+import com.example.matchservice.model.DTO.GameStatusDTO;
+import com.example.matchservice.model.DTO.MatchEvent;
+import com.example.matchservice.model.DTO.MoveEvent;
+import com.example.matchservice.model.DTO.MoveRequest;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Binary form of the game messages, for clients that ask for it instead of
+ * JSON. Every message starts with a one-byte tag; numbers are big-endian,
+ * strings are a 16-bit length (0xFFFF for null) followed by UTF-8.
+ *
+ * <pre>
+ *  MoveRequest   1 | move code (2) | colour (1: 0 unset, 1 white, 2 black)
+ *  MoveEvent     2 | match id (8) | ply (4) | move code (2) | think time (2) | position hash (4) | san
+ *  GameStatusDTO 3 | match id (8) | flags (1: white to move, my turn, has ply) | ply (4)
+ *                  | status | player colour | fen | result | reason | position hash
+ *  MatchEvent    4 | event type (1, MatchEvent.Type ordinal) | match id (8) | data as one of the above
+ * </pre>
+ *
+ * Move codes are {@code chess.core.Move#code}: from square, to square and
+ * promotion type, a1 = 0. A status carrying a move list or a legacy board,
+ * or an event whose data is not one of the above, has no binary form and
+ * stays JSON.
+ */
+public final class GameBinaryCodec {
+
+    /** Binary frames go out as WebSocket binary messages only with this content type. */
+    public static final MimeType MIME_TYPE = MimeTypeUtils.APPLICATION_OCTET_STREAM;
+
+    /** Message header carrying the binary form of a broadcast next to its JSON payload. */
+    public static final String BINARY_PAYLOAD_HEADER = "binaryPayload";
+
+    private static final byte MOVE_REQUEST = 1;
+    private static final byte MOVE_EVENT = 2;
+    private static final byte GAME_STATUS = 3;
+    private static final byte MATCH_EVENT = 4;
+
+    private static final int NULL_STRING = 0xFFFF;
+    private static final String PROMOTIONS = "?nbrq";
+
+    // Picked once per payload class rather than by reflection per message
+    private static final Map<Class<?>, Function<Object, byte[]>> ENCODERS = Map.of(
+            MoveRequest.class, payload -> encodeMoveRequest((MoveRequest) payload),
+            MoveEvent.class, payload -> encodeMoveEvent((MoveEvent) payload),
+            GameStatusDTO.class, payload -> encodeStatus((GameStatusDTO) payload),
+            MatchEvent.class, payload -> encodeEvent((MatchEvent) payload));
+
+    private GameBinaryCodec() {
+    }
+
+    static boolean supports(Class<?> type) {
+        return ENCODERS.containsKey(type);
+    }
+
+    /** The binary form of {@code payload}, or null if it has none. */
+    public static byte[] encode(Object payload) {
+        Function<Object, byte[]> encoder = payload != null ? ENCODERS.get(payload.getClass()) : null;
+        return encoder != null ? encoder.apply(payload) : null;
+    }
+
+    /**
+     * Attaches the binary form of {@code payload} to the headers of a broadcast
+     * sent as JSON, so sessions that asked for binary get it without a second
+     * send. Does nothing if it has none.
+     */
+    public static void attach(SimpMessageHeaderAccessor headers, Object payload) {
+        byte[] binary = encode(payload);
+        if (binary != null) {
+            headers.setHeader(BINARY_PAYLOAD_HEADER, binary);
+        }
+    }
+
+    public static Object decode(byte[] bytes, Class<?> type) {
+        try {
+            Object payload = decode(ByteBuffer.wrap(bytes));
+            if (!type.isInstance(payload)) {
+                throw new IllegalArgumentException("Binary message is not a " + type.getSimpleName());
+            }
+            return payload;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated binary " + type.getSimpleName());
+        }
+    }
+
+    private static Object decode(ByteBuffer in) {
+        byte tag = in.get();
+        return switch (tag) {
+            case MOVE_REQUEST -> decodeMoveRequest(in);
+            case MOVE_EVENT -> decodeMoveEvent(in);
+            case GAME_STATUS -> decodeStatus(in);
+            case MATCH_EVENT -> decodeEvent(in);
+            default -> throw new IllegalArgumentException("Unknown binary message " + tag);
+        };
+    }
+
+    private static byte[] encodeMoveRequest(MoveRequest request) {
+        if (request.getFromRow() == null || request.getFromCol() == null
+                || request.getToRow() == null || request.getToCol() == null) {
+            return null;
+        }
+        int from = (7 - request.getFromRow()) * 8 + request.getFromCol();
+        int to = (7 - request.getToRow()) * 8 + request.getToCol();
+        int promotion = request.getPromotedTo() != null && !request.getPromotedTo().isEmpty()
+                ? Math.max(0, PROMOTIONS.indexOf(Character.toLowerCase(request.getPromotedTo().charAt(0))))
+                : 0;
+        return ByteBuffer.allocate(4)
+                .put(MOVE_REQUEST)
+                .putShort((short) (from | to << 6 | promotion << 12))
+                .put(colourCode(request.getPlayerColor()))
+                .array();
+    }
+
+    private static MoveRequest decodeMoveRequest(ByteBuffer in) {
+        int code = in.getShort() & 0xFFFF;
+        int from = code & 0x3F;
+        int to = (code >>> 6) & 0x3F;
+        int promotion = (code >>> 12) & 7;
+
+        MoveRequest request = new MoveRequest();
+        request.setFromRow(7 - from / 8);
+        request.setFromCol(from % 8);
+        request.setToRow(7 - to / 8);
+        request.setToCol(to % 8);
+        if (promotion > 0 && promotion < PROMOTIONS.length()) {
+            request.setPromotedTo(String.valueOf(PROMOTIONS.charAt(promotion)));
+            request.setIsPromotion(true);
+        }
+        request.setPlayerColor(colour(in.get()));
+        return request;
+    }
+
+    private static byte[] encodeMoveEvent(MoveEvent event) {
+        byte[] san = utf8(event.getSan());
+        ByteBuffer out = ByteBuffer.allocate(1 + 8 + 4 + 2 + 2 + 4 + 2 + (san != null ? san.length : 0));
+        out.put(MOVE_EVENT)
+                .putLong(event.getMatchId() != null ? event.getMatchId() : 0)
+                .putInt(event.getPly())
+                .putShort((short) event.getMove())
+                .putShort((short) Math.min(0xFFFF, event.getThinkTime()))
+                .putInt(parseHash(event.getPositionHash()));
+        putString(out, san);
+        return out.array();
+    }
+
+    private static MoveEvent decodeMoveEvent(ByteBuffer in) {
+        MoveEvent event = new MoveEvent();
+        event.setMatchId(in.getLong());
+        event.setPly(in.getInt());
+        event.setMove(in.getShort() & 0xFFFF);
+        event.setThinkTime(in.getShort() & 0xFFFF);
+        event.setPositionHash(String.format("%08x", in.getInt()));
+        event.setSan(getString(in));
+        return event;
+    }
+
+    private static byte[] encodeStatus(GameStatusDTO status) {
+        if (status.getMoves() != null || status.getBoard() != null) {
+            return null;
+        }
+        byte[][] strings = {
+                utf8(status.getStatus()), utf8(status.getPlayerColor()), utf8(status.getFen()),
+                utf8(status.getResult()), utf8(status.getReason()), utf8(status.getPositionHash())
+        };
+        int size = 1 + 8 + 1 + 4;
+        for (byte[] string : strings) {
+            size += 2 + (string != null ? string.length : 0);
+        }
+        int flags = (status.isWhiteTurn() ? 1 : 0) | (status.isMyTurn() ? 2 : 0) | (status.getPly() != null ? 4 : 0);
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.put(GAME_STATUS)
+                .putLong(status.getMatchId() != null ? status.getMatchId() : 0)
+                .put((byte) flags)
+                .putInt(status.getPly() != null ? status.getPly() : 0);
+        for (byte[] string : strings) {
+            putString(out, string);
+        }
+        return out.array();
+    }
+
+    private static GameStatusDTO decodeStatus(ByteBuffer in) {
+        GameStatusDTO status = new GameStatusDTO();
+        status.setMatchId(in.getLong());
+        int flags = in.get();
+        int ply = in.getInt();
+        status.setWhiteTurn((flags & 1) != 0);
+        status.setMyTurn((flags & 2) != 0);
+        status.setPly((flags & 4) != 0 ? ply : null);
+        status.setStatus(getString(in));
+        status.setPlayerColor(getString(in));
+        status.setFen(getString(in));
+        status.setResult(getString(in));
+        status.setReason(getString(in));
+        status.setPositionHash(getString(in));
+        return status;
+    }
+
+    private static byte[] encodeEvent(MatchEvent event) {
+        byte[] data = encode(event.getData());
+        if (data == null || event.getType() == null) {
+            return null;
+        }
+        return ByteBuffer.allocate(1 + 1 + 8 + data.length)
+                .put(MATCH_EVENT)
+                .put((byte) event.getType().ordinal())
+                .putLong(event.getMatchId() != null ? event.getMatchId() : 0)
+                .put(data)
+                .array();
+    }
+
+    private static MatchEvent decodeEvent(ByteBuffer in) {
+        MatchEvent.Type type = MatchEvent.Type.values()[in.get()];
+        long matchId = in.getLong();
+        return new MatchEvent(type, matchId, decode(in));
+    }
+
+    private static byte colourCode(String colour) {
+        if ("white".equalsIgnoreCase(colour)) {
+            return 1;
+        }
+        return (byte) ("black".equalsIgnoreCase(colour) ? 2 : 0);
+    }
+
+    private static String colour(byte code) {
+        return code == 1 ? "white" : code == 2 ? "black" : null;
+    }
+
+    private static int parseHash(String hash) {
+        try {
+            return hash != null ? Integer.parseUnsignedInt(hash, 16) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static void putString(ByteBuffer out, byte[] utf8) {
+        if (utf8 == null) {
+            out.putShort((short) NULL_STRING);
+        } else {
+            out.putShort((short) utf8.length).put(utf8);
+        }
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
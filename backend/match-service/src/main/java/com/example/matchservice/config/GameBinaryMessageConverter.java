@@ -0,0 +1,35 @@
+package com.example.matchservice.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+
+/**
+ * Reads and writes {@link GameBinaryCodec} payloads. Only used when a frame's
+ * content type asks for it, so JSON stays the default.
+ */
+public class GameBinaryMessageConverter extends AbstractMessageConverter {
+
+    public GameBinaryMessageConverter() {
+        super(GameBinaryCodec.MIME_TYPE);
+        setStrictContentTypeMatch(true);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return GameBinaryCodec.supports(clazz);
+    }
+
+    @Override
+    protected Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+        if (!(message.getPayload() instanceof byte[] bytes)) {
+            return null;
+        }
+        return GameBinaryCodec.decode(bytes, targetClass);
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        return GameBinaryCodec.encode(payload);
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.matchservice.config;
+
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * A session whose sends only queue the frame; a worker of
+ * {@link OutboundQueues} writes it to the socket. Runs as that worker's task
+ * while the queue is not empty.
+ */
+final class OutboundQueueSession extends WebSocketSessionDecorator implements Runnable {
+
+    private static final int BATCH = 32;
+    // STOMP headers sit before the first blank line; only this much of a binary frame is searched for them
+    private static final int MAX_HEADER_BYTES = 1024;
+    private static final String KEY_PREFIX = "\n" + OutboundQueues.CONFLATION_KEY_HEADER + ":";
+
+    private record Frame(WebSocketMessage<?> message, String conflationKey) {
+    }
+
+    private final OutboundQueues queues;
+
+    // Guarded by this
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    private int bytes;
+    private boolean scheduled;
+
+    private volatile boolean closed;
+    private volatile long sendStartTime;
+
+    OutboundQueueSession(WebSocketSession session, OutboundQueues queues) {
+        super(session);
+        this.queues = queues;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+        if (closed) {
+            queues.recordDropped(1);
+            return;
+        }
+        Frame frame = toFrame(message);
+        boolean schedule;
+        int depth;
+        int queuedBytes;
+        synchronized (this) {
+            if (frame.conflationKey() != null) {
+                conflate(frame.conflationKey());
+            }
+            frames.add(frame);
+            bytes += frame.message().getPayloadLength();
+            depth = frames.size();
+            queuedBytes = bytes;
+            schedule = !scheduled;
+            scheduled = true;
+        }
+        queues.recordDepth(depth);
+        if (schedule) {
+            queues.schedule(this);
+        } else {
+            checkLimits(depth, queuedBytes);
+        }
+    }
+
+    @Override
+    public void run() {
+        for (int i = 0; i < BATCH; i++) {
+            Frame frame;
+            synchronized (this) {
+                frame = closed ? null : frames.poll();
+                if (frame == null) {
+                    scheduled = false;
+                    return;
+                }
+                bytes -= frame.message().getPayloadLength();
+            }
+            sendStartTime = System.currentTimeMillis();
+            try {
+                getDelegate().sendMessage(frame.message());
+            } catch (IOException | RuntimeException e) {
+                System.err.println("⚠️ Could not write to WebSocket session " + getId() + ": " + e.getMessage());
+                closeQuietly();
+            } finally {
+                sendStartTime = 0;
+            }
+        }
+        // Yield the worker so one busy session cannot starve the others
+        queues.schedule(this);
+    }
+
+    @Override
+    public void close(CloseStatus status) throws IOException {
+        discard();
+        super.close(status);
+    }
+
+    // The client has lost frames it cannot patch, so it must reload the game
+    private void closeQuietly() {
+        try {
+            close(OutboundQueues.RESYNC);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("⚠️ Could not close WebSocket session " + getId() + ": " + e.getMessage());
+        }
+    }
+
+    /** Stops sending and drops whatever is still queued. */
+    void discard() {
+        closed = true;
+        int discarded;
+        synchronized (this) {
+            discarded = frames.size();
+            frames.clear();
+            bytes = 0;
+        }
+        queues.recordDropped(discarded);
+    }
+
+    synchronized int depth() {
+        return frames.size();
+    }
+
+    // Removes the queued frame that the new one with this key supersedes, if any
+    private void conflate(String key) {
+        Iterator<Frame> queued = frames.iterator();
+        while (queued.hasNext()) {
+            Frame frame = queued.next();
+            if (key.equals(frame.conflationKey())) {
+                queued.remove();
+                bytes -= frame.message().getPayloadLength();
+                queues.recordConflated();
+                return;
+            }
+        }
+    }
+
+    private void checkLimits(int depth, int queuedBytes) {
+        String reason = null;
+        long start = sendStartTime;
+        if (start > 0 && System.currentTimeMillis() - start > queues.sendTimeLimitMs()) {
+            reason = "write blocked for more than " + queues.sendTimeLimitMs() + " ms";
+        } else if (depth > queues.maxFrames()) {
+            reason = depth + " frames queued";
+        } else if (queuedBytes > queues.maxBytes()) {
+            reason = queuedBytes + " bytes queued";
+        }
+        if (reason != null) {
+            discard();
+            queues.recordDisconnect(getId(), reason);
+            // The STOMP handler closes the session with the status when this reaches it
+            throw new SessionLimitExceededException(reason, OutboundQueues.RESYNC);
+        }
+    }
+
+    // Reads the conflation key, and removes its header: it is only for this queue, not for the client
+    private static Frame toFrame(WebSocketMessage<?> message) {
+        String frame;
+        if (message instanceof TextMessage text) {
+            frame = text.getPayload();
+        } else if (message instanceof BinaryMessage binary) {
+            ByteBuffer payload = binary.getPayload().duplicate();
+            byte[] head = new byte[Math.min(payload.remaining(), MAX_HEADER_BYTES)];
+            payload.get(head);
+            frame = new String(head, StandardCharsets.ISO_8859_1);
+        } else {
+            return new Frame(message, null);
+        }
+        int at = frame.indexOf(KEY_PREFIX);
+        int headersEnd = frame.indexOf("\n\n");
+        if (at < 0 || headersEnd < 0 || at > headersEnd) {
+            return new Frame(message, null);
+        }
+        int start = at + KEY_PREFIX.length();
+        int end = frame.indexOf('\n', start);
+        String key = frame.substring(start, end);
+
+        if (message instanceof TextMessage text) {
+            String stripped = frame.substring(0, at) + frame.substring(end);
+            return new Frame(new TextMessage(stripped, text.isLast()), key);
+        }
+        // Header bytes are ISO-8859-1, so string offsets are byte offsets into the payload
+        ByteBuffer payload = ((BinaryMessage) message).getPayload().duplicate();
+        byte[] stripped = new byte[payload.remaining() - (end - at)];
+        payload.get(stripped, 0, at);
+        payload.position(payload.position() + end - at);
+        payload.get(stripped, at, stripped.length - at);
+        return new Frame(new BinaryMessage(stripped, message.isLast()), key);
+    }
+}
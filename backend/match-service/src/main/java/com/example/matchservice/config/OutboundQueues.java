@@ -0,0 +1,171 @@
+package com.example.matchservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gives every WebSocket session its own bounded outbound queue, drained by a
+ * shared pool so a slow client never holds up the broker or other sessions.
+ * Frames keep their order, except that a frame carrying a
+ * {@link #CONFLATION_KEY_HEADER} replaces an older one with the same key that
+ * is still queued. A session whose queue grows past its limits, whose
+ * socket write stalls past the time limit, or whose write fails, is closed
+ * with {@link #RESYNC}: the client has missed moves it cannot patch and
+ * should reload the game.
+ */
+@Component
+public class OutboundQueues implements WebSocketHandlerDecoratorFactory {
+
+    /**
+     * STOMP header marking a frame as a snapshot that a newer one with the same
+     * value supersedes. Removed from the frame before it is written to the client.
+     */
+    public static final String CONFLATION_KEY_HEADER = "conflation-key";
+
+    /** Close status for a session that fell too far behind; clients reload the game before reconnecting. */
+    public static final CloseStatus RESYNC = new CloseStatus(4001, "Too far behind, resync");
+
+    private final int maxFrames;
+    private final int maxBytes;
+    private final int sendTimeLimitMs;
+    private final ExecutorService senders;
+    private final Map<String, OutboundQueueSession> sessions = new ConcurrentHashMap<>();
+
+    private final DistributionSummary depths;
+    private final Counter conflated;
+    private final Counter dropped;
+    private final Counter disconnects;
+
+    public OutboundQueues(MeterRegistry meterRegistry,
+            @Value("${game.ws.outbound.max-frames:256}") int maxFrames,
+            @Value("${game.ws.outbound.max-buffer-kb:512}") int maxBufferKb,
+            @Value("${game.ws.outbound.send-time-limit-ms:10000}") int sendTimeLimitMs,
+            @Value("${game.ws.outbound.threads:0}") int threads) {
+        this.maxFrames = maxFrames;
+        this.maxBytes = maxBufferKb * 1024;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        // Unbounded, but it never holds more than one entry per session with queued frames
+        this.senders = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), namedThreads("ws-sender"));
+
+        this.depths = DistributionSummary.builder("game.ws.outbound.depth")
+                .description("Frames queued for a session, sampled on every send")
+                .register(meterRegistry);
+        this.conflated = Counter.builder("game.ws.outbound.conflated")
+                .description("Queued snapshots replaced by a newer one")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("game.ws.outbound.dropped")
+                .description("Frames discarded because their session was closed")
+                .register(meterRegistry);
+        this.disconnects = Counter.builder("game.ws.outbound.disconnects")
+                .description("Sessions closed for falling behind")
+                .register(meterRegistry);
+        Gauge.builder("game.ws.outbound.queued", this, OutboundQueues::queued)
+                .description("Frames queued across all sessions")
+                .register(meterRegistry);
+        Gauge.builder("game.ws.outbound.max-depth", this, OutboundQueues::maxDepth)
+                .description("Frames queued for the most backed-up session")
+                .register(meterRegistry);
+
+        System.out.println("📤 Outbound queues: " + maxFrames + " frames / " + maxBufferKb + " KB per session, "
+                + poolSize + " senders");
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                OutboundQueueSession queued = new OutboundQueueSession(session, OutboundQueues.this);
+                sessions.put(session.getId(), queued);
+                super.afterConnectionEstablished(queued);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                OutboundQueueSession queued = sessions.remove(session.getId());
+                if (queued != null) {
+                    queued.discard();
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    int maxFrames() {
+        return maxFrames;
+    }
+
+    int maxBytes() {
+        return maxBytes;
+    }
+
+    int sendTimeLimitMs() {
+        return sendTimeLimitMs;
+    }
+
+    void schedule(OutboundQueueSession session) {
+        senders.execute(session);
+    }
+
+    void recordDepth(int depth) {
+        depths.record(depth);
+    }
+
+    void recordConflated() {
+        conflated.increment();
+    }
+
+    void recordDropped(int frames) {
+        if (frames > 0) {
+            dropped.increment(frames);
+        }
+    }
+
+    void recordDisconnect(String sessionId, String reason) {
+        disconnects.increment();
+        System.err.println("🐢 Closing WebSocket session " + sessionId + ": " + reason);
+    }
+
+    private double queued() {
+        return sessions.values().stream().mapToInt(OutboundQueueSession::depth).sum();
+    }
+
+    private double maxDepth() {
+        return sessions.values().stream().mapToInt(OutboundQueueSession::depth).max().orElse(0);
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+}
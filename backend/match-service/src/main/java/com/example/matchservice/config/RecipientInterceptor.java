@@ -0,0 +1,53 @@
+package com.example.matchservice.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps events meant for one player off everyone else's sessions. A broadcast
+ * carrying {@link #RECIPIENT_HEADER} is sent only to the sessions of that
+ * user; other players and spectators subscribed to the match never see it.
+ * Sent on the inbound channel, after authentication, to learn whose each
+ * session is, and on the outbound channel to filter.
+ */
+@Component
+public class RecipientInterceptor implements ChannelInterceptor {
+
+    /** Message header naming the only user a broadcast is for. Not written to the frame. */
+    public static final String RECIPIENT_HEADER = "recipient";
+
+    private final Map<String, String> sessionUsers = new ConcurrentHashMap<>();
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor stomp = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (stomp != null && StompCommand.CONNECT.equals(stomp.getCommand())) {
+            Principal user = stomp.getUser();
+            if (user != null) {
+                sessionUsers.put(stomp.getSessionId(), user.getName());
+            }
+            return message;
+        }
+        if (stomp != null && StompCommand.DISCONNECT.equals(stomp.getCommand())) {
+            sessionUsers.remove(stomp.getSessionId());
+            return message;
+        }
+
+        Object recipient = message.getHeaders().get(RECIPIENT_HEADER);
+        if (recipient == null) {
+            return message;
+        }
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        return sessionId != null && recipient.equals(sessionUsers.get(sessionId)) ? message : null;
+    }
+}
@@ -1,17 +1,21 @@
 package com.example.matchservice.config;
 
+import com.example.matchservice.broker.TopicRelayInterceptor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 import org.springframework.web.socket.server.HandshakeInterceptor;
 
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -19,9 +23,19 @@ import java.util.Map;
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     private final WebSocketAuthInterceptor webSocketAuthInterceptor;
+    private final BinaryPayloadInterceptor binaryPayloadInterceptor;
+    private final OutboundQueues outboundQueues;
+    private final TopicRelayInterceptor topicRelayInterceptor;
+    private final RecipientInterceptor recipientInterceptor;
 
-    public WebSocketConfig(WebSocketAuthInterceptor webSocketAuthInterceptor) {
+    public WebSocketConfig(WebSocketAuthInterceptor webSocketAuthInterceptor,
+            BinaryPayloadInterceptor binaryPayloadInterceptor, OutboundQueues outboundQueues,
+            TopicRelayInterceptor topicRelayInterceptor, RecipientInterceptor recipientInterceptor) {
         this.webSocketAuthInterceptor = webSocketAuthInterceptor;
+        this.binaryPayloadInterceptor = binaryPayloadInterceptor;
+        this.outboundQueues = outboundQueues;
+        this.topicRelayInterceptor = topicRelayInterceptor;
+        this.recipientInterceptor = recipientInterceptor;
     }
 
     @Override
@@ -29,6 +43,19 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         config.enableSimpleBroker("/topic", "/queue");
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
+        // Frames for one session leave the outbound channel in the order they were published
+        config.setPreservePublishOrder(true);
+        // Each node runs its own broker; broadcasts published here are also relayed to the other nodes
+        config.configureBrokerChannel().interceptors(topicRelayInterceptor);
+    }
+
+    // Sends to a session only queue the frame (see OutboundQueues), so Spring's own per-session
+    // buffer stays empty; its limits are kept as a backstop
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.addDecoratorFactory(outboundQueues)
+                .setSendTimeLimit(outboundQueues.sendTimeLimitMs())
+                .setSendBufferSizeLimit(outboundQueues.maxBytes());
     }
 
     @Override
@@ -74,6 +101,20 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        registration.interceptors(webSocketAuthInterceptor);
+        registration.interceptors(webSocketAuthInterceptor, binaryPayloadInterceptor, recipientInterceptor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Player-only events are dropped for other sessions before any payload is swapped
+        registration.interceptors(recipientInterceptor, binaryPayloadInterceptor);
+    }
+
+    // Frames sent with content-type application/octet-stream are read as binary game messages;
+    // the default converters, JSON among them, handle everything else
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        messageConverters.add(new GameBinaryMessageConverter());
+        return true;
     }
 }
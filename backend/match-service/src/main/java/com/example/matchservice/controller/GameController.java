@@ -2,24 +2,30 @@ package com.example.matchservice.controller;
 
 import com.example.matchservice.model.DTO.*;
 import com.example.matchservice.service.GameService;
+import com.example.matchservice.service.MatchEventPublisher;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+// Replies go to the match's single event destination, or, when only one player should see them, to that
+// player's copy of it; see MatchEventPublisher
 @RestController
 public class GameController {
 
     private final GameService gameService;
+    private final MatchEventPublisher events;
 
-    public GameController(GameService gameService) {
+    public GameController(GameService gameService, MatchEventPublisher events) {
         this.gameService = gameService;
+        this.events = events;
     }
 
     @MessageMapping("/game/{matchId}/move")
@@ -29,28 +35,37 @@ public class GameController {
         try {
             if (principal == null) {
                 System.err.println("❌ ERROR: Principal is null in handleMove");
-                notifyMoveError(matchId, "Authentication required", moveRequest);
                 return;
             }
             System.out.println("📬 Received move for game " + matchId + " from " + principal.getName());
 
-            MoveDTO result = gameService.processMove(matchId, moveRequest, principal);
-
-            if (result != null && result.getMoveNotation() != null && result.getMoveNotation().startsWith("ERROR")) {
-                System.err.println("⚠️ Move rejected: " + result.getMoveNotation());
-                notifyMoveError(matchId, result.getMoveNotation(), moveRequest);
-            } else if (result != null) {
-                System.out.println("🚀 Move processed successfully for game " + matchId);
-                // Removed messagingTemplate.convertAndSend here as it's handled in Service
-            }
+            // Applied in the match's mailbox; the outcome arrives asynchronously
+            gameService.processMove(matchId, moveRequest, principal).whenComplete((result, error) -> {
+                if (error != null) {
+                    Throwable cause = unwrap(error);
+                    System.err.println("❌ CRITICAL: Error processing move: " + cause.getMessage());
+                    notifyMoveError(matchId, principal.getName(), "System error: " + cause.getMessage(), moveRequest);
+                } else if (result != null && result.getMoveNotation() != null
+                        && result.getMoveNotation().startsWith("ERROR")) {
+                    System.err.println("⚠️ Move rejected: " + result.getMoveNotation());
+                    notifyMoveError(matchId, principal.getName(), result.getMoveNotation(), moveRequest);
+                } else if (result != null) {
+                    System.out.println("🚀 Move processed successfully for game " + matchId);
+                    // Removed messagingTemplate.convertAndSend here as it's handled in Service
+                }
+            });
         } catch (Exception e) {
             System.err.println("❌ CRITICAL: Error processing move: " + e.getMessage());
-            notifyMoveError(matchId, "System error: " + e.getMessage(), moveRequest);
+            notifyMoveError(matchId, principal.getName(), "System error: " + e.getMessage(), moveRequest);
             e.printStackTrace();
         }
     }
 
-    private void notifyMoveError(Long matchId, String error, MoveRequest originalRequest) {
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private void notifyMoveError(Long matchId, String username, String error, MoveRequest originalRequest) {
         Map<String, Object> errorPayload = new HashMap<>();
         errorPayload.put("type", "MOVE_ERROR");
         errorPayload.put("error", error);
@@ -58,72 +73,62 @@ public class GameController {
         errorPayload.put("originalMove", originalRequest);
         errorPayload.put("timestamp", System.currentTimeMillis());
 
-        // Send back to the specific match topic so the frontend can handle it
-        gameService.sendErrorToTopic(matchId, errorPayload);
+        // Only the player who sent the move gets it back
+        gameService.sendErrorToPlayer(matchId, username, errorPayload);
     }
 
     @MessageMapping("/game/{matchId}/join")
-    @SendTo("/topic/game/{matchId}")
-    public GameStatusDTO handlePlayerJoin(@DestinationVariable Long matchId,
+    public void handlePlayerJoin(@DestinationVariable Long matchId,
             @Payload JoinRequest joinRequest,
             Principal principal) {
-        try {
-            System.out.println("Player " + principal.getName() + " joining game " + matchId);
-            return gameService.handlePlayerJoin(matchId, joinRequest, principal);
-        } catch (Exception e) {
-            System.err.println("Error handling player join: " + e.getMessage());
+        System.out.println("Player " + principal.getName() + " joining game " + matchId);
+        gameService.handlePlayerJoin(matchId, joinRequest, principal).exceptionally(e -> {
+            Throwable cause = unwrap(e);
+            System.err.println("Error handling player join: " + cause.getMessage());
             GameStatusDTO errorStatus = new GameStatusDTO();
             errorStatus.setMatchId(matchId);
-            errorStatus.setStatus("ERROR: " + e.getMessage());
+            errorStatus.setStatus("ERROR: " + cause.getMessage());
             return errorStatus;
-        }
+        }).thenAccept(status -> events.publishToUser(matchId, principal.getName(), MatchEvent.Type.JOINED, status));
     }
 
     @MessageMapping("/game/{matchId}/resign")
-    @SendTo("/topic/game-state/{matchId}")
-    public Map<String, Object> handleResign(@DestinationVariable Long matchId,
+    public void handleResign(@DestinationVariable Long matchId,
             Principal principal) {
-        try {
-            System.out.println("Player " + principal.getName() + " resigning from game " + matchId);
-            gameService.handleResignation(matchId, principal.getName());
+        System.out.println("Player " + principal.getName() + " resigning from game " + matchId);
+        gameService.handleResignation(matchId, principal.getName()).whenComplete((ignored, e) -> {
+            if (e != null) {
+                Throwable cause = unwrap(e);
+                System.err.println("Error handling resignation: " + cause.getMessage());
+                Map<String, Object> error = new HashMap<>();
+                error.put("error", cause.getMessage());
+                events.publishToUser(matchId, principal.getName(), MatchEvent.Type.STATE, error);
+                return;
+            }
 
             Map<String, Object> response = new HashMap<>();
             response.put("type", "RESIGNATION");
             response.put("player", principal.getName());
             response.put("matchId", matchId);
             response.put("timestamp", System.currentTimeMillis());
-            return response;
-        } catch (Exception e) {
-            System.err.println("Error handling resignation: " + e.getMessage());
-            Map<String, Object> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return error;
-        }
+            events.publish(matchId, MatchEvent.Type.STATE, response);
+        });
     }
 
+    // The offer itself is sent to the opponent only, as a DRAW_OFFER event
     @MessageMapping("/game/{matchId}/draw")
-    public Map<String, Object> handleDrawOffer(@DestinationVariable Long matchId,
+    public void handleDrawOffer(@DestinationVariable Long matchId,
             Principal principal) {
         try {
             System.out.println("Player " + principal.getName() + " offering draw in game " + matchId);
             gameService.handleDrawOffer(matchId, principal.getName());
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("type", "DRAW_OFFER_SENT");
-            response.put("matchId", matchId);
-            response.put("timestamp", System.currentTimeMillis());
-            return response;
         } catch (Exception e) {
             System.err.println("Error handling draw offer: " + e.getMessage());
-            Map<String, Object> error = new HashMap<>();
-            error.put("error", e.getMessage());
-            return error;
         }
     }
 
     @MessageMapping("/game/{matchId}/draw/accept")
-    @SendTo("/topic/game-state/{matchId}")
-    public Map<String, Object> handleDrawAccept(@DestinationVariable Long matchId,
+    public void handleDrawAccept(@DestinationVariable Long matchId,
             Principal principal) {
         try {
             System.out.println("Player " + principal.getName() + " accepting draw in game " + matchId);
@@ -134,18 +139,17 @@ public class GameController {
             response.put("matchId", matchId);
             response.put("timestamp", System.currentTimeMillis());
             response.put("status", "DRAW");
-            return response;
+            events.publish(matchId, MatchEvent.Type.STATE, response);
         } catch (Exception e) {
             System.err.println("Error handling draw accept: " + e.getMessage());
             Map<String, Object> error = new HashMap<>();
             error.put("error", e.getMessage());
-            return error;
+            events.publishToUser(matchId, principal.getName(), MatchEvent.Type.STATE, error);
         }
     }
 
     @MessageMapping("/game/{matchId}/chat")
-    @SendTo("/topic/chat/{matchId}")
-    public Map<String, Object> handleChatMessage(@DestinationVariable Long matchId,
+    public void handleChatMessage(@DestinationVariable Long matchId,
             @Payload Map<String, String> chatMessage,
             Principal principal) {
         try {
@@ -157,12 +161,12 @@ public class GameController {
             response.put("message", chatMessage.get("message"));
             response.put("matchId", matchId);
             response.put("timestamp", System.currentTimeMillis());
-            return response;
+            events.publish(matchId, MatchEvent.Type.CHAT, response);
         } catch (Exception e) {
             System.err.println("Error handling chat message: " + e.getMessage());
             Map<String, Object> error = new HashMap<>();
             error.put("error", e.getMessage());
-            return error;
+            events.publishToUser(matchId, principal.getName(), MatchEvent.Type.CHAT, error);
         }
     }
 
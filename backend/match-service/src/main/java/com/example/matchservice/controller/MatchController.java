@@ -39,8 +39,9 @@ public class MatchController {
     }
 
     @PostMapping("/bot")
-    public ResponseEntity<Map<String, Long>> createBotMatch(HttpServletRequest request) {
-        Optional<Long> matchIdOpt = matchService.createBotMatch(request);
+    public ResponseEntity<Map<String, Long>> createBotMatch(HttpServletRequest request,
+            @RequestParam(name = "bot", required = false) String bot) {
+        Optional<Long> matchIdOpt = matchService.createBotMatch(request, bot);
 
         Map<String, Long> response = new HashMap<>();
         if (matchIdOpt.isPresent()) {
@@ -104,10 +105,13 @@ public class MatchController {
     @GetMapping("/{matchId}")
     public ResponseEntity<Map<String, Object>> getGameDetails(
             @PathVariable Long matchId,
+            @RequestParam(name = "boardFormat", required = false) String boardFormat,
+            @RequestParam(name = "fromPly", required = false) Integer fromPly,
             HttpServletRequest request) {
 
         try {
-            Map<String, Object> response = matchService.getGameDetailsForFrontend(matchId, request);
+            Map<String, Object> response = matchService.getGameDetailsForFrontend(matchId, boardFormat, fromPly,
+                    request);
             return ResponseEntity.ok(response);
 
         } catch (RuntimeException e) {
@@ -121,4 +125,27 @@ public class MatchController {
             return ResponseEntity.status(500).body(Map.of("error", "Internal server error"));
         }
     }
+
+    @GetMapping("/{matchId}/position")
+    public ResponseEntity<Map<String, Object>> getPositionAt(
+            @PathVariable Long matchId,
+            @RequestParam(name = "ply") int ply,
+            HttpServletRequest request) {
+
+        try {
+            return ResponseEntity.ok(matchService.getPositionAt(matchId, ply, request));
+
+        } catch (RuntimeException e) {
+            if (e.getMessage().contains("Not authenticated")) {
+                return ResponseEntity.status(401).body(Map.of("error", e.getMessage()));
+            } else if (e.getMessage().contains("Not authorized")) {
+                return ResponseEntity.status(403).body(Map.of("error", e.getMessage()));
+            } else if (e.getMessage().contains("out of range")) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            } else if (e.getMessage().contains("not found")) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.status(500).body(Map.of("error", "Internal server error"));
+        }
+    }
 }
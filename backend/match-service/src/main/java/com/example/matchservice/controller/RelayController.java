@@ -0,0 +1,34 @@
+package com.example.matchservice.controller;
+
+import com.example.matchservice.broker.PeerTopicRelay;
+import com.example.matchservice.model.DTO.RelayedMessage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Receives the broadcasts other match-service nodes relay to this one. Not
+ * meant for clients: callers must present the shared relay secret.
+ */
+@RestController
+@ConditionalOnProperty(name = "game.broker.relay", havingValue = "peers")
+public class RelayController {
+
+    private final PeerTopicRelay relay;
+
+    public RelayController(PeerTopicRelay relay) {
+        this.relay = relay;
+    }
+
+    @PostMapping(PeerTopicRelay.PATH)
+    public ResponseEntity<Void> relay(@RequestHeader(name = PeerTopicRelay.SECRET_HEADER, required = false) String secret,
+            @RequestBody List<RelayedMessage> messages) {
+        if (!relay.receive(secret, messages)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
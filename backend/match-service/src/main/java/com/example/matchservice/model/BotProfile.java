@@ -0,0 +1,54 @@
+package com.example.matchservice.model;
+
+import com.example.matchservice.chess.search.SearchLimits;
+
+public enum BotProfile {
+    // username, rating, max depth, move time (ms), node budget, search threads
+    CURLER("Curler", 350, 3, 300, 50_000, 1),
+    SKIPPER("Skipper", 1600, 12, 800, 4_000_000, 4);
+
+    private final String username;
+    private final int rating;
+    private final SearchLimits searchLimits;
+    private final int threads;
+
+    BotProfile(String username, int rating, int maxDepth, long moveTimeMillis, long maxNodes, int threads) {
+        this.username = username;
+        this.rating = rating;
+        this.searchLimits = new SearchLimits(maxDepth, moveTimeMillis, maxNodes);
+        this.threads = threads;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public int getRating() {
+        return rating;
+    }
+
+    public SearchLimits getSearchLimits() {
+        return searchLimits;
+    }
+
+    /** Upper bound on search threads; the bot scheduler grants fewer under load. */
+    public int getThreads() {
+        return threads;
+    }
+
+    public static BotProfile forUsername(String username) {
+        if (username == null) {
+            return null;
+        }
+        for (BotProfile profile : values()) {
+            if (profile.username.equalsIgnoreCase(username)) {
+                return profile;
+            }
+        }
+        return null;
+    }
+
+    public static boolean isBot(String username) {
+        return forUsername(username) != null;
+    }
+}
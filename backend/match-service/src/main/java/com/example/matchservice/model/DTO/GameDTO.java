@@ -1,9 +1,12 @@
 package com.example.matchservice.model.DTO;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.example.matchservice.model.User;
 import java.util.List;
 import java.time.LocalDateTime;
 
+// Unset fields (e.g. the legacy board) are left out of the JSON
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class GameDTO {
     private Long id;
     private User player1;
@@ -17,6 +20,10 @@ public class GameDTO {
     private List<MoveDTO> moves;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Plies played so far, the ply the moves list starts after and MoveHistory.positionHash of the fen
+    private Integer ply;
+    private Integer fromPly;
+    private String positionHash;
 
     public GameDTO() {
     }
@@ -133,4 +140,28 @@ public class GameDTO {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Integer getPly() {
+        return ply;
+    }
+
+    public void setPly(Integer ply) {
+        this.ply = ply;
+    }
+
+    public Integer getFromPly() {
+        return fromPly;
+    }
+
+    public void setFromPly(Integer fromPly) {
+        this.fromPly = fromPly;
+    }
+
+    public String getPositionHash() {
+        return positionHash;
+    }
+
+    public void setPositionHash(String positionHash) {
+        this.positionHash = positionHash;
+    }
 }
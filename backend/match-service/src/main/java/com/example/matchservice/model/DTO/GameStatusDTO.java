@@ -1,7 +1,10 @@
 package com.example.matchservice.model.DTO;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.List;
 
+// Unset fields (e.g. the legacy board) are left out of the JSON
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class GameStatusDTO {
     private String status;
     private Long matchId;
@@ -11,6 +14,12 @@ public class GameStatusDTO {
     private String fen;
     private List<MoveDTO> moves;
     private boolean isWhiteTurn;
+    private String result;
+    private String reason;
+    // Plies played so far, the ply the moves list starts after and MoveHistory.positionHash of the fen
+    private Integer ply;
+    private Integer fromPly;
+    private String positionHash;
 
     public GameStatusDTO() {
     }
@@ -90,4 +99,44 @@ public class GameStatusDTO {
     public void setWhiteTurn(boolean whiteTurn) {
         isWhiteTurn = whiteTurn;
     }
+
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public Integer getPly() {
+        return ply;
+    }
+
+    public void setPly(Integer ply) {
+        this.ply = ply;
+    }
+
+    public Integer getFromPly() {
+        return fromPly;
+    }
+
+    public void setFromPly(Integer fromPly) {
+        this.fromPly = fromPly;
+    }
+
+    public String getPositionHash() {
+        return positionHash;
+    }
+
+    public void setPositionHash(String positionHash) {
+        this.positionHash = positionHash;
+    }
 }
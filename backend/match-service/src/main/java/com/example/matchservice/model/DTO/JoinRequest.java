@@ -6,6 +6,9 @@ public class JoinRequest {
     private String type;
     private String playerColor;
     private LocalDateTime timestamp;
+    private String boardFormat;
+    // Plies the client already has; null asks for the full history
+    private Integer fromPly;
 
     public JoinRequest() {
     }
@@ -39,4 +42,20 @@ public class JoinRequest {
     public void setTimestamp(LocalDateTime timestamp) {
         this.timestamp = timestamp;
     }
+
+    public String getBoardFormat() {
+        return boardFormat;
+    }
+
+    public void setBoardFormat(String boardFormat) {
+        this.boardFormat = boardFormat;
+    }
+
+    public Integer getFromPly() {
+        return fromPly;
+    }
+
+    public void setFromPly(Integer fromPly) {
+        this.fromPly = fromPly;
+    }
 }
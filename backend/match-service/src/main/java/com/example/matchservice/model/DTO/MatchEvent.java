@@ -0,0 +1,63 @@
+package com.example.matchservice.model.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Envelope for everything sent about a match. All of a match's events go to
+ * one destination, {@code /topic/match/{matchId}}, and {@code type} says what
+ * {@code data} holds.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MatchEvent {
+
+    public enum Type {
+        // A player (re)joined; data is a GameStatusDTO with the moves the joining client lacks. Sent to that
+        // player only, like MOVE_ERROR and DRAW_OFFER
+        JOINED,
+        // data is a MoveEvent
+        MOVE,
+        MOVE_ERROR,
+        // Game over, resignation or draw; data is a GameStatusDTO or a map with its own type
+        STATE,
+        CHAT,
+        // data names the player it is offered to in "to", the only one it is sent to
+        DRAW_OFFER
+    }
+
+    private Type type;
+    private Long matchId;
+    private Object data;
+
+    public MatchEvent() {
+    }
+
+    public MatchEvent(Type type, Long matchId, Object data) {
+        this.type = type;
+        this.matchId = matchId;
+        this.data = data;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getMatchId() {
+        return matchId;
+    }
+
+    public void setMatchId(Long matchId) {
+        this.matchId = matchId;
+    }
+
+    public Object getData() {
+        return data;
+    }
+
+    public void setData(Object data) {
+        this.data = data;
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.matchservice.model.DTO;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Unset fields (e.g. the legacy board) are left out of the JSON
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class MoveDTO {
     private Integer fromRow;
     private Integer fromCol;
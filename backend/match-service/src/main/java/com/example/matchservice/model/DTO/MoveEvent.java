@@ -0,0 +1,79 @@
+package com.example.matchservice.model.DTO;
+
+/**
+ * What is broadcast for each move, as the data of a {@code MOVE} match event:
+ * the packed move rather than a board or FENs. Clients apply it to their own
+ * position and fetch a snapshot if a ply is missing or the hash of their
+ * board disagrees (CRC-32 of the FEN piece placement field, in hex).
+ */
+public class MoveEvent {
+    private Long matchId;
+    // Plies played including this one, so odd plies are white's moves
+    private int ply;
+    // From square, to square and promotion as in chess.core.Move#code, a1 = 0
+    private int move;
+    private String san;
+    private String positionHash;
+    // Time the mover took, in tenths of a second
+    private int thinkTime;
+
+    public MoveEvent() {
+    }
+
+    public MoveEvent(Long matchId, int ply, int move, String san, String positionHash, int thinkTime) {
+        this.matchId = matchId;
+        this.ply = ply;
+        this.move = move;
+        this.san = san;
+        this.positionHash = positionHash;
+        this.thinkTime = thinkTime;
+    }
+
+    public Long getMatchId() {
+        return matchId;
+    }
+
+    public void setMatchId(Long matchId) {
+        this.matchId = matchId;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+
+    public void setPly(int ply) {
+        this.ply = ply;
+    }
+
+    public int getMove() {
+        return move;
+    }
+
+    public void setMove(int move) {
+        this.move = move;
+    }
+
+    public String getSan() {
+        return san;
+    }
+
+    public void setSan(String san) {
+        this.san = san;
+    }
+
+    public String getPositionHash() {
+        return positionHash;
+    }
+
+    public void setPositionHash(String positionHash) {
+        this.positionHash = positionHash;
+    }
+
+    public int getThinkTime() {
+        return thinkTime;
+    }
+
+    public void setThinkTime(int thinkTime) {
+        this.thinkTime = thinkTime;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.matchservice.model.DTO;
+
+/**
+ * A broadcast as it left one node's application for its broker, already
+ * serialized, so other nodes deliver the same frames without converting it
+ * again.
+ */
+public class RelayedMessage {
+    private String destination;
+    private String contentType;
+    private byte[] payload;
+    // The binary form for sessions that asked for it, if the payload has one
+    private byte[] binaryPayload;
+    private String conflationKey;
+    // The only user the broadcast is for, if it is not for everyone subscribed
+    private String recipient;
+
+    public RelayedMessage() {
+    }
+
+    public RelayedMessage(String destination, String contentType, byte[] payload, byte[] binaryPayload,
+            String conflationKey, String recipient) {
+        this.destination = destination;
+        this.contentType = contentType;
+        this.payload = payload;
+        this.binaryPayload = binaryPayload;
+        this.conflationKey = conflationKey;
+        this.recipient = recipient;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public void setDestination(String destination) {
+        this.destination = destination;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+
+    public byte[] getBinaryPayload() {
+        return binaryPayload;
+    }
+
+    public void setBinaryPayload(byte[] binaryPayload) {
+        this.binaryPayload = binaryPayload;
+    }
+
+    public String getConflationKey() {
+        return conflationKey;
+    }
+
+    public void setConflationKey(String conflationKey) {
+        this.conflationKey = conflationKey;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+}
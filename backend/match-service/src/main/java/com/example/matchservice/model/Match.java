@@ -35,6 +35,20 @@ public class Match {
     @Column(name = "last_move_uci", length = 10)
     private String lastMoveUci;
 
+    // Every ply as a 16-bit move code and think time (see PackedMoves); the moves table is an optional wider copy
+    @Column(name = "move_codes", columnDefinition = "BLOB")
+    private byte[] moveCodes;
+
+    @Column(name = "move_times", columnDefinition = "BLOB")
+    private byte[] moveTimes;
+
+    // A PackedPosition after every checkpointInterval plies, so any ply is at most that many moves from one
+    @Column(name = "checkpoint_interval")
+    private Integer checkpointInterval;
+
+    @Column(name = "move_checkpoints", columnDefinition = "BLOB")
+    private byte[] moveCheckpoints;
+
     @OneToMany(mappedBy = "match", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @OrderBy("ply ASC")
     private List<Move> moves = new ArrayList<>();
@@ -123,6 +137,38 @@ public class Match {
         this.lastMoveUci = lastMoveUci;
     }
 
+    public byte[] getMoveCodes() {
+        return moveCodes;
+    }
+
+    public void setMoveCodes(byte[] moveCodes) {
+        this.moveCodes = moveCodes;
+    }
+
+    public byte[] getMoveTimes() {
+        return moveTimes;
+    }
+
+    public void setMoveTimes(byte[] moveTimes) {
+        this.moveTimes = moveTimes;
+    }
+
+    public Integer getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    public void setCheckpointInterval(Integer checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    public byte[] getMoveCheckpoints() {
+        return moveCheckpoints;
+    }
+
+    public void setMoveCheckpoints(byte[] moveCheckpoints) {
+        this.moveCheckpoints = moveCheckpoints;
+    }
+
     public List<Move> getMoves() {
         return moves;
     }
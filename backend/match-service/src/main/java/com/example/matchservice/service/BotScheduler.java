@@ -0,0 +1,212 @@
+package com.example.matchservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs bot moves. A single scheduler thread waits out the "thinking" delay,
+ * then the search is handed to a fixed pool of CPU workers sized to the cores.
+ * The pool's queue is bounded; when it is full the move is rejected and the
+ * caller is told, rather than piling up threads or unbounded work.
+ *
+ * <p>
+ * At most one bot move is pending per match. {@link #cancel(Long)} drops a
+ * move still waiting or queued, and interrupts a running search, which the
+ * searcher checks alongside its time budget.
+ *
+ * <p>
+ * Idle workers double as Lazy SMP helpers for bot profiles that allow more
+ * than one search thread; see {@link #grantHelpers(int)}.
+ */
+@Service
+public class BotScheduler {
+
+    private final ScheduledThreadPoolExecutor delayScheduler;
+    private final ThreadPoolExecutor workers;
+    private final long moveDelayMillis;
+    private final Map<Long, BotJob> jobs = new ConcurrentHashMap<>();
+
+    private final Counter completed;
+    private final Counter rejected;
+    private final Counter cancelled;
+    private final Counter failed;
+    private final Counter helpersGranted;
+    private final Timer searchTimer;
+
+    private static final class BotJob {
+        private volatile Future<?> future;
+        private volatile boolean cancelled;
+    }
+
+    public BotScheduler(MeterRegistry meterRegistry,
+            @Value("${bot.pool.threads:0}") int threads,
+            @Value("${bot.pool.queue-capacity:64}") int queueCapacity,
+            @Value("${bot.move-delay-ms:1000}") long moveDelayMillis) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.moveDelayMillis = moveDelayMillis;
+
+        this.delayScheduler = new ScheduledThreadPoolExecutor(1, namedThreads("bot-delay"));
+        this.delayScheduler.setRemoveOnCancelPolicy(true);
+
+        // AbortPolicy: a full queue throws RejectedExecutionException, handled in submit()
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreads("bot-worker"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.workers.prestartAllCoreThreads();
+
+        Gauge.builder("bot.moves.delayed", delayScheduler, e -> e.getQueue().size())
+                .description("Bot moves waiting out the move delay")
+                .register(meterRegistry);
+        Gauge.builder("bot.moves.queued", workers, e -> e.getQueue().size())
+                .description("Bot searches waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("bot.moves.active", workers, ThreadPoolExecutor::getActiveCount)
+                .description("Bot workers busy with a search or a search helper")
+                .register(meterRegistry);
+        this.completed = meterRegistry.counter("bot.moves.completed");
+        this.rejected = meterRegistry.counter("bot.moves.rejected");
+        this.cancelled = meterRegistry.counter("bot.moves.cancelled");
+        this.failed = meterRegistry.counter("bot.moves.failed");
+        this.helpersGranted = meterRegistry.counter("bot.search.helpers");
+        this.searchTimer = meterRegistry.timer("bot.search");
+
+        System.out.println("🤖 Bot pool: " + poolSize + " workers, queue " + queueCapacity
+                + ", move delay " + moveDelayMillis + " ms");
+    }
+
+    /**
+     * Runs {@code search} on a bot worker after the move delay and hands its
+     * result to {@code onResult}, unless cancelled meanwhile. The match counts
+     * as pending until the search returns, so {@code onResult} may already
+     * schedule the next move. Returns false if a move for this match is already
+     * pending. {@code onRejected} runs on the scheduler thread if the worker
+     * queue is full when the delay ends.
+     */
+    public <T> boolean schedule(Long matchId, Supplier<T> search, Consumer<T> onResult, Runnable onRejected) {
+        BotJob job = new BotJob();
+        if (jobs.putIfAbsent(matchId, job) != null) {
+            System.out.println("🤖 Bot move already pending for game " + matchId);
+            return false;
+        }
+        Runnable move = () -> {
+            T result;
+            try {
+                result = searchTimer.record(search);
+            } finally {
+                jobs.remove(matchId, job);
+            }
+            if (!job.cancelled && !Thread.currentThread().isInterrupted()) {
+                completed.increment();
+                onResult.accept(result);
+            }
+        };
+        job.future = delayScheduler.schedule(() -> submit(matchId, job, move, onRejected),
+                moveDelayMillis, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    public void cancel(Long matchId) {
+        BotJob job = jobs.remove(matchId);
+        if (job == null) {
+            return;
+        }
+        job.cancelled = true;
+        Future<?> future = job.future;
+        if (future != null) {
+            future.cancel(true);
+        }
+        workers.purge();
+        cancelled.increment();
+        System.out.println("🛑 Cancelled bot move for game " + matchId);
+    }
+
+    /** Workers neither running nor owed a queued search. */
+    public int idleWorkers() {
+        return Math.max(0, workers.getCorePoolSize() - workers.getActiveCount() - workers.getQueue().size());
+    }
+
+    /**
+     * Lazy SMP helpers granted to one search: at most {@code wanted}, and only
+     * from workers that would otherwise sit idle, so a busy node falls back to
+     * single-threaded search instead of delaying other games' moves.
+     */
+    public int grantHelpers(int wanted) {
+        int granted = Math.min(wanted, idleWorkers());
+        if (granted > 0) {
+            helpersGranted.increment(granted);
+        }
+        return granted;
+    }
+
+    /** Runs a search helper on a bot worker; null if the pool filled up meanwhile. */
+    public Future<?> submitHelper(Runnable helper) {
+        try {
+            return workers.submit(helper);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private void submit(Long matchId, BotJob job, Runnable move, Runnable onRejected) {
+        if (job.cancelled) {
+            return;
+        }
+        try {
+            Future<?> future = workers.submit(() -> run(matchId, job, move));
+            job.future = future;
+            if (job.cancelled) {
+                // cancel() ran between the check above and publishing the future
+                future.cancel(true);
+            }
+        } catch (RejectedExecutionException e) {
+            jobs.remove(matchId, job);
+            rejected.increment();
+            System.err.println("⚠️ Bot pool full, rejected move for game " + matchId);
+            onRejected.run();
+        }
+    }
+
+    private void run(Long matchId, BotJob job, Runnable move) {
+        try {
+            move.run();
+        } catch (Exception e) {
+            failed.increment();
+            System.err.println("Error in bot move for game " + matchId + ": " + e.getMessage());
+        } finally {
+            jobs.remove(matchId, job);
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        delayScheduler.shutdownNow();
+        workers.shutdownNow();
+    }
+}
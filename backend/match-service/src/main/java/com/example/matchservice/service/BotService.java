@@ -1,263 +1,130 @@
 package com.example.matchservice.service;
 
-import com.example.matchservice.model.DTO.MoveDTO;
-import com.example.matchservice.model.DTO.MoveRequest;
+import com.example.matchservice.chess.book.PolyglotBook;
+import com.example.matchservice.chess.book.PolyglotKeys;
+import com.example.matchservice.chess.core.Move;
+import com.example.matchservice.chess.core.Position;
+import com.example.matchservice.chess.endgame.EndgameTables;
+import com.example.matchservice.chess.search.SearchResult;
+import com.example.matchservice.chess.search.Searcher;
+import com.example.matchservice.chess.search.TranspositionTable;
+import com.example.matchservice.model.BotProfile;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.Future;
 
 @Service
 public class BotService {
 
-    private final Random random = new Random();
-
-    public MoveRequest generateMove(String[][] board, boolean isWhiteTurn) {
-        List<MoveRequest> pseudoLegalMoves = getAllPseudoLegalMoves(board, isWhiteTurn);
-        List<MoveRequest> legalMoves = new ArrayList<>();
-
-        for (MoveRequest move : pseudoLegalMoves) {
-            if (isKingSafeAfterMove(board, move, isWhiteTurn)) {
-                legalMoves.add(move);
-            }
-        }
+    private final TranspositionTable transpositionTable;
+    private final PolyglotBook openingBook;
+    private final EndgameTables endgameTables;
+    private final BotScheduler botScheduler;
+
+    // Bot moves run on worker threads; each keeps its own searcher and buffers
+    private final ThreadLocal<Searcher> searchers;
+
+    public BotService(@Value("${bot.transposition-table.size-mb:64}") int transpositionTableSizeMb,
+            @Value("${bot.book.path:}") String bookPath,
+            @Value("${bot.book.keys-path:}") String bookKeysPath,
+            @Value("${bot.endgame.dir:${java.io.tmpdir}/indichess-bitbases}") String endgameDir,
+            BotScheduler botScheduler) {
+        this.transpositionTable = new TranspositionTable(transpositionTableSizeMb);
+        this.openingBook = openBook(bookPath, bookKeysPath);
+        this.endgameTables = openEndgameTables(endgameDir);
+        this.botScheduler = botScheduler;
+        this.searchers = ThreadLocal.withInitial(() -> new Searcher(transpositionTable));
+        System.out.println("🤖 Bot transposition table: " + transpositionTable.sizeBytes() / (1024 * 1024) + " MB");
+    }
 
-        if (legalMoves.isEmpty()) {
+    private static PolyglotBook openBook(String bookPath, String keysPath) {
+        if (bookPath == null || bookPath.isBlank()) {
             return null;
         }
-
-        // Simple bot: pick a random legal move
-        return legalMoves.get(random.nextInt(legalMoves.size()));
-    }
-
-    private boolean isKingSafeAfterMove(String[][] board, MoveRequest move, boolean isWhite) {
-        // Clone board and apply move
-        String[][] tempBoard = new String[8][8];
-        for (int i = 0; i < 8; i++) {
-            tempBoard[i] = board[i].clone();
+        if (keysPath == null || keysPath.isBlank() || !Files.isReadable(Path.of(keysPath))) {
+            System.err.println("⚠️ Opening book disabled: bot.book.keys-path must point to the Polyglot Random64 keys");
+            return null;
         }
-
-        tempBoard[move.getToRow()][move.getToCol()] = move.getPiece();
-        tempBoard[move.getFromRow()][move.getFromCol()] = "";
-
-        // Find king
-        char kingChar = isWhite ? 'K' : 'k';
-        int kr = -1, kc = -1;
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                if (tempBoard[r][c].length() > 0 && tempBoard[r][c].charAt(0) == kingChar) {
-                    kr = r;
-                    kc = c;
-                    break;
-                }
-            }
-            if (kr != -1)
-                break;
+        try {
+            PolyglotBook book = PolyglotBook.open(Path.of(bookPath), PolyglotKeys.load(Path.of(keysPath)));
+            System.out.println("📖 Opening book: " + bookPath + " (" + book.size() + " entries)");
+            return book;
+        } catch (Exception e) {
+            System.err.println("⚠️ Opening book disabled: " + e.getMessage());
+            return null;
         }
-
-        if (kr == -1)
-            return true; // Should not happen
-
-        // Check if any opponent piece can attack the king
-        return !isSquareAttacked(tempBoard, kr, kc, !isWhite);
     }
 
-    private boolean isSquareAttacked(String[][] board, int row, int col, boolean attackerIsWhite) {
-        // This is a simplified version of check detection
-        // 1. Check for pawns
-        int pawnDir = attackerIsWhite ? 1 : -1; // Opponent's pawn direction
-        char opponentPawn = attackerIsWhite ? 'P' : 'p';
-        int pr = row + pawnDir;
-        if (isValid(pr, col - 1) && board[pr][col - 1].length() > 0 && board[pr][col - 1].charAt(0) == opponentPawn)
-            return true;
-        if (isValid(pr, col + 1) && board[pr][col + 1].length() > 0 && board[pr][col + 1].charAt(0) == opponentPawn)
-            return true;
-
-        // 2. Check for knights
-        int[][] knightMoves = { { -2, -1 }, { -2, 1 }, { 2, -1 }, { 2, 1 }, { -1, -2 }, { -1, 2 }, { 1, -2 },
-                { 1, 2 } };
-        char opponentKnight = attackerIsWhite ? 'N' : 'n';
-        for (int[] m : knightMoves) {
-            int nr = row + m[0], nc = col + m[1];
-            if (isValid(nr, nc) && board[nr][nc].length() > 0 && board[nr][nc].charAt(0) == opponentKnight)
-                return true;
-        }
-
-        // 3. Sliding pieces (Rook, Bishop, Queen)
-        int[][] slidingDirs = {
-                { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 }, // Rook/Queen
-                { -1, -1 }, { -1, 1 }, { 1, -1 }, { 1, 1 } // Bishop/Queen
-        };
-        for (int i = 0; i < 8; i++) {
-            int dr = slidingDirs[i][0], dc = slidingDirs[i][1];
-            for (int step = 1; step < 8; step++) {
-                int nr = row + dr * step, nc = col + dc * step;
-                if (!isValid(nr, nc))
-                    break;
-                String piece = board[nr][nc];
-                if (!piece.isEmpty()) {
-                    char p = piece.charAt(0);
-                    boolean isOpponent = isUpperCase(p) == attackerIsWhite;
-                    if (isOpponent) {
-                        char type = Character.toLowerCase(p);
-                        if (i < 4) { // Straight
-                            if (type == 'r' || type == 'q')
-                                return true;
-                        } else { // Diagonal
-                            if (type == 'b' || type == 'q')
-                                return true;
-                        }
-                    }
-                    break; // Blocked by any piece
-                }
-            }
+    private static EndgameTables openEndgameTables(String directory) {
+        if (directory == null || directory.isBlank()) {
+            return null;
         }
-
-        // 4. King
-        int[][] kingMoves = { { -1, -1 }, { -1, 0 }, { -1, 1 }, { 0, -1 }, { 0, 1 }, { 1, -1 }, { 1, 0 }, { 1, 1 } };
-        char opponentKing = attackerIsWhite ? 'K' : 'k';
-        for (int[] m : kingMoves) {
-            int nr = row + m[0], nc = col + m[1];
-            if (isValid(nr, nc) && board[nr][nc].length() > 0 && board[nr][nc].charAt(0) == opponentKing)
-                return true;
+        try {
+            long start = System.nanoTime();
+            EndgameTables tables = EndgameTables.loadOrGenerate(Path.of(directory));
+            System.out.println("🏁 Endgame tables (KPK, KRK, KQK): " + tables.sizeBytes() / 1024 + " KB in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms from " + directory);
+            return tables;
+        } catch (Exception e) {
+            System.err.println("⚠️ Endgame tables disabled: " + e.getMessage());
+            return null;
         }
-
-        return false;
     }
 
-    private boolean isUpperCase(char c) {
-        return Character.isUpperCase(c);
-    }
+    /** Picks a move for the side to move, or {@link Move#NONE} if there is none. */
+    public int generateMove(Position position, BotProfile profile) {
 
-    private List<MoveRequest> getAllPseudoLegalMoves(String[][] board, boolean isWhite) {
-        List<MoveRequest> moves = new ArrayList<>();
-        for (int r = 0; r < 8; r++) {
-            for (int c = 0; c < 8; c++) {
-                String piece = board[r][c];
-                if (piece != null && !piece.isEmpty()) {
-                    boolean isPieceWhite = Character.isUpperCase(piece.charAt(0));
-                    if (isPieceWhite == isWhite) {
-                        moves.addAll(getPseudoLegalMovesForPiece(piece, r, c, board));
-                    }
-                }
+        if (endgameTables != null) {
+            int tableMove = endgameTables.bestMove(position);
+            if (tableMove != Move.NONE) {
+                System.out.println("🏁 " + profile.getUsername() + " played " + Move.toUci(tableMove)
+                        + " from endgame tables");
+                return tableMove;
             }
         }
-        return moves;
-    }
 
-    private List<MoveRequest> getPseudoLegalMovesForPiece(String piece, int row, int col, String[][] board) {
-        List<MoveRequest> moves = new ArrayList<>();
-        char type = Character.toLowerCase(piece.charAt(0));
-        boolean isWhite = Character.isUpperCase(piece.charAt(0));
-        int dir = isWhite ? -1 : 1;
-
-        switch (type) {
-            case 'p':
-                // Forward
-                if (isValid(row + dir, col) && board[row + dir][col].isEmpty()) {
-                    moves.add(createMove(piece, row, col, row + dir, col, board));
-                    // Double move
-                    if ((isWhite && row == 6) || (!isWhite && row == 1)) {
-                        if (isValid(row + 2 * dir, col) && board[row + 2 * dir][col].isEmpty()) {
-                            moves.add(createMove(piece, row, col, row + 2 * dir, col, board));
-                        }
-                    }
-                }
-                // Captures
-                for (int dc : new int[] { -1, 1 }) {
-                    if (isValid(row + dir, col + dc)) {
-                        String target = board[row + dir][col + dc];
-                        if (!target.isEmpty() && Character.isUpperCase(target.charAt(0)) != isWhite) {
-                            moves.add(createMove(piece, row, col, row + dir, col + dc, board));
-                        }
-                    }
-                }
-                break;
-            case 'n':
-                int[][] knightMoves = { { -2, -1 }, { -2, 1 }, { 2, -1 }, { 2, 1 }, { -1, -2 }, { -1, 2 }, { 1, -2 },
-                        { 1, 2 } };
-                for (int[] m : knightMoves) {
-                    addIfValid(piece, row, col, row + m[0], col + m[1], board, moves);
-                }
-                break;
-            case 'b':
-                addSlidingMoves(piece, row, col, new int[][] { { -1, -1 }, { -1, 1 }, { 1, -1 }, { 1, 1 } }, board,
-                        moves);
-                break;
-            case 'r':
-                addSlidingMoves(piece, row, col, new int[][] { { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 } }, board,
-                        moves);
-                break;
-            case 'q':
-                addSlidingMoves(piece, row, col, new int[][] { { -1, -1 }, { -1, 1 }, { 1, -1 }, { 1, 1 }, { -1, 0 },
-                        { 1, 0 }, { 0, -1 }, { 0, 1 } }, board, moves);
-                break;
-            case 'k':
-                int[][] kingMoves = { { -1, -1 }, { -1, 0 }, { -1, 1 }, { 0, -1 }, { 0, 1 }, { 1, -1 }, { 1, 0 },
-                        { 1, 1 } };
-                for (int[] m : kingMoves) {
-                    addIfValid(piece, row, col, row + m[0], col + m[1], board, moves);
-                }
-                break;
+        if (openingBook != null) {
+            int bookMove = openingBook.probe(position);
+            if (bookMove != Move.NONE) {
+                System.out.println("📖 " + profile.getUsername() + " played " + Move.toUci(bookMove) + " from book");
+                return bookMove;
+            }
         }
-        return moves;
-    }
 
-    private void addSlidingMoves(String piece, int row, int col, int[][] dirs, String[][] board,
-            List<MoveRequest> moves) {
-        boolean isWhite = Character.isUpperCase(piece.charAt(0));
-        for (int[] d : dirs) {
-            for (int i = 1; i < 8; i++) {
-                int nr = row + d[0] * i;
-                int nc = col + d[1] * i;
-                if (!isValid(nr, nc))
-                    break;
-                if (board[nr][nc].isEmpty()) {
-                    moves.add(createMove(piece, row, col, nr, nc, board));
-                } else {
-                    if (Character.isUpperCase(board[nr][nc].charAt(0)) != isWhite) {
-                        moves.add(createMove(piece, row, col, nr, nc, board));
-                    }
-                    break;
-                }
+        // Lazy SMP: helpers search copies of the root and only share what they find through the table
+        int helpers = botScheduler.grantHelpers(profile.getThreads() - 1);
+        List<Future<?>> helperTasks = new ArrayList<>(helpers);
+        for (int i = 0; i < helpers; i++) {
+            Position helperPosition = position.copy();
+            int helperIndex = i + 1;
+            Future<?> task = botScheduler.submitHelper(() -> searchers.get()
+                    .searchAsHelper(helperPosition, profile.getSearchLimits(), helperIndex));
+            if (task != null) {
+                helperTasks.add(task);
             }
         }
-    }
 
-    private void addIfValid(String piece, int fr, int fc, int tr, int tc, String[][] board, List<MoveRequest> moves) {
-        if (isValid(tr, tc)) {
-            if (board[tr][tc].isEmpty()
-                    || Character.isUpperCase(board[tr][tc].charAt(0)) != Character.isUpperCase(piece.charAt(0))) {
-                moves.add(createMove(piece, fr, fc, tr, tc, board));
+        SearchResult result;
+        try {
+            result = searchers.get().search(position, profile.getSearchLimits());
+        } finally {
+            for (Future<?> task : helperTasks) {
+                task.cancel(true);
             }
         }
-    }
-
-    private boolean isValid(int r, int c) {
-        return r >= 0 && r < 8 && c >= 0 && c < 8;
-    }
-
-    private MoveRequest createMove(String piece, int fr, int fc, int tr, int tc, String[][] board) {
-        MoveRequest move = new MoveRequest();
-        move.setPiece(piece);
-        move.setFromRow(fr);
-        move.setFromCol(fc);
-        move.setToRow(tr);
-        move.setToCol(tc);
-        move.setPlayerColor(Character.isUpperCase(piece.charAt(0)) ? "white" : "black");
 
-        // Clone board and apply move
-        String[][] newBoard = new String[8][8];
-        for (int i = 0; i < 8; i++) {
-            newBoard[i] = board[i].clone();
+        if (!result.hasMove()) {
+            return Move.NONE;
         }
-        String captured = newBoard[tr][tc];
-        newBoard[tr][tc] = piece;
-        newBoard[fr][fc] = "";
 
-        move.setBoard(newBoard);
-        move.setCapturedPiece(captured.isEmpty() ? null : captured);
-        return move;
+        System.out.println("🤖 " + profile.getUsername() + " searched depth " + result.getDepth() + ", "
+                + result.getNodes() + " nodes, score " + result.getScore()
+                + (helperTasks.isEmpty() ? "" : ", " + helperTasks.size() + " helpers"));
+        return result.getBestMove();
     }
 }
@@ -1,64 +1,185 @@
 package com.example.matchservice.service;
 
+import com.example.matchservice.chess.core.BoardConverter;
+import com.example.matchservice.chess.core.Fen;
+import com.example.matchservice.chess.core.PackedMoves;
+import com.example.matchservice.chess.core.PackedPosition;
+import com.example.matchservice.chess.core.Piece;
+import com.example.matchservice.chess.core.Position;
+import com.example.matchservice.chess.core.Termination;
 import com.example.matchservice.model.*;
 import com.example.matchservice.model.DTO.*;
 import com.example.matchservice.repo.MatchRepo;
-import jakarta.servlet.http.Cookie;
-import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
 import java.security.Principal;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Game state lives in memory and is changed only from the match's mailbox
+ * (see {@link MatchMailboxes}), so it needs no locks. Moves are acknowledged
+ * and broadcast from that state and saved behind it by {@link MoveWriter};
+ * other database work runs in a transaction per step rather than one around
+ * the whole service.
+ */
 @Service
-@Transactional
 public class GameService {
 
     private final MatchRepo matchRepo;
-    private final JwtService jwtService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final MatchEventPublisher events;
     private final BotService botService;
-
-    public GameService(MatchRepo matchRepo, JwtService jwtService,
-            SimpMessagingTemplate messagingTemplate, BotService botService) {
+    private final BotScheduler botScheduler;
+    private final TransactionTemplate transactionTemplate;
+    private final MatchMailboxes mailboxes;
+    private final MoveWriter moveWriter;
+    private final int checkpointInterval;
+
+    // Live games only: finished games are dropped right away, idle ones after the timeout, and
+    // anything evicted is rebuilt from the database by initializeGameState when touched again
+    private final Cache<Long, GameState> activeGames;
+    private final Counter idleEvictions;
+    private final Counter sizeEvictions;
+
+    public GameService(MatchRepo matchRepo,
+            MatchEventPublisher events, BotService botService, BotScheduler botScheduler,
+            TransactionTemplate transactionTemplate, MatchMailboxes mailboxes, MoveWriter moveWriter,
+            MeterRegistry meterRegistry,
+            @Value("${game.cache.max-entries:10000}") long maxEntries,
+            @Value("${game.cache.idle-timeout-minutes:30}") long idleTimeoutMinutes,
+            @Value("${game.storage.checkpoint-interval:16}") int checkpointInterval) {
         this.matchRepo = matchRepo;
-        this.jwtService = jwtService;
-        this.messagingTemplate = messagingTemplate;
+        this.events = events;
         this.botService = botService;
+        this.botScheduler = botScheduler;
+        this.transactionTemplate = transactionTemplate;
+        this.mailboxes = mailboxes;
+        this.moveWriter = moveWriter;
+        this.checkpointInterval = Math.max(1, checkpointInterval);
+
+        this.idleEvictions = Counter.builder("game.states.evicted").tag("cause", "idle").register(meterRegistry);
+        this.sizeEvictions = Counter.builder("game.states.evicted").tag("cause", "size").register(meterRegistry);
+        this.activeGames = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(Duration.ofMinutes(idleTimeoutMinutes))
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener(this::onGameStateRemoved)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, activeGames, "game.states");
+    }
+
+    private void onGameStateRemoved(Long matchId, GameState gameState, RemovalCause cause) {
+        if (cause == RemovalCause.EXPIRED) {
+            idleEvictions.increment();
+            System.out.println("🧹 Evicted idle game " + matchId);
+        } else if (cause == RemovalCause.SIZE) {
+            sizeEvictions.increment();
+            System.out.println("🧹 Evicted game " + matchId + " to stay under the cache limit");
+        }
     }
 
-    private final Map<Long, GameState> activeGames = new ConcurrentHashMap<>();
-    private final Map<Long, List<String>> gamePlayers = new ConcurrentHashMap<>();
+    /**
+     * Replays the move journal left by the last run. Moves the database does
+     * not have yet are rebuilt on top of the stored game and written; games
+     * still in progress go back into the cache, so the first move after a
+     * restart does not have to load them.
+     */
+    @PostConstruct
+    public void recoverFromJournal() throws IOException {
+        List<MoveJournal.Entry> tail = moveWriter.journalTail();
+        if (tail.isEmpty()) {
+            moveWriter.writeRecovered(List.of());
+            return;
+        }
+
+        Map<Long, List<MoveJournal.Entry>> byMatch = new LinkedHashMap<>();
+        for (MoveJournal.Entry entry : tail) {
+            byMatch.computeIfAbsent(entry.matchId, id -> new ArrayList<>()).add(entry);
+        }
+
+        List<MoveWriter.PendingMove> missing = new ArrayList<>();
+        int restored = 0;
+        for (Map.Entry<Long, List<MoveJournal.Entry>> match : byMatch.entrySet()) {
+            Long matchId = match.getKey();
+            GameState gameState = transactionTemplate.execute(
+                    status -> matchRepo.findById(matchId).map(this::initializeGameState).orElse(null));
+            if (gameState == null) {
+                System.err.println("⚠️ Journal has moves for unknown game " + matchId);
+                continue;
+            }
+
+            for (MoveJournal.Entry entry : match.getValue()) {
+                if (entry.ply <= gameState.getPly()) {
+                    continue;
+                }
+                int move = entry.ply == gameState.getPly() + 1 && gameState.isInProgress()
+                        ? MoveTranslator.fromCode(gameState.getPosition(), entry.moveCode)
+                        : com.example.matchservice.chess.core.Move.NONE;
+                if (move == com.example.matchservice.chess.core.Move.NONE) {
+                    System.err.println("⚠️ Journalled ply " + entry.ply + " of game " + matchId
+                            + " does not follow the stored game; dropping the rest");
+                    break;
+                }
+                MoveRequest moveRequest = advance(gameState, move);
+                LocalDateTime createdAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.timestamp),
+                        ZoneId.systemDefault());
+                missing.add(pendingMove(matchId, gameState, move, moveRequest, createdAt));
+            }
+
+            if (gameState.isInProgress()) {
+                activeGames.put(matchId, gameState);
+                restored++;
+            }
+        }
+
+        moveWriter.writeRecovered(missing);
+        System.out.println("♻️ Replayed move journal: " + tail.size() + " moves, " + missing.size()
+                + " missing from the database, " + restored + " games back in memory");
+    }
 
+    // The server's position is authoritative; moves are validated against it and
+    // applied in the match's mailbox, the only place a GameState is touched
     private static class GameState {
-        private String[][] board;
-        private boolean isWhiteTurn;
+        private final Position position;
         private String status;
+        private Termination termination;
         private String player1Username;
         private String player2Username;
+        private int ply;
+        private long lastMoveAt;
+        private int checkpointInterval;
 
-        public GameState() {
+        public GameState(Position position) {
+            this.position = position;
         }
 
-        public String[][] getBoard() {
-            return board;
+        public Position getPosition() {
+            return position;
         }
 
-        public void setBoard(String[][] board) {
-            this.board = board;
+        public String[][] getBoard() {
+            return BoardConverter.toBoard(position);
         }
 
         public boolean isWhiteTurn() {
-            return isWhiteTurn;
-        }
-
-        public void setWhiteTurn(boolean whiteTurn) {
-            isWhiteTurn = whiteTurn;
+            return position.sideToMove() == Piece.WHITE;
         }
 
         public String getStatus() {
@@ -69,6 +190,18 @@ public class GameService {
             this.status = status;
         }
 
+        public Termination getTermination() {
+            return termination;
+        }
+
+        public void setTermination(Termination termination) {
+            this.termination = termination;
+        }
+
+        public boolean isInProgress() {
+            return "IN_PROGRESS".equals(status);
+        }
+
         public String getPlayer1Username() {
             return player1Username;
         }
@@ -84,153 +217,171 @@ public class GameService {
         public void setPlayer2Username(String player2Username) {
             this.player2Username = player2Username;
         }
-    }
 
-    public GameDTO getGameDetails(Long matchId, HttpServletRequest request) {
-        String username = getUsernameFromRequest(request);
-        if (username == null) {
-            throw new RuntimeException("User not authenticated");
-        }
-
-        Optional<Match> matchOpt = matchRepo.findById(matchId);
-        if (matchOpt.isEmpty()) {
-            throw new RuntimeException("Game not found");
-        }
-
-        Match match = matchOpt.get();
-        String playerColor = determinePlayerColor(match, username);
-        boolean isMyTurn = determineMyTurn(match, username);
-
-        GameState gameState = activeGames.get(matchId);
-        if (gameState == null) {
-            gameState = initializeGameState(match);
-            activeGames.put(matchId, gameState);
-
-            List<String> players = new ArrayList<>();
-            players.add(match.getPlayer1().getUsername());
-            players.add(match.getPlayer2().getUsername());
-            gamePlayers.put(matchId, players);
-        }
-
-        GameDTO gameDTO = new GameDTO();
-        gameDTO.setId(match.getId());
-        gameDTO.setPlayer1(match.getPlayer1());
-        gameDTO.setPlayer2(match.getPlayer2());
-        gameDTO.setStatus(gameState.getStatus());
-        gameDTO.setPlayerColor(playerColor);
-        gameDTO.setMyTurn(isMyTurn);
-        gameDTO.setWhiteTurn(gameState.isWhiteTurn());
-        gameDTO.setBoard(gameState.getBoard());
-        gameDTO.setFen(convertBoardToFEN(gameState.getBoard(), gameState.isWhiteTurn()));
-        gameDTO.setMoves(match.getMoves().stream()
-                .map(this::convertToMoveDTO)
-                .collect(Collectors.toList()));
-        gameDTO.setCreatedAt(match.getCreatedAt());
-        gameDTO.setUpdatedAt(match.getUpdatedAt());
-
-        return gameDTO;
-    }
+        public int getPly() {
+            return ply;
+        }
 
-    private String determinePlayerColor(Match match, String username) {
-        if (match.getPlayer1().getUsername().equals(username)) {
-            return "white";
-        } else if (match.getPlayer2().getUsername().equals(username)) {
-            return "black";
+        public void setPly(int ply) {
+            this.ply = ply;
         }
-        throw new RuntimeException("User not part of this game");
-    }
 
-    private boolean determineMyTurn(Match match, String username) {
-        GameState gameState = activeGames.get(match.getId());
-        if (gameState == null) {
-            return match.getPlayer1().getUsername().equals(username);
+        public long getLastMoveAt() {
+            return lastMoveAt;
         }
 
-        boolean isWhiteTurn = gameState.isWhiteTurn();
-        if (isWhiteTurn) {
-            return match.getPlayer1().getUsername().equals(username);
-        } else {
-            return match.getPlayer2().getUsername().equals(username);
+        public void setLastMoveAt(long lastMoveAt) {
+            this.lastMoveAt = lastMoveAt;
+        }
+
+        public int getCheckpointInterval() {
+            return checkpointInterval;
+        }
+
+        public void setCheckpointInterval(int checkpointInterval) {
+            this.checkpointInterval = checkpointInterval;
         }
     }
 
-    private GameState initializeGameState(Match match) {
-        String fen = match.getFenCurrent();
-        String[][] board;
-        boolean isWhiteTurn = true;
+    /**
+     * Runs {@code task} in the match's mailbox once every move queued for the
+     * match is in the database, or, with {@code onlyIfEvicted}, straight away
+     * while the game is still in memory. Waiting for the writer happens outside
+     * the mailbox, so a slow database does not hold up the other matches
+     * sharing its worker; the task is then queued again.
+     */
+    private <T> CompletableFuture<T> submitPersisted(Long matchId, boolean onlyIfEvicted, Supplier<T> task) {
+        CompletableFuture<Optional<T>> attempt = mailboxes.submit(matchId, () -> {
+            boolean ready = onlyIfEvicted && activeGames.getIfPresent(matchId) != null
+                    || moveWriter.isPersisted(matchId);
+            return ready ? Optional.ofNullable(task.get()) : null;
+        });
+        return attempt.thenCompose(result -> result != null
+                ? CompletableFuture.completedFuture(result.orElse(null))
+                : moveWriter.persisted(matchId).thenCompose(ignored -> submitPersisted(matchId, onlyIfEvicted, task)));
+    }
 
-        if (fen != null && !fen.isEmpty()) {
-            try {
-                board = convertFENToBoard(fen);
-                isWhiteTurn = isWhiteTurnFromFEN(fen);
-            } catch (Exception e) {
-                System.err.println("⚠️ Failed to parse FEN: " + fen + ". Using initial board.");
-                board = getInitialBoard();
-            }
-        } else {
-            board = getInitialBoard();
+    // Runs in the match's mailbox, from a task queued with submitPersisted
+    private GameState getOrLoadGameState(Long matchId) {
+        GameState gameState = activeGames.getIfPresent(matchId);
+        if (gameState != null) {
+            return gameState;
+        }
+        System.out.println("🔄 GameState null for " + matchId + ". Initializing from DB...");
+        return transactionTemplate.execute(status -> {
+            Match match = matchRepo.findById(matchId)
+                    .orElseThrow(() -> new RuntimeException("Game with ID " + matchId + " not found in database"));
+            return loadGameState(match);
+        });
+    }
+
+    // Finished games are served from the database and not kept in memory
+    private GameState loadGameState(Match match) {
+        GameState gameState = initializeGameState(match);
+        if (!gameState.isInProgress()) {
+            return gameState;
         }
+        // Another thread may have loaded the same game meanwhile; keep the first copy
+        GameState existing = activeGames.asMap().putIfAbsent(match.getId(), gameState);
+        return existing != null ? existing : gameState;
+    }
 
-        GameState gameState = new GameState();
-        gameState.setBoard(board);
-        gameState.setWhiteTurn(isWhiteTurn);
-        gameState.setStatus("IN_PROGRESS");
+    private GameState initializeGameState(Match match) {
+        GameState gameState = new GameState(restorePosition(match));
+        gameState.setStatus(match.getStatus() != null ? match.getStatus().name() : "IN_PROGRESS");
         gameState.setPlayer1Username(match.getPlayer1().getUsername());
         gameState.setPlayer2Username(match.getPlayer2().getUsername());
+        gameState.setPly(match.getCurrentPly() != null ? match.getCurrentPly() : 0);
+        // The writer stamps updated_at with each move, so it stands in for the last move's time
+        LocalDateTime lastMoveAt = gameState.getPly() > 0 ? match.getUpdatedAt() : match.getStartedAt();
+        gameState.setLastMoveAt(lastMoveAt != null
+                ? lastMoveAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis());
+        gameState.setCheckpointInterval(match.getCheckpointInterval() != null
+                ? match.getCheckpointInterval() : checkpointInterval);
+        backfillCheckpoints(match, gameState.getCheckpointInterval());
 
         return gameState;
     }
 
-    private String[][] getInitialBoard() {
-        return new String[][] {
-                { "r", "n", "b", "q", "k", "b", "n", "r" },
-                { "p", "p", "p", "p", "p", "p", "p", "p" },
-                { "", "", "", "", "", "", "", "" },
-                { "", "", "", "", "", "", "", "" },
-                { "", "", "", "", "", "", "", "" },
-                { "", "", "", "", "", "", "", "" },
-                { "P", "P", "P", "P", "P", "P", "P", "P" },
-                { "R", "N", "B", "Q", "K", "B", "N", "R" }
-        };
-    }
+    // Replaying the stored moves restores castling, en passant and the position
+    // history; the stored FEN is only a fallback
+    private Position restorePosition(Match match) {
+        Position packed = MoveHistory.replay(match);
+        if (packed != null) {
+            return packed;
+        }
+
+        List<Move> moves = match.getMoves();
+        if (moves != null && !moves.isEmpty()) {
+            Position position = Position.initial();
+            int[] codes = new int[moves.size()];
+            boolean replayed = true;
+            for (int i = 0; i < moves.size(); i++) {
+                Move move = moves.get(i);
+                int engineMove = MoveTranslator.fromUci(position, move.getUci());
+                if (engineMove == com.example.matchservice.chess.core.Move.NONE) {
+                    System.err.println("⚠️ Stored move " + move.getUci() + " is not legal in game " + match.getId()
+                            + ". Falling back to FEN.");
+                    replayed = false;
+                    break;
+                }
+                codes[i] = com.example.matchservice.chess.core.Move.code(engineMove);
+                position.makeMove(engineMove);
+            }
+            if (replayed) {
+                backfillPackedMoves(match, codes);
+                return position;
+            }
+        }
 
-    private String[][] convertFENToBoard(String fen) {
-        String[][] board = new String[8][8];
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                board[i][j] = "";
+        String fen = match.getFenCurrent();
+        if (fen != null && !fen.isEmpty()) {
+            try {
+                return Fen.parse(fen);
+            } catch (Exception e) {
+                System.err.println("⚠️ Failed to parse FEN: " + fen + ". Using initial board.");
             }
         }
+        return Position.initial();
+    }
 
-        String[] parts = fen.split(" ");
-        String ranks = parts[0];
-        String[] rankLines = ranks.split("/");
-
-        for (int row = 0; row < 8; row++) {
-            String rankLine = rankLines[row];
-            int col = 0;
-            for (int i = 0; i < rankLine.length(); i++) {
-                char c = rankLine.charAt(i);
-                if (Character.isDigit(c)) {
-                    col += Character.getNumericValue(c);
-                } else {
-                    board[row][col] = String.valueOf(c);
-                    col++;
-                }
+    // Games saved before move codes existed get them on first load; saved with the surrounding transaction
+    private void backfillPackedMoves(Match match, int[] codes) {
+        if (match.getCurrentPly() == null || match.getCurrentPly() != codes.length) {
+            return;
+        }
+        List<Move> moves = match.getMoves();
+        int[] times = new int[codes.length];
+        LocalDateTime previous = match.getStartedAt();
+        for (int i = 0; i < moves.size(); i++) {
+            LocalDateTime playedAt = moves.get(i).getCreatedAt();
+            if (previous != null && playedAt != null) {
+                times[i] = PackedMoves.toTenths(Duration.between(previous, playedAt).toMillis());
             }
+            previous = playedAt;
         }
-        return board;
+        match.setMoveCodes(PackedMoves.encode(codes));
+        match.setMoveTimes(PackedMoves.encode(times));
     }
 
-    private boolean isWhiteTurnFromFEN(String fen) {
-        String[] parts = fen.split(" ");
-        if (parts.length > 1) {
-            return "w".equalsIgnoreCase(parts[1]);
+    // Games saved before checkpoints existed get them on first load, like backfillPackedMoves
+    private void backfillCheckpoints(Match match, int interval) {
+        if (!MoveHistory.hasPackedMoves(match) || MoveHistory.hasCheckpoints(match)) {
+            return;
+        }
+        byte[] checkpoints = MoveHistory.buildCheckpoints(match, interval);
+        if (checkpoints != null) {
+            match.setCheckpointInterval(interval);
+            match.setMoveCheckpoints(checkpoints);
         }
-        return true;
     }
 
-    public MoveDTO processMove(Long matchId, MoveRequest moveRequest, Principal principal) {
+    /**
+     * Queues a move in the match's mailbox. The future holds the applied move,
+     * or a DTO whose notation starts with "ERROR" if it was refused.
+     */
+    public CompletableFuture<MoveDTO> processMove(Long matchId, MoveRequest moveRequest, Principal principal) {
         String username = principal.getName();
 
         if (moveRequest.getFromRow() == null || moveRequest.getFromCol() == null ||
@@ -238,24 +389,21 @@ public class GameService {
             throw new RuntimeException("Move coordinates cannot be null");
         }
 
-        if (moveRequest.getPiece() == null || moveRequest.getPiece().isEmpty()) {
-            throw new RuntimeException("Piece cannot be null or empty");
+        if (!onBoard(moveRequest.getFromRow()) || !onBoard(moveRequest.getFromCol()) ||
+                !onBoard(moveRequest.getToRow()) || !onBoard(moveRequest.getToCol())) {
+            throw new RuntimeException("Move coordinates must be between 0 and 7");
         }
 
-        if (moveRequest.getPlayerColor() == null) {
-            throw new RuntimeException("Player color cannot be null");
-        }
+        return submitPersisted(matchId, true, () -> playMove(matchId, moveRequest, username));
+    }
 
-        GameState gameState = activeGames.get(matchId);
-        if (gameState == null) {
-            System.out.println("🔄 GameState null for " + matchId + ". Initializing from DB...");
-            Optional<Match> matchOpt = matchRepo.findById(matchId);
-            if (matchOpt.isPresent()) {
-                gameState = initializeGameState(matchOpt.get());
-                activeGames.put(matchId, gameState);
-            } else {
-                throw new RuntimeException("Game with ID " + matchId + " not found in database");
-            }
+    private MoveDTO playMove(Long matchId, MoveRequest moveRequest, String username) {
+        GameState gameState = getOrLoadGameState(matchId);
+
+        if (!gameState.isInProgress()) {
+            MoveDTO errorDto = new MoveDTO();
+            errorDto.setMoveNotation("ERROR: Game is over (" + gameState.getStatus() + ")");
+            return errorDto;
         }
 
         boolean isWhiteTurn = gameState.isWhiteTurn();
@@ -268,230 +416,156 @@ public class GameService {
             return errorDto;
         }
 
+        // The colour is implied by the turn; a mismatching one means the client is out of sync
         String playerColor = moveRequest.getPlayerColor();
-        if (isWhiteTurn && !"white".equals(playerColor)) {
+        String expectedColor = isWhiteTurn ? "white" : "black";
+        if (playerColor != null && !expectedColor.equals(playerColor)) {
             MoveDTO errorDto = new MoveDTO();
-            errorDto.setMoveNotation("ERROR: Invalid move: White's turn but player is " + playerColor);
+            errorDto.setMoveNotation("ERROR: Invalid move: " + (isWhiteTurn ? "White" : "Black")
+                    + "'s turn but player is " + playerColor);
             return errorDto;
         }
-        if (!isWhiteTurn && !"black".equals(playerColor)) {
+
+        // Only from/to/promotion are taken from the client; everything else is derived
+        int move = MoveTranslator.findLegal(gameState.getPosition(), moveRequest);
+        if (move == com.example.matchservice.chess.core.Move.NONE) {
+            System.err.println("❌ Illegal move rejected in game " + matchId + " from " + username);
             MoveDTO errorDto = new MoveDTO();
-            errorDto.setMoveNotation("ERROR: Invalid move: Black's turn but player is " + playerColor);
+            errorDto.setMoveNotation("ERROR: Illegal move");
             return errorDto;
         }
 
-        String[][] newBoard = moveRequest.getBoard();
-        if (newBoard == null) {
-            throw new RuntimeException("Board cannot be null");
-        }
-
-        gameState.setBoard(newBoard);
-        gameState.setWhiteTurn(!isWhiteTurn);
-        gameState.setStatus("IN_PROGRESS");
+        MoveDTO moveDTO = applyMove(matchId, gameState, move, username);
 
-        activeGames.put(matchId, gameState);
-
-        try {
-            updateMatchInDatabase(matchId, moveRequest);
-        } catch (Exception e) {
-            System.err.println("⚠️ Failed to update database: " + e.getMessage());
-        }
-
-        String moveNotation = createMoveNotation(moveRequest);
-
-        MoveDTO moveDTO = new MoveDTO();
-        moveDTO.setFromRow(moveRequest.getFromRow());
-        moveDTO.setFromCol(moveRequest.getFromCol());
-        moveDTO.setToRow(moveRequest.getToRow());
-        moveDTO.setToCol(moveRequest.getToCol());
-        moveDTO.setPiece(moveRequest.getPiece());
-        moveDTO.setPromotedTo(moveRequest.getPromotedTo());
-        moveDTO.setCapturedPiece(moveRequest.getCapturedPiece());
-        moveDTO.setCastled(moveRequest.getCastled() != null ? moveRequest.getCastled() : false);
-        moveDTO.setIsEnPassant(moveRequest.getIsEnPassant() != null ? moveRequest.getIsEnPassant() : false);
-        moveDTO.setIsPromotion(moveRequest.getIsPromotion() != null ? moveRequest.getIsPromotion() : false);
-        moveDTO.setFenBefore(moveRequest.getFenBefore());
-        moveDTO.setFenAfter(moveRequest.getFenAfter());
-        moveDTO.setBoard(newBoard);
-        moveDTO.setIsWhiteTurn(!isWhiteTurn);
-        moveDTO.setPlayerColor(playerColor);
-        moveDTO.setMatchId(matchId);
-        moveDTO.setTimestamp(LocalDateTime.now().toString());
-        moveDTO.setMoveNotation(moveNotation);
-        moveDTO.setPlayerUsername(username);
-
-        messagingTemplate.convertAndSend("/topic/moves/" + matchId, moveDTO);
-
-        // Check if it's a bot game and let bot move
-        Optional<Match> matchOpt = matchRepo.findById(matchId);
-        if (matchOpt.isPresent() && matchOpt.get().getGameType() == GameType.BOT) {
-            String botName = matchOpt.get().getPlayer2().getUsername();
-            if (botName.equals("Curler") && !moveDTO.getIsWhiteTurn()) {
-                // Bot's turn (Black)
-                processBotMove(matchId, newBoard, false, botName);
-            }
+        // Bot games have the bot as black
+        if (gameState.isInProgress() && !gameState.isWhiteTurn() && BotProfile.isBot(gameState.getPlayer2Username())) {
+            processBotMove(matchId, gameState, gameState.getPlayer2Username());
         }
 
         return moveDTO;
     }
 
-    private void processBotMove(Long matchId, String[][] currentBoard, boolean isWhiteTurn, String botName) {
-        // Run bot logic in a separate thread to not block the socket
-        new Thread(() -> {
-            try {
-                Thread.sleep(1000); // Wait 1 second for realism
-                MoveRequest botMoveRequest = botService.generateMove(currentBoard, isWhiteTurn);
-                if (botMoveRequest != null) {
-                    botMoveRequest.setPlayerColor(isWhiteTurn ? "white" : "black");
+    private static boolean onBoard(int coordinate) {
+        return coordinate >= 0 && coordinate < 8;
+    }
 
-                    MoveDTO botMoveResult = processMoveInternal(matchId, botMoveRequest, botName);
-                    messagingTemplate.convertAndSend("/topic/moves/" + matchId, botMoveResult);
-                }
-            } catch (Exception e) {
-                System.err.println("Error in bot move: " + e.getMessage());
-            }
-        }).start();
+    // Runs in the match's mailbox; the search itself runs on the bot scheduler and its result is queued back here
+    private void processBotMove(Long matchId, GameState gameState, String botName) {
+        Position snapshot = gameState.getPosition().copy();
+        long expectedHash = snapshot.hash();
+        String player = getOpponentUsername(gameState, botName);
+
+        botScheduler.schedule(matchId,
+                () -> botService.generateMove(snapshot, BotProfile.forUsername(botName)),
+                move -> submitPersisted(matchId, true, () -> {
+                    playBotMove(matchId, move, expectedHash, botName);
+                    return null;
+                }),
+                () -> {
+                    Map<String, Object> errorPayload = new HashMap<>();
+                    errorPayload.put("type", "MOVE_ERROR");
+                    errorPayload.put("error", botName + " is busy right now. Rejoin the game to let it move.");
+                    errorPayload.put("matchId", matchId);
+                    errorPayload.put("timestamp", System.currentTimeMillis());
+                    sendErrorToPlayer(matchId, player, errorPayload);
+                });
     }
 
-    private MoveDTO processMoveInternal(Long matchId, MoveRequest moveRequest, String username) {
-        // This is a copy of processMove but using username instead of Principal
-        GameState gameState = activeGames.get(matchId);
-        if (gameState == null) {
-            Optional<Match> matchOpt = matchRepo.findById(matchId);
-            if (matchOpt.isPresent()) {
-                gameState = initializeGameState(matchOpt.get());
-                activeGames.put(matchId, gameState);
-            } else {
-                throw new RuntimeException("Game not found");
-            }
+    private void playBotMove(Long matchId, int move, long expectedHash, String botName) {
+        if (move == com.example.matchservice.chess.core.Move.NONE) {
+            return;
         }
+        GameState gameState = getOrLoadGameState(matchId);
+        // The game may have moved on (resignation, reload) while the bot was thinking
+        if (gameState.getPosition().hash() != expectedHash || !gameState.isInProgress()) {
+            return;
+        }
+        applyMove(matchId, gameState, move, botName);
+    }
 
-        boolean currentIsWhiteTurn = gameState.isWhiteTurn();
-
-        String[][] newBoard = moveRequest.getBoard();
-        gameState.setBoard(newBoard);
-        gameState.setWhiteTurn(!currentIsWhiteTurn);
-        gameState.setStatus("IN_PROGRESS");
-        activeGames.put(matchId, gameState);
-
-        updateMatchInDatabase(matchId, moveRequest);
-        String moveNotation = createMoveNotation(moveRequest);
-
-        MoveDTO moveDTO = new MoveDTO();
-        moveDTO.setFromRow(moveRequest.getFromRow());
-        moveDTO.setFromCol(moveRequest.getFromCol());
-        moveDTO.setToRow(moveRequest.getToRow());
-        moveDTO.setToCol(moveRequest.getToCol());
-        moveDTO.setPiece(moveRequest.getPiece());
-        moveDTO.setCapturedPiece(moveRequest.getCapturedPiece());
-        moveDTO.setBoard(newBoard);
-        moveDTO.setIsWhiteTurn(!currentIsWhiteTurn);
-        moveDTO.setPlayerColor(moveRequest.getPlayerColor());
-        moveDTO.setMatchId(matchId);
+    /** Applies a legal move, queues it for saving and broadcasts it. Runs in the match's mailbox. */
+    private MoveDTO applyMove(Long matchId, GameState gameState, int move, String username) {
+        String status = gameState.getStatus();
+        long lastMoveAt = gameState.getLastMoveAt();
+        MoveRequest moveRequest = advance(gameState, move);
+        // Broadcast only once its journal record is on disk
+        MoveWriter.PendingMove pending = pendingMove(matchId, gameState, move, moveRequest, LocalDateTime.now());
+        CompletableFuture<Void> journalled;
+        try {
+            journalled = moveWriter.write(pending);
+        } catch (RuntimeException e) {
+            // Not journalled, so the move never happened: the cached game must not run ahead of what is saved
+            gameState.getPosition().unmakeMove(move);
+            gameState.setPly(gameState.getPly() - 1);
+            gameState.setStatus(status);
+            gameState.setTermination(null);
+            gameState.setLastMoveAt(lastMoveAt);
+            throw e;
+        }
+        publishMove(matchId, gameState, journalled, new MoveEvent(matchId, gameState.getPly(),
+                com.example.matchservice.chess.core.Move.code(move), pending.san(),
+                MoveHistory.positionHash(moveRequest.getFenAfter()), pending.thinkTime()));
+
+        MoveDTO moveDTO = MoveHistory.describe(matchId, moveRequest);
+        moveDTO.setIsWhiteTurn(gameState.isWhiteTurn());
         moveDTO.setTimestamp(LocalDateTime.now().toString());
-        moveDTO.setMoveNotation(moveNotation);
         moveDTO.setPlayerUsername(username);
-
         return moveDTO;
     }
 
-    private MoveDTO convertToMoveDTO(Move move) {
-        MoveDTO dto = new MoveDTO();
-        dto.setFromRow(move.getFromRow());
-        dto.setFromCol(move.getFromCol());
-        dto.setToRow(move.getToRow());
-        dto.setToCol(move.getToCol());
-        dto.setPiece(move.getPiece());
-        dto.setPromotedTo(move.getPromotedTo());
-        dto.setCapturedPiece(move.getCapturedPiece());
-        dto.setCastled(move.getCastled());
-        dto.setIsEnPassant(move.getIsEnPassant());
-        dto.setIsPromotion(move.getIsPromotion());
-        dto.setFenBefore(move.getFenBefore());
-        dto.setFenAfter(move.getFenAfter());
-        dto.setIsWhiteTurn(move.getColor() == PieceColor.WHITE);
-        dto.setPlayerColor(move.getColor().name().toLowerCase());
-        dto.setMatchId(move.getMatch().getId());
-        dto.setTimestamp(move.getCreatedAt() != null ? move.getCreatedAt().toString() : "");
-        dto.setMoveNotation(move.getSan());
-        return dto;
+    // Makes a legal move on the game's position and works out whether it ended the game
+    private MoveRequest advance(GameState gameState, int move) {
+        Position position = gameState.getPosition();
+        MoveRequest moveRequest = MoveTranslator.toMoveRequest(position, move);
+        moveRequest.setFenBefore(Fen.format(position));
+        position.makeMove(move);
+        moveRequest.setFenAfter(Fen.format(position));
+        gameState.setPly(gameState.getPly() + 1);
+
+        Termination termination = Termination.detect(position);
+        if (termination != null) {
+            gameState.setStatus(termination.isDraw() ? MatchStatus.DRAW.name() : MatchStatus.FINISHED.name());
+            gameState.setTermination(termination);
+        }
+        return moveRequest;
     }
 
-    private String createMoveNotation(MoveRequest move) {
-        int toRow = move.getToRow();
-        int toCol = move.getToCol();
-        String piece = move.getPiece();
-
-        String toSquare = colToFile(toCol) + (8 - toRow);
+    private MoveWriter.PendingMove pendingMove(Long matchId, GameState gameState, int move,
+            MoveRequest moveRequest, LocalDateTime createdAt) {
+        MatchStatus finalStatus = gameState.getTermination() != null ? MatchStatus.valueOf(gameState.getStatus()) : null;
+        long playedAt = createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        int thinkTime = PackedMoves.toTenths(playedAt - gameState.getLastMoveAt());
+        gameState.setLastMoveAt(playedAt);
+        int interval = gameState.getCheckpointInterval();
+        byte[] checkpoint = gameState.getPly() % interval == 0 ? PackedPosition.encode(gameState.getPosition()) : null;
+        return MoveWriter.PendingMove.of(matchId, gameState.getPly(), move, moveRequest, createUCI(moveRequest),
+                MoveTranslator.notation(moveRequest), finalStatus, createdAt, thinkTime)
+                .withCheckpoint(interval, checkpoint);
+    }
 
-        if (Boolean.TRUE.equals(move.getCastled())) {
-            return toCol == 6 ? "O-O" : "O-O-O";
+    private void publishMove(Long matchId, GameState gameState, CompletableFuture<Void> journalled, MoveEvent event) {
+        events.publishAfter(matchId, journalled, MatchEvent.Type.MOVE, event);
+        Termination termination = gameState.getTermination();
+        if (termination == null) {
+            return;
         }
 
-        String pieceSymbol = piece.toUpperCase();
-        if ("p".equalsIgnoreCase(piece)) {
-            pieceSymbol = "";
+        GameStatusDTO statusDTO = new GameStatusDTO();
+        statusDTO.setMatchId(matchId);
+        statusDTO.setStatus(gameState.getStatus());
+        statusDTO.setReason(termination.name());
+        if (termination.isDraw()) {
+            statusDTO.setResult("1/2-1/2");
+        } else {
+            // The side to move has been mated
+            statusDTO.setResult(gameState.isWhiteTurn() ? "0-1" : "1-0");
         }
+        statusDTO.setFen(Fen.format(gameState.getPosition()));
+        statusDTO.setWhiteTurn(gameState.isWhiteTurn());
+        events.publish(matchId, MatchEvent.Type.STATE, statusDTO);
 
-        String capture = move.getCapturedPiece() != null && !move.getCapturedPiece().isEmpty() ? "x" : "";
-        return pieceSymbol + capture + toSquare;
-    }
-
-    private String colToFile(int col) {
-        return String.valueOf((char) ('a' + col));
-    }
-
-    private void updateMatchInDatabase(Long matchId, MoveRequest moveRequest) {
-        try {
-            Optional<Match> matchOpt = matchRepo.findById(matchId);
-            if (matchOpt.isPresent()) {
-                Match match = matchOpt.get();
-
-                if (moveRequest.getFenAfter() != null) {
-                    match.setFenCurrent(moveRequest.getFenAfter());
-                }
-
-                String uci = createUCI(moveRequest);
-                if (!uci.isEmpty()) {
-                    match.setLastMoveUci(uci);
-                }
-
-                Integer currentPly = match.getCurrentPly();
-                if (currentPly == null) {
-                    currentPly = 0;
-                }
-
-                // Create Move entity
-                Move moveEntity = new Move();
-                moveEntity.setMatch(match);
-                moveEntity.setPly(currentPly + 1);
-                moveEntity.setMoveNumber((currentPly / 2) + 1);
-                moveEntity.setColor(
-                        "white".equalsIgnoreCase(moveRequest.getPlayerColor()) ? PieceColor.WHITE : PieceColor.BLACK);
-                moveEntity.setUci(uci);
-                moveEntity.setSan(createMoveNotation(moveRequest));
-                moveEntity.setPiece(moveRequest.getPiece());
-                moveEntity.setPromotedTo(moveRequest.getPromotedTo());
-                moveEntity.setCapturedPiece(moveRequest.getCapturedPiece());
-                moveEntity.setCastled(moveRequest.getCastled());
-                moveEntity.setIsEnPassant(moveRequest.getIsEnPassant());
-                moveEntity.setIsPromotion(moveRequest.getIsPromotion());
-                moveEntity.setFromRow(moveRequest.getFromRow());
-                moveEntity.setFromCol(moveRequest.getFromCol());
-                moveEntity.setToRow(moveRequest.getToRow());
-                moveEntity.setToCol(moveRequest.getToCol());
-                moveEntity.setFenBefore(moveRequest.getFenBefore());
-                moveEntity.setFenAfter(moveRequest.getFenAfter());
-                moveEntity.setCreatedAt(LocalDateTime.now());
-
-                match.getMoves().add(moveEntity);
-                match.setCurrentPly(currentPly + 1);
-
-                matchRepo.save(match);
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Error updating match in database: " + e.getMessage());
-        }
+        System.out.println("🏆 Game " + matchId + " ended: " + termination + " " + statusDTO.getResult());
+        activeGames.invalidate(matchId);
     }
 
     private String createUCI(MoveRequest move) {
@@ -527,19 +601,16 @@ public class GameService {
         }
     }
 
-    public GameStatusDTO handlePlayerJoin(Long matchId, JoinRequest joinRequest, Principal principal) {
+    public CompletableFuture<GameStatusDTO> handlePlayerJoin(Long matchId, JoinRequest joinRequest,
+            Principal principal) {
         String username = principal.getName();
+        // The join reply carries the stored move list
+        return submitPersisted(matchId, false,
+                () -> transactionTemplate.execute(status -> joinGame(matchId, joinRequest, username)));
+    }
 
-        GameState gameState = activeGames.get(matchId);
-        if (gameState == null) {
-            Optional<Match> matchOpt = matchRepo.findById(matchId);
-            if (matchOpt.isPresent()) {
-                gameState = initializeGameState(matchOpt.get());
-                activeGames.put(matchId, gameState);
-            } else {
-                throw new RuntimeException("Game not found");
-            }
-        }
+    private GameStatusDTO joinGame(Long matchId, JoinRequest joinRequest, String username) {
+        GameState gameState = getOrLoadGameState(matchId);
 
         GameStatusDTO statusDTO = new GameStatusDTO();
         statusDTO.setMatchId(matchId);
@@ -547,7 +618,7 @@ public class GameService {
         statusDTO.setWhiteTurn(gameState.isWhiteTurn());
 
         // Trigger bot move if it's bot's turn and bot match
-        if (!gameState.getStatus().contains("FINISHED")) {
+        if (gameState.isInProgress()) {
             boolean isWhiteTurn = gameState.isWhiteTurn();
             String player1 = gameState.getPlayer1Username();
             String player2 = gameState.getPlayer2Username();
@@ -555,40 +626,46 @@ public class GameService {
             boolean isBotTurn = false;
             String botName = null;
 
-            if (isWhiteTurn && player1.equalsIgnoreCase("Curler")) {
+            if (isWhiteTurn && BotProfile.isBot(player1)) {
                 isBotTurn = true;
                 botName = player1;
-            } else if (!isWhiteTurn && player2 != null && player2.equalsIgnoreCase("Curler")) {
+            } else if (!isWhiteTurn && BotProfile.isBot(player2)) {
                 isBotTurn = true;
                 botName = player2;
             }
 
             if (isBotTurn && botName != null) {
                 System.out.println("🤖 Triggering bot turn for " + botName + " on player join");
-                processBotMove(matchId, gameState.getBoard(), isWhiteTurn, botName);
+                processBotMove(matchId, gameState, botName);
             }
         }
 
         statusDTO.setPlayerColor(joinRequest.getPlayerColor());
-        statusDTO.setMyTurn(determineMyTurn(matchId, username));
-        statusDTO.setBoard(gameState.getBoard());
-        statusDTO.setFen(convertBoardToFEN(gameState.getBoard(), gameState.isWhiteTurn()));
-
-        Optional<Match> matchOpt = matchRepo.findById(matchId);
-        if (matchOpt.isPresent()) {
-            statusDTO.setMoves(matchOpt.get().getMoves().stream()
-                    .map(this::convertToMoveDTO)
-                    .collect(Collectors.toList()));
+        statusDTO.setMyTurn(isMyTurn(gameState, username));
+        if (BoardConverter.wantsLegacyBoard(joinRequest.getBoardFormat())) {
+            statusDTO.setBoard(gameState.getBoard());
+        }
+        statusDTO.setFen(Fen.format(gameState.getPosition()));
+        statusDTO.setPly(gameState.getPly());
+        statusDTO.setPositionHash(MoveHistory.positionHash(statusDTO.getFen()));
+
+        // A reconnecting client only needs the moves it missed, and none at all costs no database read
+        int fromPly = MoveHistory.resumePly(joinRequest.getFromPly(), gameState.getPly());
+        statusDTO.setFromPly(fromPly);
+        if (fromPly == gameState.getPly()) {
+            statusDTO.setMoves(new ArrayList<>());
+        } else {
+            matchRepo.findById(matchId).ifPresent(match -> statusDTO.setMoves(MoveHistory.load(match, fromPly)));
         }
 
         statusDTO.setWhiteTurn(gameState.isWhiteTurn());
         return statusDTO;
     }
 
-    private boolean determineMyTurn(Long matchId, String username) {
-        GameState gameState = activeGames.get(matchId);
-        if (gameState == null)
+    private static boolean isMyTurn(GameState gameState, String username) {
+        if (!gameState.isInProgress()) {
             return false;
+        }
 
         boolean isWhiteTurn = gameState.isWhiteTurn();
         if (isWhiteTurn) {
@@ -598,120 +675,97 @@ public class GameService {
         }
     }
 
-    private String convertBoardToFEN(String[][] board, boolean isWhiteTurn) {
-        StringBuilder fen = new StringBuilder();
-
-        for (int row = 0; row < 8; row++) {
-            int emptyCount = 0;
-            for (int col = 0; col < 8; col++) {
-                String piece = board[row][col];
-                if (piece == null || piece.isEmpty()) {
-                    emptyCount++;
-                } else {
-                    if (emptyCount > 0) {
-                        fen.append(emptyCount);
-                        emptyCount = 0;
-                    }
-                    fen.append(piece);
-                }
-            }
-            if (emptyCount > 0) {
-                fen.append(emptyCount);
-            }
-            if (row < 7) {
-                fen.append("/");
+    public CompletableFuture<Void> handleResignation(Long matchId, String username) {
+        // Stop a running bot search now rather than after it reaches the front of the mailbox.
+        // A bot search only runs for a cached game, whose players never change
+        GameState cached = activeGames.getIfPresent(matchId);
+        if (cached != null) {
+            if (getPlayerColor(cached, username) == null) {
+                return CompletableFuture.failedFuture(
+                        new RuntimeException("Only a player in this match can resign"));
             }
+            botScheduler.cancel(matchId);
         }
-
-        fen.append(" ").append(isWhiteTurn ? "w" : "b");
-        fen.append(" ").append("KQkq");
-        fen.append(" ").append("-");
-        fen.append(" ").append("0 1");
-
-        return fen.toString();
+        // Saving the match in resign must not race the writer's update of the same row
+        return submitPersisted(matchId, false, () -> {
+            resign(matchId, username);
+            return null;
+        });
     }
 
-    public void handleResignation(Long matchId, String username) {
-        GameState gameState = activeGames.get(matchId);
-        if (gameState != null) {
-            gameState.setStatus("RESIGNED");
-            activeGames.put(matchId, gameState);
+    // Fails unless the game was in progress, so the caller only announces a resignation that happened
+    private void resign(Long matchId, String username) {
+        GameState gameState = transactionTemplate.execute(status -> {
+            Match match = matchRepo.findById(matchId)
+                    .orElseThrow(() -> new RuntimeException("Game not found"));
 
-            GameStatusDTO statusDTO = new GameStatusDTO();
-            statusDTO.setMatchId(matchId);
-            statusDTO.setStatus("RESIGNED");
-            statusDTO.setPlayerColor(getPlayerColor(matchId, username));
-
-            messagingTemplate.convertAndSend("/topic/game-state/" + matchId, statusDTO);
-        }
-    }
+            GameState state = activeGames.getIfPresent(matchId);
+            if (state == null) {
+                state = loadGameState(match);
+            }
+            if (getPlayerColor(state, username) == null) {
+                throw new RuntimeException("Only a player in this match can resign");
+            }
+            if (!state.isInProgress()) {
+                throw new RuntimeException("Game is already over");
+            }
+            state.setStatus("RESIGNED");
 
-    public void handleDrawOffer(Long matchId, String username) {
-        GameState gameState = activeGames.get(matchId);
-        if (gameState != null) {
-            String opponent = getOpponentUsername(matchId, username);
+            // Persisted so the game is not revived as in progress when it is next loaded
+            match.setStatus(MatchStatus.RESIGNED);
+            match.setFinishedAt(LocalDateTime.now());
+            matchRepo.save(match);
+            return state;
+        });
+        activeGames.invalidate(matchId);
 
-            Map<String, Object> drawOffer = new HashMap<>();
-            drawOffer.put("type", "DRAW_OFFER");
-            drawOffer.put("from", username);
-            drawOffer.put("matchId", matchId);
-            drawOffer.put("timestamp", LocalDateTime.now());
+        GameStatusDTO statusDTO = new GameStatusDTO();
+        statusDTO.setMatchId(matchId);
+        statusDTO.setStatus("RESIGNED");
+        statusDTO.setPlayerColor(getPlayerColor(gameState, username));
 
-            messagingTemplate.convertAndSendToUser(opponent, "/queue/draw-offers", drawOffer);
-        }
+        events.publish(matchId, MatchEvent.Type.STATE, statusDTO);
     }
 
-    private String getPlayerColor(Long matchId, String username) {
-        List<String> players = gamePlayers.get(matchId);
-        if (players != null && players.size() >= 2) {
-            if (players.get(0).equals(username)) {
-                return "white";
-            } else if (players.get(1).equals(username)) {
-                return "black";
+    public void handleDrawOffer(Long matchId, String username) {
+        mailboxes.execute(matchId, () -> {
+            GameState gameState = activeGames.getIfPresent(matchId);
+            String opponent = gameState != null ? getOpponentUsername(gameState, username) : null;
+            if (opponent != null) {
+
+                Map<String, Object> drawOffer = new HashMap<>();
+                drawOffer.put("type", "DRAW_OFFER");
+                drawOffer.put("from", username);
+                drawOffer.put("to", opponent);
+                drawOffer.put("matchId", matchId);
+                drawOffer.put("timestamp", LocalDateTime.now());
+
+                events.publishToUser(matchId, opponent, MatchEvent.Type.DRAW_OFFER, drawOffer);
             }
-        }
-        return null;
+        });
     }
 
-    private String getOpponentUsername(Long matchId, String username) {
-        List<String> players = gamePlayers.get(matchId);
-        if (players != null && players.size() >= 2) {
-            if (players.get(0).equals(username)) {
-                return players.get(1);
-            } else if (players.get(1).equals(username)) {
-                return players.get(0);
-            }
+    private String getPlayerColor(GameState gameState, String username) {
+        if (username.equals(gameState.getPlayer1Username())) {
+            return "white";
+        } else if (username.equals(gameState.getPlayer2Username())) {
+            return "black";
         }
         return null;
     }
 
-    private String getUsernameFromRequest(HttpServletRequest request) {
-        String token = extractToken(request);
-        if (token != null) {
-            return jwtService.extractUsername(token);
+    private String getOpponentUsername(GameState gameState, String username) {
+        if (username.equals(gameState.getPlayer1Username())) {
+            return gameState.getPlayer2Username();
+        } else if (username.equals(gameState.getPlayer2Username())) {
+            return gameState.getPlayer1Username();
         }
         return null;
     }
 
-    private String extractToken(HttpServletRequest request) {
-        String bearerToken = request.getHeader("Authorization");
-        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
-        }
-
-        Cookie[] cookies = request.getCookies();
-        if (cookies != null) {
-            for (Cookie cookie : cookies) {
-                if ("JWT".equals(cookie.getName())) {
-                    return cookie.getValue();
-                }
-            }
+    public void sendErrorToPlayer(Long matchId, String username, Object errorPayload) {
+        if (username != null) {
+            events.publishToUser(matchId, username, MatchEvent.Type.MOVE_ERROR, errorPayload);
         }
-
-        return null;
-    }
-
-    public void sendErrorToTopic(Long matchId, Object errorPayload) {
-        messagingTemplate.convertAndSend("/topic/moves/" + matchId, errorPayload);
     }
 }
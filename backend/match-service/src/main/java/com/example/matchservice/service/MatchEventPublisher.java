@@ -0,0 +1,106 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.config.GameBinaryCodec;
+import com.example.matchservice.config.OutboundQueues;
+import com.example.matchservice.config.RecipientInterceptor;
+import com.example.matchservice.model.DTO.GameStatusDTO;
+import com.example.matchservice.model.DTO.MatchEvent;
+import com.example.matchservice.model.MatchStatus;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends a match's events to its single destination, so a client needs one
+ * subscription per game and the broker matches each send against one
+ * subscription per watcher. A match's events go out in the order they were
+ * published, even when one of them waits for something first, such as a move
+ * waiting for its journal record to reach the disk.
+ *
+ * <p>
+ * Events meant for one player, such as the reply to their join or a draw
+ * offered to them, go to the same destination marked with
+ * {@link RecipientInterceptor#RECIPIENT_HEADER}, and only that player's
+ * sessions are sent them. They keep their place in the match's order.
+ */
+@Service
+public class MatchEventPublisher {
+
+    private static final String DESTINATION_PREFIX = "/topic/match/";
+
+    private static final CompletableFuture<Void> NOW = CompletableFuture.completedFuture(null);
+
+    private final SimpMessagingTemplate messagingTemplate;
+    // Per match, the last event that has not gone out yet; the next one waits for it
+    private final Map<Long, CompletableFuture<Void>> pending = new ConcurrentHashMap<>();
+
+    public MatchEventPublisher(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    public static String destination(Long matchId) {
+        return DESTINATION_PREFIX + matchId;
+    }
+
+    public void publish(Long matchId, MatchEvent.Type type, Object data) {
+        publishAfter(matchId, NOW, type, data);
+    }
+
+    /** Publishes once {@code ready} completes and every earlier event of the match has gone out. */
+    public void publishAfter(Long matchId, CompletableFuture<Void> ready, MatchEvent.Type type, Object data) {
+        enqueue(matchId, ready, type, () -> send(matchId, null, type, data));
+    }
+
+    /** Sends an event to one player's sessions only, in order with the match's other events. */
+    public void publishToUser(Long matchId, String username, MatchEvent.Type type, Object data) {
+        enqueue(matchId, NOW, type, () -> send(matchId, username, type, data));
+    }
+
+    private void enqueue(Long matchId, CompletableFuture<Void> ready, MatchEvent.Type type, Runnable send) {
+        CompletableFuture<Void> sent = new CompletableFuture<>();
+        CompletableFuture<Void> previous = pending.put(matchId, sent);
+        CompletableFuture<Void> after = previous != null ? CompletableFuture.allOf(previous, ready) : ready;
+        after.whenComplete((ignored, error) -> {
+            try {
+                if (error != null) {
+                    System.err.println("❌ Not broadcasting " + type + " for game " + matchId + ": " + error.getMessage());
+                } else {
+                    send.run();
+                }
+            } catch (RuntimeException e) {
+                System.err.println("❌ Failed to broadcast " + type + " for game " + matchId + ": " + e.getMessage());
+            } finally {
+                sent.complete(null);
+                pending.remove(matchId, sent);
+            }
+        });
+    }
+
+    // To everyone watching the match, or to one player's sessions when username is set
+    private void send(Long matchId, String username, MatchEvent.Type type, Object data) {
+        MatchEvent event = new MatchEvent(type, matchId, data);
+        String destination = destination(matchId);
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        GameBinaryCodec.attach(headers, event);
+        if (username != null) {
+            headers.setHeader(RecipientInterceptor.RECIPIENT_HEADER, username);
+        } else if (isSnapshot(type, data)) {
+            // A client that is behind only needs the newest snapshot, so older ones still queued for it are dropped
+            headers.setNativeHeader(OutboundQueues.CONFLATION_KEY_HEADER, destination);
+        }
+        headers.setLeaveMutable(true);
+        messagingTemplate.convertAndSend(destination, event, headers.getMessageHeaders());
+    }
+
+    // Only a full position of a game still being played; a result must reach every client
+    private static boolean isSnapshot(MatchEvent.Type type, Object data) {
+        return type == MatchEvent.Type.STATE && data instanceof GameStatusDTO status
+                && status.getFen() != null && status.getPly() != null
+                && MatchStatus.IN_PROGRESS.name().equals(status.getStatus());
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.matchservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * One mailbox per match. Everything that changes a match (moves, bot replies,
+ * resignations, joins) is submitted here and runs one task at a time in
+ * submission order, so a game's state has a single writer and needs no
+ * locks. Mailboxes of different matches are drained in parallel by a shared
+ * pool sized to the cores.
+ *
+ * <p>
+ * A mailbox only exists while it has work: it is created by the first
+ * submission and dropped once drained. A drain runs a bounded batch and then
+ * yields the worker, so one busy match cannot starve the others.
+ */
+@Service
+public class MatchMailboxes {
+
+    private static final int BATCH = 16;
+
+    private final ExecutorService workers;
+    private final Map<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    private final class Mailbox implements Runnable {
+        private final Long matchId;
+        // Added to only inside mailboxes.compute, so the retire check below cannot miss a task
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+        private Mailbox(Long matchId) {
+            this.matchId = matchId;
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < BATCH; i++) {
+                Runnable task = tasks.poll();
+                if (task == null) {
+                    break;
+                }
+                task.run();
+            }
+            // A submit racing with this either lands before the check or opens a new mailbox
+            boolean[] retired = new boolean[1];
+            mailboxes.compute(matchId, (id, current) -> {
+                if (current == this && tasks.isEmpty()) {
+                    retired[0] = true;
+                    return null;
+                }
+                return current;
+            });
+            if (!retired[0]) {
+                workers.execute(this);
+            }
+        }
+    }
+
+    public MatchMailboxes(MeterRegistry meterRegistry, @Value("${game.mailbox.threads:0}") int threads) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        // Unbounded, but it never holds more than one entry per match with pending work
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), namedThreads("match-worker"));
+
+        Gauge.builder("game.mailboxes.active", mailboxes, Map::size)
+                .description("Matches with queued or running work")
+                .register(meterRegistry);
+
+        System.out.println("📬 Match mailboxes: " + poolSize + " workers");
+    }
+
+    /**
+     * Queues {@code task} behind everything already submitted for this match.
+     * The future completes with its result, or exceptionally with what it threw.
+     */
+    public <T> CompletableFuture<T> submit(Long matchId, Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable wrapped = () -> {
+            try {
+                result.complete(task.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        };
+
+        boolean[] opened = new boolean[1];
+        Mailbox mailbox = mailboxes.compute(matchId, (id, current) -> {
+            Mailbox box = current;
+            if (box == null) {
+                box = new Mailbox(id);
+                opened[0] = true;
+            }
+            box.tasks.add(wrapped);
+            return box;
+        });
+        if (opened[0]) {
+            workers.execute(mailbox);
+        }
+        return result;
+    }
+
+    public CompletableFuture<Void> execute(Long matchId, Runnable task) {
+        return submit(matchId, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -1,5 +1,11 @@
 package com.example.matchservice.service;
 
+import com.example.matchservice.chess.core.BoardConverter;
+import com.example.matchservice.chess.core.Fen;
+import com.example.matchservice.chess.core.Piece;
+import com.example.matchservice.chess.core.Position;
+import com.example.matchservice.model.BotProfile;
+import com.example.matchservice.model.DTO.MoveDTO;
 import com.example.matchservice.model.GameType;
 import com.example.matchservice.model.Match;
 import com.example.matchservice.model.User;
@@ -9,7 +15,9 @@ import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import jakarta.annotation.PostConstruct;
 
 import java.util.*;
@@ -24,7 +32,6 @@ public class MatchService {
     private static final Map<String, Long> waitingPlayers = new ConcurrentHashMap<>();
     private static final Map<Long, String[]> matchPlayers = new ConcurrentHashMap<>();
     private static final Map<String, String> roomWaiters = new ConcurrentHashMap<>();
-    private static final String INITIAL_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
     private static final String LOG_FILE = "/Users/premkumar/Documents/HCL Training/indiChess/match_service_debug.log";
 
     private void logToFile(String message) {
@@ -42,12 +49,17 @@ public class MatchService {
     private final JwtService jwtService;
     private final UserRepo userRepo;
     private final JdbcTemplate jdbcTemplate;
+    private final MoveWriter moveWriter;
+    private final TransactionTemplate transactionTemplate;
 
-    public MatchService(JwtService jwtService, UserRepo userRepo, MatchRepo matchRepo, JdbcTemplate jdbcTemplate) {
+    public MatchService(JwtService jwtService, UserRepo userRepo, MatchRepo matchRepo, JdbcTemplate jdbcTemplate,
+            MoveWriter moveWriter, TransactionTemplate transactionTemplate) {
         this.jwtService = jwtService;
         this.userRepo = userRepo;
         this.matchRepo = matchRepo;
         this.jdbcTemplate = jdbcTemplate;
+        this.moveWriter = moveWriter;
+        this.transactionTemplate = transactionTemplate;
     }
 
     @PostConstruct
@@ -124,7 +136,7 @@ public class MatchService {
 
                     if (player1 != null && player2 != null) {
                         Match newMatch = new Match(player1, player2, IN_PROGRESS, 0);
-                        newMatch.setFenCurrent(INITIAL_FEN);
+                        newMatch.setFenCurrent(Fen.INITIAL);
                         newMatch = matchRepo.save(newMatch);
                         Long matchId = newMatch.getId();
 
@@ -194,7 +206,7 @@ public class MatchService {
 
         if (creator != null && joiner != null) {
             Match newMatch = new Match(creator, joiner, IN_PROGRESS, 0);
-            newMatch.setFenCurrent(INITIAL_FEN);
+            newMatch.setFenCurrent(Fen.INITIAL);
             newMatch.setGameType(GameType.FRIEND); // Use a specific type for Friend matches
             newMatch = matchRepo.save(newMatch);
             Long matchId = newMatch.getId();
@@ -218,7 +230,7 @@ public class MatchService {
         return sb.toString();
     }
 
-    public Optional<Long> createBotMatch(HttpServletRequest request) {
+    public Optional<Long> createBotMatch(HttpServletRequest request, String botName) {
         try {
             String tk = extractToken(request);
             if (tk == null) {
@@ -238,20 +250,24 @@ public class MatchService {
                 logToFile("❌ Human player not found in database: " + userName);
                 return Optional.empty();
             }
-            User botPlayer = userRepo.getUserByUsername("Curler");
+            BotProfile botProfile = BotProfile.forUsername(botName);
+            if (botProfile == null) {
+                botProfile = BotProfile.CURLER;
+            }
+            User botPlayer = userRepo.getUserByUsername(botProfile.getUsername());
 
             if (botPlayer == null) {
-                logToFile("🛠 Creating new bot user: Curler");
+                logToFile("🛠 Creating new bot user: " + botProfile.getUsername());
                 botPlayer = new User();
-                botPlayer.setUsername("Curler");
+                botPlayer.setUsername(botProfile.getUsername());
                 botPlayer.setPassword("");
-                botPlayer.setEmailId("bot_curler@indichess.com");
-                botPlayer.setRating(350);
+                botPlayer.setEmailId("bot_" + botProfile.getUsername().toLowerCase() + "@indichess.com");
+                botPlayer.setRating(botProfile.getRating());
                 botPlayer = userRepo.save(botPlayer);
             }
 
             Match newMatch = new Match(humanPlayer, botPlayer, IN_PROGRESS, 0);
-            newMatch.setFenCurrent(INITIAL_FEN);
+            newMatch.setFenCurrent(Fen.INITIAL);
             newMatch.setGameType(GameType.BOT);
             newMatch = matchRepo.save(newMatch);
 
@@ -338,7 +354,10 @@ public class MatchService {
         return (isPlayer1 && isWhiteTurn) || (!isPlayer1 && !isWhiteTurn);
     }
 
-    public Map<String, Object> getGameDetailsForFrontend(Long matchId, HttpServletRequest request) {
+    /** {@code fromPly} is the number of plies the client already has; null for the full history. */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> getGameDetailsForFrontend(Long matchId, String boardFormat, Integer fromPly,
+            HttpServletRequest request) {
         String token = extractToken(request);
         if (token == null) {
             throw new RuntimeException("Not authenticated");
@@ -349,6 +368,13 @@ public class MatchService {
             throw new RuntimeException("Invalid token");
         }
 
+        // So a reload right after a move sees that move. Waits outside a transaction: the writer needs a
+        // connection from the same pool to save it
+        moveWriter.awaitPersisted(matchId);
+        return transactionTemplate.execute(status -> gameDetails(matchId, username, boardFormat, fromPly));
+    }
+
+    private Map<String, Object> gameDetails(Long matchId, String username, String boardFormat, Integer fromPly) {
         Optional<Match> matchOpt = matchRepo.findById(matchId);
         if (matchOpt.isEmpty()) {
             throw new RuntimeException("Game not found");
@@ -382,85 +408,95 @@ public class MatchService {
         response.put("myTurn", isMyTurn);
         response.put("createdAt", match.getCreatedAt());
         response.put("startedAt", match.getStartedAt());
-        Integer currentPlyCount = match.getCurrentPly();
-        int currentPly = (currentPlyCount != null) ? currentPlyCount : 0;
-        boolean whiteTurn = currentPly % 2 == 0;
-
         // Convert FEN to board for the frontend
-        response.put("whiteTurn", whiteTurn);
-        response.put("board", convertFENToBoard(match.getFenCurrent()));
+        Position position = parseFenForFrontend(match.getFenCurrent());
+        response.put("whiteTurn", position.sideToMove() == Piece.WHITE);
+        if (BoardConverter.wantsLegacyBoard(boardFormat)) {
+            response.put("board", BoardConverter.toBoard(position));
+        }
+        String fen = Fen.format(position);
+        response.put("fen", fen);
+        int plies = match.getCurrentPly() != null ? match.getCurrentPly() : 0;
+        int resumePly = MoveHistory.resumePly(fromPly, plies);
+        response.put("ply", plies);
+        response.put("fromPly", resumePly);
+        response.put("positionHash", MoveHistory.positionHash(fen));
 
         // Add move history
         List<Map<String, Object>> movesList = new ArrayList<>();
-        if (match.getMoves() != null) {
-            for (com.example.matchservice.model.Move move : match.getMoves()) {
-                Map<String, Object> moveMap = new HashMap<>();
-                moveMap.put("fromRow", move.getFromRow());
-                moveMap.put("fromCol", move.getFromCol());
-                moveMap.put("toRow", move.getToRow());
-                moveMap.put("toCol", move.getToCol());
-                moveMap.put("piece", move.getPiece());
-                moveMap.put("playerColor", move.getColor().name().toLowerCase());
-                moveMap.put("moveNotation", move.getSan());
-                moveMap.put("isWhiteTurn", move.getColor().name().equals("BLACK")); // Turn after move
-                movesList.add(moveMap);
-            }
+        for (MoveDTO move : MoveHistory.load(match, resumePly)) {
+            Map<String, Object> moveMap = new HashMap<>();
+            moveMap.put("fromRow", move.getFromRow());
+            moveMap.put("fromCol", move.getFromCol());
+            moveMap.put("toRow", move.getToRow());
+            moveMap.put("toCol", move.getToCol());
+            moveMap.put("piece", move.getPiece());
+            moveMap.put("playerColor", move.getPlayerColor());
+            moveMap.put("moveNotation", move.getMoveNotation());
+            moveMap.put("isWhiteTurn", "black".equals(move.getPlayerColor())); // Turn after move
+            movesList.add(moveMap);
         }
         response.put("moves", movesList);
 
         return response;
     }
 
-    private String[][] convertFENToBoard(String fen) {
-        if (fen == null || fen.isEmpty())
-            return getInitialBoard();
+    /** The position after {@code ply} plies of a game, rebuilt from the nearest checkpoint. */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, Object> getPositionAt(Long matchId, int ply, HttpServletRequest request) {
+        String token = extractToken(request);
+        if (token == null) {
+            throw new RuntimeException("Not authenticated");
+        }
 
-        String[][] board = new String[8][8];
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                board[i][j] = "";
-            }
+        String username = jwtService.extractUsername(token);
+        if (username == null) {
+            throw new RuntimeException("Invalid token");
         }
 
-        try {
-            String[] parts = fen.split(" ");
-            String ranks = parts[0];
-            String[] rankLines = ranks.split("/");
-
-            for (int row = 0; row < 8; row++) {
-                String rankLine = rankLines[row];
-                int col = 0;
-                for (int i = 0; i < rankLine.length(); i++) {
-                    char c = rankLine.charAt(i);
-                    if (Character.isDigit(c)) {
-                        col += Character.getNumericValue(c);
-                    } else {
-                        board[row][col] = String.valueOf(c);
-                        col++;
-                    }
-                }
-            }
-        } catch (Exception e) {
-            logToFile("⚠️ Error parsing FEN for frontend: " + e.getMessage());
-            return getInitialBoard();
+        moveWriter.awaitPersisted(matchId);
+        return transactionTemplate.execute(status -> positionAt(matchId, username, ply));
+    }
+
+    private Map<String, Object> positionAt(Long matchId, String username, int ply) {
+        Match match = matchRepo.findById(matchId)
+                .orElseThrow(() -> new RuntimeException("Game not found"));
+
+        boolean isPlayer1 = match.getPlayer1().getUsername().equals(username);
+        boolean isPlayer2 = match.getPlayer2() != null && match.getPlayer2().getUsername().equals(username);
+        if (!isPlayer1 && !isPlayer2) {
+            throw new RuntimeException("Not authorized to view this game");
+        }
+
+        int plies = match.getCurrentPly() != null ? match.getCurrentPly() : 0;
+        if (ply < 0 || ply > plies) {
+            throw new RuntimeException("Ply " + ply + " out of range 0.." + plies);
+        }
+        Position position = MoveHistory.positionAt(match, ply);
+        if (position == null) {
+            throw new RuntimeException("Position at ply " + ply + " not found for game " + matchId);
         }
-        return board;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("matchId", match.getId());
+        response.put("ply", ply);
+        response.put("plies", plies);
+        String fen = Fen.format(position);
+        response.put("fen", fen);
+        response.put("positionHash", MoveHistory.positionHash(fen));
+        response.put("whiteTurn", position.sideToMove() == Piece.WHITE);
+        return response;
     }
 
-    private String[][] getInitialBoard() {
-        String[][] board = new String[8][8];
-        // Standard initial position
-        String[] setup = { "rnbqkbnr", "pppppppp", "", "", "", "", "PPPPPPPP", "RNBQKBNR" };
-        for (int r = 0; r < 8; r++) {
-            String line = setup[r];
-            if (line.isEmpty()) {
-                for (int c = 0; c < 8; c++)
-                    board[r][c] = "";
-            } else {
-                for (int c = 0; c < 8; c++)
-                    board[r][c] = String.valueOf(line.charAt(c));
-            }
+    private Position parseFenForFrontend(String fen) {
+        if (fen == null || fen.isEmpty()) {
+            return Position.initial();
+        }
+        try {
+            return Fen.parse(fen);
+        } catch (IllegalArgumentException e) {
+            logToFile("⚠️ Error parsing FEN for frontend: " + e.getMessage());
+            return Position.initial();
         }
-        return board;
     }
 }
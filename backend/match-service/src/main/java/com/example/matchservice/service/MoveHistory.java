@@ -0,0 +1,261 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.chess.core.Fen;
+import com.example.matchservice.chess.core.PackedMoves;
+import com.example.matchservice.chess.core.PackedPosition;
+import com.example.matchservice.chess.core.Position;
+import com.example.matchservice.model.DTO.MoveDTO;
+import com.example.matchservice.model.DTO.MoveRequest;
+import com.example.matchservice.model.Match;
+import com.example.matchservice.model.Move;
+import com.example.matchservice.model.PieceColor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * Reads a stored game back. The packed move codes on the match are replayed
+ * when they cover every ply; games saved before they existed are read from
+ * the moves table. Reads that start part-way into a game begin at the
+ * nearest stored checkpoint rather than at the first move.
+ */
+final class MoveHistory {
+
+    private MoveHistory() {
+    }
+
+    static boolean hasPackedMoves(Match match) {
+        int ply = match.getCurrentPly() != null ? match.getCurrentPly() : 0;
+        return match.getMoveCodes() != null && PackedMoves.count(match.getMoveCodes()) == ply;
+    }
+
+    static boolean hasPackedTimes(Match match) {
+        return match.getMoveTimes() != null && match.getStartedAt() != null
+                && PackedMoves.count(match.getMoveTimes()) == PackedMoves.count(match.getMoveCodes());
+    }
+
+    static boolean hasCheckpoints(Match match) {
+        Integer interval = match.getCheckpointInterval();
+        if (interval == null || interval <= 0 || match.getMoveCheckpoints() == null) {
+            return false;
+        }
+        int ply = match.getCurrentPly() != null ? match.getCurrentPly() : 0;
+        return match.getMoveCheckpoints().length == PackedPosition.SIZE * (ply / interval);
+    }
+
+    /** Checkpoints for the packed moves, one every {@code interval} plies, or null if they do not replay. */
+    static byte[] buildCheckpoints(Match match, int interval) {
+        byte[] codes = match.getMoveCodes();
+        int plies = PackedMoves.count(codes);
+        byte[] checkpoints = new byte[PackedPosition.SIZE * (plies / interval)];
+        Position position = Position.initial();
+        for (int ply = 0; ply < plies; ply++) {
+            int move = MoveTranslator.fromCode(position, PackedMoves.get(codes, ply));
+            if (move == com.example.matchservice.chess.core.Move.NONE) {
+                return null;
+            }
+            position.makeMove(move);
+            if ((ply + 1) % interval == 0) {
+                PackedPosition.encode(position, checkpoints, PackedPosition.SIZE * ((ply + 1) / interval - 1));
+            }
+        }
+        return checkpoints;
+    }
+
+    /**
+     * The position after the packed moves, or null if the match has none or
+     * they do not replay. Always replays from the start so the position keeps
+     * the history that repetition detection needs.
+     */
+    static Position replay(Match match) {
+        if (!hasPackedMoves(match)) {
+            return null;
+        }
+        byte[] codes = match.getMoveCodes();
+        Position position = Position.initial();
+        for (int ply = 0; ply < PackedMoves.count(codes); ply++) {
+            int move = MoveTranslator.fromCode(position, PackedMoves.get(codes, ply));
+            if (move == com.example.matchservice.chess.core.Move.NONE) {
+                System.err.println("⚠️ Packed move " + (ply + 1) + " of game " + match.getId() + " is not legal");
+                return null;
+            }
+            position.makeMove(move);
+        }
+        return position;
+    }
+
+    /**
+     * The position after {@code ply} plies, from the nearest checkpoint at or
+     * before it. Null if the packed moves do not reach that far or do not replay.
+     */
+    static Position positionAt(Match match, int ply) {
+        if (!hasPackedMoves(match) || ply < 0 || ply > PackedMoves.count(match.getMoveCodes())) {
+            return null;
+        }
+        int[] start = new int[1];
+        Position position = nearestCheckpoint(match, ply, start);
+        return advance(match, position, start[0], ply) ? position : null;
+    }
+
+    static List<MoveDTO> load(Match match) {
+        return load(match, 0);
+    }
+
+    /** The moves after the first {@code fromPly} plies. */
+    static List<MoveDTO> load(Match match, int fromPly) {
+        int plies = match.getCurrentPly() != null ? match.getCurrentPly() : 0;
+        if (fromPly >= plies) {
+            return new ArrayList<>();
+        }
+        if (hasPackedMoves(match)) {
+            List<MoveDTO> moves = fromPacked(match, Math.max(0, fromPly));
+            if (moves != null) {
+                return moves;
+            }
+        }
+        return match.getMoves().stream()
+                .filter(move -> move.getPly() > fromPly)
+                .map(MoveHistory::fromRow)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Where a client that reports {@code fromPly} plies should resume. A client
+     * claiming more plies than the game has is out of sync and gets everything.
+     */
+    static int resumePly(Integer fromPly, int plies) {
+        return fromPly != null && fromPly >= 0 && fromPly <= plies ? fromPly : 0;
+    }
+
+    /**
+     * What clients compare to check they have the same board as the server: the
+     * CRC-32 of the FEN's piece placement field, in hex, which a client can
+     * work out from its own board.
+     */
+    static String positionHash(String fen) {
+        int end = fen.indexOf(' ');
+        CRC32 crc = new CRC32();
+        crc.update(fen.substring(0, end >= 0 ? end : fen.length()).getBytes(StandardCharsets.US_ASCII));
+        return String.format("%08x", crc.getValue());
+    }
+
+    // Decodes the last checkpoint at or before ply; start[0] receives its ply
+    private static Position nearestCheckpoint(Match match, int ply, int[] start) {
+        if (hasCheckpoints(match)) {
+            int interval = match.getCheckpointInterval();
+            int index = Math.min(ply / interval, match.getMoveCheckpoints().length / PackedPosition.SIZE);
+            if (index > 0) {
+                start[0] = index * interval;
+                return PackedPosition.decode(match.getMoveCheckpoints(), (index - 1) * PackedPosition.SIZE);
+            }
+        }
+        start[0] = 0;
+        return Position.initial();
+    }
+
+    // Plays the packed moves from ply up to (not including) end on position
+    private static boolean advance(Match match, Position position, int ply, int end) {
+        byte[] codes = match.getMoveCodes();
+        for (; ply < end; ply++) {
+            int move = MoveTranslator.fromCode(position, PackedMoves.get(codes, ply));
+            if (move == com.example.matchservice.chess.core.Move.NONE) {
+                System.err.println("⚠️ Packed move " + (ply + 1) + " of game " + match.getId() + " is not legal");
+                return false;
+            }
+            position.makeMove(move);
+        }
+        return true;
+    }
+
+    private static List<MoveDTO> fromPacked(Match match, int fromPly) {
+        byte[] codes = match.getMoveCodes();
+        byte[] times = hasPackedTimes(match) ? match.getMoveTimes() : null;
+        int plies = PackedMoves.count(codes);
+        if (fromPly >= plies) {
+            return new ArrayList<>();
+        }
+
+        int[] start = new int[1];
+        Position position = nearestCheckpoint(match, fromPly, start);
+        if (!advance(match, position, start[0], fromPly)) {
+            return null;
+        }
+        LocalDateTime playedAt = match.getStartedAt();
+        for (int ply = 0; times != null && ply < fromPly; ply++) {
+            playedAt = playedAt.plus(PackedMoves.toMillis(PackedMoves.get(times, ply)), ChronoUnit.MILLIS);
+        }
+
+        List<MoveDTO> moves = new ArrayList<>(plies - fromPly);
+        for (int ply = fromPly; ply < plies; ply++) {
+            int move = MoveTranslator.fromCode(position, PackedMoves.get(codes, ply));
+            if (move == com.example.matchservice.chess.core.Move.NONE) {
+                System.err.println("⚠️ Packed move " + (ply + 1) + " of game " + match.getId()
+                        + " is not legal. Reading the moves table instead.");
+                return null;
+            }
+            MoveRequest request = MoveTranslator.toMoveRequest(position, move);
+            request.setFenBefore(Fen.format(position));
+            position.makeMove(move);
+            request.setFenAfter(Fen.format(position));
+
+            MoveDTO dto = describe(match.getId(), request);
+            dto.setIsWhiteTurn("white".equals(request.getPlayerColor()));
+            if (times != null) {
+                playedAt = playedAt.plus(PackedMoves.toMillis(PackedMoves.get(times, ply)), ChronoUnit.MILLIS);
+                dto.setTimestamp(playedAt.toString());
+            } else {
+                dto.setTimestamp("");
+            }
+            moves.add(dto);
+        }
+        return moves;
+    }
+
+    /** The parts of a move DTO that follow from the move itself. */
+    static MoveDTO describe(Long matchId, MoveRequest request) {
+        MoveDTO dto = new MoveDTO();
+        dto.setFromRow(request.getFromRow());
+        dto.setFromCol(request.getFromCol());
+        dto.setToRow(request.getToRow());
+        dto.setToCol(request.getToCol());
+        dto.setPiece(request.getPiece());
+        dto.setPromotedTo(request.getPromotedTo());
+        dto.setCapturedPiece(request.getCapturedPiece());
+        dto.setCastled(request.getCastled());
+        dto.setIsEnPassant(request.getIsEnPassant());
+        dto.setIsPromotion(request.getIsPromotion());
+        dto.setFenBefore(request.getFenBefore());
+        dto.setFenAfter(request.getFenAfter());
+        dto.setPlayerColor(request.getPlayerColor());
+        dto.setMatchId(matchId);
+        dto.setMoveNotation(MoveTranslator.notation(request));
+        return dto;
+    }
+
+    private static MoveDTO fromRow(Move move) {
+        MoveDTO dto = new MoveDTO();
+        dto.setFromRow(move.getFromRow());
+        dto.setFromCol(move.getFromCol());
+        dto.setToRow(move.getToRow());
+        dto.setToCol(move.getToCol());
+        dto.setPiece(move.getPiece());
+        dto.setPromotedTo(move.getPromotedTo());
+        dto.setCapturedPiece(move.getCapturedPiece());
+        dto.setCastled(move.getCastled());
+        dto.setIsEnPassant(move.getIsEnPassant());
+        dto.setIsPromotion(move.getIsPromotion());
+        dto.setFenBefore(move.getFenBefore());
+        dto.setFenAfter(move.getFenAfter());
+        dto.setIsWhiteTurn(move.getColor() == PieceColor.WHITE);
+        dto.setPlayerColor(move.getColor().name().toLowerCase());
+        dto.setMatchId(move.getMatch().getId());
+        dto.setTimestamp(move.getCreatedAt() != null ? move.getCreatedAt().toString() : "");
+        dto.setMoveNotation(move.getSan());
+        return dto;
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.matchservice.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only move journal on local disk, split into fixed-size segments.
+ * Every accepted move is one 32-byte record:
+ *
+ * <pre>
+ *  0..3   CRC32 of bytes 4..31
+ *  4..11  match id
+ *  12..15 ply
+ *  16..17 move code (from, to, promotion; see {@code Move.code})
+ *  18..19 zero
+ *  20..27 time the move was accepted, epoch millis
+ *  28..31 zero
+ * </pre>
+ *
+ * Segments are sized up front, so appending never grows the file and a
+ * data-only force is enough to make records durable. The unwritten part of a
+ * segment reads as zeros, which is how the end of the data is found. When
+ * mapped, records are copied into the mapping rather than written with a
+ * system call each.
+ *
+ * <p>
+ * A new segment is started on every open. Segments left by the previous run
+ * are kept until {@link #releaseTail()}; later ones are deleted by
+ * {@link #release(long)} once everything in them is in the database.
+ */
+final class MoveJournal implements Closeable {
+
+    static final int RECORD_SIZE = 32;
+
+    private static final String PREFIX = "moves-";
+    private static final String SUFFIX = ".seg";
+
+    private final Path dir;
+    private final long segmentSize;
+    private final boolean mapped;
+    private final List<Long> tail = new ArrayList<>();
+    private final NavigableMap<Long, Segment> segments = new TreeMap<>();
+    private Segment active;
+
+    /** A move read back from the journal. */
+    static final class Entry {
+        final long matchId;
+        final int ply;
+        final int moveCode;
+        final long timestamp;
+
+        private Entry(long matchId, int ply, int moveCode, long timestamp) {
+            this.matchId = matchId;
+            this.ply = ply;
+            this.moveCode = moveCode;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private final class Segment {
+        private final long number;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private long position;
+
+        private Segment(long number, FileChannel channel, MappedByteBuffer buffer) {
+            this.number = number;
+            this.path = segmentPath(number);
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private boolean isFull() {
+            return position + RECORD_SIZE > segmentSize;
+        }
+
+        private void write(ByteBuffer record) throws IOException {
+            if (buffer != null) {
+                buffer.put((int) position, record, 0, RECORD_SIZE);
+            } else {
+                while (record.hasRemaining()) {
+                    channel.write(record, position + record.position());
+                }
+            }
+            position += RECORD_SIZE;
+        }
+
+        private void force() throws IOException {
+            if (buffer != null) {
+                buffer.force();
+            } else {
+                channel.force(false);
+            }
+        }
+
+        private void delete() throws IOException {
+            channel.close();
+            Files.deleteIfExists(path);
+        }
+    }
+
+    MoveJournal(Path dir, long segmentSize, boolean mapped) throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize - segmentSize % RECORD_SIZE;
+        this.mapped = mapped;
+        if (this.segmentSize < RECORD_SIZE) {
+            throw new IllegalArgumentException("Journal segments must hold at least one record");
+        }
+        Files.createDirectories(dir);
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                tail.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+            }
+        }
+        tail.sort(null);
+        this.active = openSegment(tail.isEmpty() ? 1 : tail.get(tail.size() - 1) + 1);
+    }
+
+    private Path segmentPath(long number) {
+        return dir.resolve(String.format("%s%010d%s", PREFIX, number, SUFFIX));
+    }
+
+    private Segment openSegment(long number) throws IOException {
+        Path path = segmentPath(number);
+        // Sized once here; the file length never changes while records are appended
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(segmentSize);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = mapped ? channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize) : null;
+        Segment segment = new Segment(number, channel, buffer);
+        segments.put(number, segment);
+        return segment;
+    }
+
+    /** Appends a record and returns the number of the segment it went to. */
+    synchronized long append(long matchId, int ply, int moveCode, long timestamp) throws IOException {
+        if (active.isFull()) {
+            // Records in the old segment must be durable before force() stops looking at it
+            active.force();
+            active = openSegment(active.number + 1);
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.position(4);
+        record.putLong(matchId).putInt(ply).putShort((short) moveCode).putShort((short) 0)
+                .putLong(timestamp).putInt(0);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, RECORD_SIZE - 4);
+        record.putInt(0, (int) crc.getValue());
+        record.position(0);
+        active.write(record);
+        return active.number;
+    }
+
+    /** Makes every record appended so far durable. */
+    void force() throws IOException {
+        Segment segment;
+        synchronized (this) {
+            segment = active;
+        }
+        segment.force();
+    }
+
+    /** Deletes this run's segments before {@code segment}; their records are all in the database. */
+    synchronized void release(long segment) throws IOException {
+        Iterator<Segment> older = segments.headMap(segment, false).values().iterator();
+        while (older.hasNext()) {
+            older.next().delete();
+            older.remove();
+        }
+    }
+
+    /** The records left by the previous run, oldest first. Stops at the first torn or corrupt record. */
+    List<Entry> readTail() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (long number : tail) {
+            if (!readSegment(segmentPath(number), entries)) {
+                break;
+            }
+        }
+        return entries;
+    }
+
+    // False if the segment ends in a bad record, which means nothing after it was written either
+    private boolean readSegment(Path path, List<Entry> entries) throws IOException {
+        try (FileChannel channel = FileChannel.open(path)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 2048);
+            long offset = 0;
+            CRC32 crc = new CRC32();
+            while (true) {
+                buffer.clear();
+                int read = channel.read(buffer, offset);
+                if (read < RECORD_SIZE) {
+                    return true;
+                }
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_SIZE) {
+                    int start = buffer.position();
+                    int checksum = buffer.getInt();
+                    long matchId = buffer.getLong();
+                    int ply = buffer.getInt();
+                    int moveCode = buffer.getShort() & 0xFFFF;
+                    buffer.getShort();
+                    long timestamp = buffer.getLong();
+                    buffer.getInt();
+                    if (matchId == 0 && checksum == 0) {
+                        // Preallocated space: end of the data
+                        return true;
+                    }
+                    crc.reset();
+                    crc.update(buffer.array(), start + 4, RECORD_SIZE - 4);
+                    if ((int) crc.getValue() != checksum) {
+                        System.err.println("⚠️ Corrupt record in " + path.getFileName() + " at " + (offset + start));
+                        return false;
+                    }
+                    entries.add(new Entry(matchId, ply, moveCode, timestamp));
+                }
+                offset += read - read % RECORD_SIZE;
+            }
+        }
+    }
+
+    /** Deletes the segments left by the previous run, once their moves are all in the database. */
+    void releaseTail() throws IOException {
+        for (long number : tail) {
+            Files.deleteIfExists(segmentPath(number));
+        }
+        tail.clear();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        active.force();
+        for (Segment segment : segments.values()) {
+            segment.channel.close();
+        }
+    }
+}
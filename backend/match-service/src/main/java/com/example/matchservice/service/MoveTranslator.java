@@ -0,0 +1,105 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.chess.core.BoardConverter;
+import com.example.matchservice.chess.core.Move;
+import com.example.matchservice.chess.core.MoveGenerator;
+import com.example.matchservice.chess.core.MoveList;
+import com.example.matchservice.chess.core.Piece;
+import com.example.matchservice.chess.core.Position;
+import com.example.matchservice.chess.core.Square;
+import com.example.matchservice.model.DTO.MoveRequest;
+
+/**
+ * Translates between client move requests, UCI strings and engine moves. The
+ * engine move is always looked up among the legal moves of the server's own
+ * position, so anything returned here is legal.
+ */
+final class MoveTranslator {
+
+    private MoveTranslator() {
+    }
+
+    /** The legal move matching the request's from/to/promotion, or {@link Move#NONE}. */
+    static int findLegal(Position position, MoveRequest request) {
+        int from = Square.fromRowCol(request.getFromRow(), request.getFromCol());
+        int to = Square.fromRowCol(request.getToRow(), request.getToCol());
+        return findLegal(position, from, to, promotionType(request.getPromotedTo()));
+    }
+
+    static int fromUci(Position position, String uci) {
+        if (uci == null || uci.length() < 4) {
+            return Move.NONE;
+        }
+        int from = Square.parse(uci.substring(0, 2));
+        int to = Square.parse(uci.substring(2, 4));
+        int promotion = uci.length() > 4 ? promotionType(uci.substring(4, 5)) : 0;
+        return findLegal(position, from, to, promotion);
+    }
+
+    /** The legal move with this {@link Move#code}, or {@link Move#NONE}. */
+    static int fromCode(Position position, int code) {
+        MoveList legal = new MoveList();
+        MoveGenerator.generateLegal(position, legal);
+        return legal.find(Move.from(code), Move.to(code), Move.promotion(code));
+    }
+
+    private static int findLegal(Position position, int from, int to, int promotion) {
+        MoveList legal = new MoveList();
+        MoveGenerator.generateLegal(position, legal);
+        int move = legal.find(from, to, promotion);
+        if (move == Move.NONE && promotion == 0) {
+            // A pawn reaching the last rank without a choice promotes to a queen
+            move = legal.find(from, to, Piece.QUEEN);
+        }
+        return move;
+    }
+
+    private static int promotionType(String promotedTo) {
+        if (promotedTo == null || promotedTo.isEmpty()) {
+            return 0;
+        }
+        return switch (Character.toLowerCase(promotedTo.charAt(0))) {
+            case 'q' -> Piece.QUEEN;
+            case 'r' -> Piece.ROOK;
+            case 'b' -> Piece.BISHOP;
+            case 'n' -> Piece.KNIGHT;
+            default -> 0;
+        };
+    }
+
+    /** Describes {@code move}, which must not have been made on {@code position} yet. */
+    static MoveRequest toMoveRequest(Position position, int move) {
+        int piece = Move.piece(move);
+        int from = Move.from(move);
+        int to = Move.to(move);
+
+        MoveRequest request = new MoveRequest();
+        request.setPiece(BoardConverter.pieceString(piece));
+        request.setFromRow(Square.row(from));
+        request.setFromCol(Square.col(from));
+        request.setToRow(Square.row(to));
+        request.setToCol(Square.col(to));
+        request.setPlayerColor(Piece.color(piece) == Piece.WHITE ? "white" : "black");
+        request.setCapturedPiece(BoardConverter.pieceString(Move.captured(move)));
+        request.setCastled(Move.isCastle(move));
+        request.setIsEnPassant(Move.isEnPassant(move));
+        request.setIsPromotion(Move.isPromotion(move));
+        if (Move.isPromotion(move)) {
+            request.setPromotedTo(BoardConverter.pieceString(Piece.make(Piece.color(piece), Move.promotion(move))));
+        }
+        return request;
+    }
+
+    /** Short display notation ("Nxe5", "O-O"), as stored and shown in the move list. */
+    static String notation(MoveRequest move) {
+        if (Boolean.TRUE.equals(move.getCastled())) {
+            return move.getToCol() == 6 ? "O-O" : "O-O-O";
+        }
+
+        String piece = move.getPiece();
+        String pieceSymbol = "p".equalsIgnoreCase(piece) ? "" : piece.toUpperCase();
+        String capture = move.getCapturedPiece() != null && !move.getCapturedPiece().isEmpty() ? "x" : "";
+        String toSquare = (char) ('a' + move.getToCol()) + String.valueOf(8 - move.getToRow());
+        return pieceSymbol + capture + toSquare;
+    }
+}
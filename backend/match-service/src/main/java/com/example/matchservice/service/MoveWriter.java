@@ -0,0 +1,658 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.chess.core.Move;
+import com.example.matchservice.chess.core.PackedMoves;
+import com.example.matchservice.chess.core.PackedPosition;
+import com.example.matchservice.model.DTO.MoveRequest;
+import com.example.matchservice.model.MatchStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.JdbcUpdateAffectedIncorrectNumberOfRowsException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Write-behind persistence for moves. A move is appended to the local
+ * {@link MoveJournal} and queued. A sync thread forces the journal to disk
+ * once for every group of appends that arrive within a short linger, and
+ * only then completes the future {@link #write} returned, which is when the
+ * caller may broadcast the move. A single writer thread collects whatever is
+ * queued for up to a few milliseconds and writes every move in it, across all
+ * matches, with one JDBC batch.
+ *
+ * <p>
+ * Only transient failures (lost connections, lock timeouts) are retried. A
+ * batch the database refuses outright is saved game by game and then move by
+ * move, and whatever is still refused is quarantined to a log file next to
+ * the journal, so one bad move cannot stall every other match.
+ *
+ * <p>
+ * Journal segments are deleted once the writer is past them. What the last
+ * run left behind is replayed by {@link GameService} at startup, before the
+ * service takes traffic.
+ *
+ * <p>
+ * Code that reads a match's moves or saves the match through JPA waits for
+ * {@link #persisted(Long)} first, so it never sees, or overwrites, a row the
+ * writer has not reached yet.
+ */
+@Service
+public class MoveWriter {
+
+    private static final String INSERT_MOVE = "INSERT INTO moves (match_id, ply, move_number, color, uci, san, piece,"
+            + " promoted_to, captured_piece, castled, is_en_passant, is_promotion, from_row, from_col, to_row, to_col,"
+            + " fen_before, fen_after, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // The length checks and the WHERE clause take the ply before the batch's first move: a batch that does not
+    // follow on from the stored current_ply matches no row and is refused. A packed column that does not cover
+    // every earlier ply is left alone; GameService backfills it on load.
+    private static final String UPDATE_MATCH = "UPDATE matches SET"
+            + " checkpoint_interval = COALESCE(checkpoint_interval, ?),"
+            + " move_checkpoints = IF(COALESCE(LENGTH(move_checkpoints), 0)"
+            + " = " + PackedPosition.SIZE + " * (? DIV checkpoint_interval),"
+            + " CONCAT(COALESCE(move_checkpoints, ''), ?), move_checkpoints),"
+            + " move_codes = IF(COALESCE(LENGTH(move_codes), 0) = 2 * ?,"
+            + " CONCAT(COALESCE(move_codes, ''), ?), move_codes),"
+            + " move_times = IF(COALESCE(LENGTH(move_times), 0) = 2 * ?,"
+            + " CONCAT(COALESCE(move_times, ''), ?), move_times),"
+            + " fen_current = ?, last_move_uci = ?, current_ply = ?, updated_at = ?,"
+            + " status = COALESCE(?, status), finished_at = COALESCE(?, finished_at)"
+            + " WHERE id = ? AND COALESCE(current_ply, 0) = ?";
+
+    private static final long MAX_RETRY_DELAY_MILLIS = 5000;
+    // Moves the database refused for good, one line each, next to the journal
+    private static final String QUARANTINE_FILE = "quarantine.log";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path journalDir;
+    private final long segmentSize;
+    private final boolean mappedJournal;
+    private final long flushIntervalNanos;
+    private final long syncLingerNanos;
+    private final int maxBatch;
+    private final long awaitTimeoutMillis;
+    private final boolean writeMoveRows;
+
+    private final BlockingQueue<PendingMove> queue = new LinkedBlockingQueue<>();
+    // Last queued move of each match that still has unwritten moves
+    private final Map<Long, CompletableFuture<Void>> lastWrites = new ConcurrentHashMap<>();
+    // Matches with a quarantined move; their stored game ends before it, so nothing after it can be saved
+    private final Set<Long> failedMatches = ConcurrentHashMap.newKeySet();
+    // Guards the journal, and keeps appends and queueing in the same order
+    private final Object journalLock = new Object();
+    private MoveJournal journal;
+    private Thread writer;
+    private Thread syncer;
+    // Futures of appended moves waiting for the next journal sync, in append order; guarded by journalLock
+    private List<CompletableFuture<Void>> unsynced = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private final Counter persisted;
+    private final Counter failures;
+    private final Counter quarantined;
+    private final DistributionSummary batchSizes;
+    private final Timer flushTimer;
+    private final Timer syncTimer;
+
+    /** One move as it goes to the {@code moves} table, plus the match's final status if it ended the game. */
+    static final class PendingMove {
+        private final long matchId;
+        private final int ply;
+        private final int move;
+        private final boolean white;
+        private final String uci;
+        private final String san;
+        private final String piece;
+        private final String promotedTo;
+        private final String capturedPiece;
+        private final boolean castled;
+        private final boolean enPassant;
+        private final boolean promotion;
+        private final int fromRow;
+        private final int fromCol;
+        private final int toRow;
+        private final int toCol;
+        private final String fenBefore;
+        private final String fenAfter;
+        private final LocalDateTime createdAt;
+        private final MatchStatus finalStatus;
+        private final int thinkTime;
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+        private long segment;
+        private int checkpointInterval;
+        private byte[] checkpoint;
+
+        private PendingMove(long matchId, int ply, int move, boolean white, String uci, String san, String piece,
+                String promotedTo, String capturedPiece, boolean castled, boolean enPassant, boolean promotion,
+                int fromRow, int fromCol, int toRow, int toCol, String fenBefore, String fenAfter,
+                LocalDateTime createdAt, MatchStatus finalStatus, int thinkTime) {
+            this.matchId = matchId;
+            this.ply = ply;
+            this.move = move;
+            this.white = white;
+            this.uci = uci;
+            this.san = san;
+            this.piece = piece;
+            this.promotedTo = promotedTo;
+            this.capturedPiece = capturedPiece;
+            this.castled = castled;
+            this.enPassant = enPassant;
+            this.promotion = promotion;
+            this.fromRow = fromRow;
+            this.fromCol = fromCol;
+            this.toRow = toRow;
+            this.toCol = toCol;
+            this.fenBefore = fenBefore;
+            this.fenAfter = fenAfter;
+            this.createdAt = createdAt;
+            this.finalStatus = finalStatus;
+            this.thinkTime = thinkTime;
+        }
+
+        /**
+         * {@code move} is the engine move; {@code request} describes it as the moves table stores it.
+         * {@code thinkTime} is in tenths of a second, see {@code PackedMoves.toTenths}.
+         */
+        static PendingMove of(Long matchId, int ply, int move, MoveRequest request, String uci, String san,
+                MatchStatus finalStatus, LocalDateTime createdAt, int thinkTime) {
+            return new PendingMove(matchId, ply, move, "white".equalsIgnoreCase(request.getPlayerColor()), uci, san,
+                    request.getPiece(), request.getPromotedTo(), request.getCapturedPiece(),
+                    Boolean.TRUE.equals(request.getCastled()), Boolean.TRUE.equals(request.getIsEnPassant()),
+                    Boolean.TRUE.equals(request.getIsPromotion()), request.getFromRow(), request.getFromCol(),
+                    request.getToRow(), request.getToCol(), request.getFenBefore(), request.getFenAfter(),
+                    createdAt, finalStatus, thinkTime);
+        }
+
+        String san() {
+            return san;
+        }
+
+        int thinkTime() {
+            return thinkTime;
+        }
+
+        /** The game's checkpoint interval, and the packed position after this move if its ply is a multiple of it. */
+        PendingMove withCheckpoint(int interval, byte[] position) {
+            this.checkpointInterval = interval;
+            this.checkpoint = position;
+            return this;
+        }
+    }
+
+    public MoveWriter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+            @Value("${game.journal.dir:data/journal}") String journalDir,
+            @Value("${game.journal.segment-size-mb:16}") int segmentSizeMb,
+            @Value("${game.journal.mmap:false}") boolean mappedJournal,
+            @Value("${game.journal.sync-linger-us:500}") long syncLingerMicros,
+            @Value("${game.persistence.flush-interval-ms:5}") long flushIntervalMillis,
+            @Value("${game.persistence.max-batch:500}") int maxBatch,
+            @Value("${game.persistence.await-timeout-ms:5000}") long awaitTimeoutMillis,
+            @Value("${game.storage.move-rows:true}") boolean writeMoveRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.journalDir = Path.of(journalDir);
+        this.segmentSize = segmentSizeMb * 1024L * 1024L;
+        this.mappedJournal = mappedJournal;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.syncLingerNanos = TimeUnit.MICROSECONDS.toNanos(syncLingerMicros);
+        this.maxBatch = maxBatch;
+        this.awaitTimeoutMillis = awaitTimeoutMillis;
+        this.writeMoveRows = writeMoveRows;
+
+        this.persisted = Counter.builder("game.moves.persisted").register(meterRegistry);
+        this.failures = Counter.builder("game.moves.persist.failures")
+                .description("Failed attempts to save a batch")
+                .register(meterRegistry);
+        this.quarantined = Counter.builder("game.moves.quarantined")
+                .description("Moves the database refused for good, logged to " + QUARANTINE_FILE)
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("game.moves.batch.size").register(meterRegistry);
+        this.flushTimer = Timer.builder("game.moves.flush").register(meterRegistry);
+        this.syncTimer = Timer.builder("game.journal.sync")
+                .description("Forcing the journal for one group of moves, linger included")
+                .register(meterRegistry);
+        Gauge.builder("game.moves.pending", queue, BlockingQueue::size)
+                .description("Moves acknowledged but not yet in the database")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        journal = new MoveJournal(journalDir, segmentSize, mappedJournal);
+
+        syncer = new Thread(this::sync, "journal-sync");
+        syncer.setDaemon(true);
+        syncer.start();
+
+        writer = new Thread(this::run, "move-writer");
+        writer.setDaemon(true);
+        writer.start();
+        System.out.println("💾 Move writer started, journal in " + journalDir.toAbsolutePath()
+                + (mappedJournal ? " (mapped)" : ""));
+    }
+
+    /**
+     * Journals the move and queues it for the database. The returned future
+     * completes once the move's journal record is on disk; the move reaches
+     * the database with the writer's next batch.
+     */
+    public CompletableFuture<Void> write(PendingMove move) {
+        if (failedMatches.contains(move.matchId)) {
+            throw new IllegalStateException("Game " + move.matchId + " has a move that could not be saved;"
+                    + " no further moves are accepted");
+        }
+        long timestamp = move.createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        synchronized (journalLock) {
+            try {
+                move.segment = journal.append(move.matchId, move.ply, Move.code(move.move), timestamp);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to journal move for game " + move.matchId, e);
+            }
+            lastWrites.put(move.matchId, move.written);
+            queue.add(move);
+            unsynced.add(durable);
+            journalLock.notify();
+        }
+        return durable;
+    }
+
+    /** Whether every move queued so far for this match is in the database (or quarantined). */
+    public boolean isPersisted(Long matchId) {
+        return !lastWrites.containsKey(matchId);
+    }
+
+    /**
+     * Completes once the writer is done with every move queued so far for this
+     * match, whether it saved or quarantined them. Fails after the await timeout.
+     */
+    public CompletableFuture<Void> persisted(Long matchId) {
+        CompletableFuture<Void> last = lastWrites.get(matchId);
+        if (last == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return last.handle((ignored, error) -> (Void) null)
+                .orTimeout(awaitTimeoutMillis, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    throw new RuntimeException("Moves for game " + matchId + " are still waiting to be saved");
+                });
+    }
+
+    /**
+     * Blocks until every move queued so far for this match is in the database.
+     * For request threads only; tasks in a match mailbox wait on {@link #persisted(Long)}.
+     */
+    public void awaitPersisted(Long matchId) {
+        CompletableFuture<Void> last = lastWrites.get(matchId);
+        if (last == null) {
+            return;
+        }
+        try {
+            last.get(awaitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Moves for game " + matchId + " are still waiting to be saved");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for game " + matchId + " to be saved");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to save moves for game " + matchId, e.getCause());
+        }
+    }
+
+    // Group commit: waits for an append, lingers so others can share the force, then forces once for all of them
+    private void sync() {
+        while (true) {
+            List<CompletableFuture<Void>> group;
+            try {
+                synchronized (journalLock) {
+                    while (unsynced.isEmpty()) {
+                        if (!running) {
+                            return;
+                        }
+                        journalLock.wait(100);
+                    }
+                }
+                long start = System.nanoTime();
+                if (syncLingerNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(syncLingerNanos);
+                }
+                synchronized (journalLock) {
+                    group = unsynced;
+                    unsynced = new ArrayList<>();
+                }
+                // Every record in the group was appended before this force starts
+                forceWithRetry();
+                syncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            for (CompletableFuture<Void> durable : group) {
+                durable.complete(null);
+            }
+        }
+    }
+
+    private void run() {
+        List<PendingMove> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingMove first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                flushWithRetry(batch);
+            } catch (InterruptedException e) {
+                // Shutdown: anything not written stays in the journal for the next start
+                break;
+            }
+            batch.clear();
+        }
+    }
+
+    // Waits up to the flush interval for more moves to share the round-trip
+    private void collect(List<PendingMove> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < maxBatch) {
+            queue.drainTo(batch, maxBatch - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatch || remaining <= 0) {
+                return;
+            }
+            PendingMove next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flushWithRetry(List<PendingMove> batch) throws InterruptedException {
+        long start = System.nanoTime();
+        int saved = batch.size();
+        RuntimeException error = failedMatches.isEmpty() ? writeWithRetry(batch, true) : refuseFailed(batch);
+        if (error != null) {
+            // One bad move must not hold up every other match: save game by game, then move by move
+            System.err.println("❌ Failed to save " + batch.size() + " moves, saving them one game at a time: "
+                    + error.getMessage());
+            saved = 0;
+            for (List<PendingMove> moves : byMatch(batch).values()) {
+                if (failedMatches.contains(moves.get(0).matchId)) {
+                    quarantineAll(moves, new IllegalStateException("An earlier move of the game was quarantined"));
+                } else {
+                    saved += writeWithRetry(moves, true) == null ? moves.size() : writeOneByOne(moves);
+                }
+            }
+        }
+        try {
+            // Journal order is queue order, so every segment before this batch's last one is handled
+            journal.release(batch.get(batch.size() - 1).segment);
+        } catch (IOException e) {
+            System.err.println("⚠️ Failed to delete old journal segments: " + e.getMessage());
+        }
+        for (PendingMove move : batch) {
+            move.written.complete(null);
+            lastWrites.remove(move.matchId, move.written);
+        }
+        persisted.increment(saved);
+        batchSizes.record(batch.size());
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void forceWithRetry() throws InterruptedException {
+        long delay = 100;
+        while (true) {
+            try {
+                journal.force();
+                return;
+            } catch (IOException e) {
+                System.err.println("❌ Failed to force the move journal, retrying in " + delay + "ms: "
+                        + e.getMessage());
+                Thread.sleep(delay);
+                delay = Math.min(delay * 2, MAX_RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Writes the moves in one transaction, retrying for as long as the failure
+     * is transient. Returns null once written, or the error that retrying
+     * cannot fix.
+     */
+    private RuntimeException writeWithRetry(List<PendingMove> moves, boolean withRows) throws InterruptedException {
+        long delay = 100;
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> writeBatch(moves, withRows));
+                return null;
+            } catch (RuntimeException e) {
+                failures.increment();
+                if (!isTransient(e)) {
+                    return e;
+                }
+                System.err.println("❌ Failed to save " + moves.size() + " moves, retrying in " + delay + "ms: "
+                        + e.getMessage());
+                Thread.sleep(delay);
+                delay = Math.min(delay * 2, MAX_RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    // One match's moves in ply order. A move whose row is refused is still appended to the match without
+    // it; one the match itself refuses is quarantined with every later move, since the packed columns
+    // cannot have a hole. Returns how many were saved
+    private int writeOneByOne(List<PendingMove> moves) throws InterruptedException {
+        for (int i = 0; i < moves.size(); i++) {
+            PendingMove move = moves.get(i);
+            RuntimeException error = writeWithRetry(List.of(move), true);
+            if (error != null && writeMoveRows) {
+                System.err.println("⚠️ Move row " + move.ply + " of game " + move.matchId + " was refused, saving"
+                        + " the move without it: " + error.getMessage());
+                error = writeWithRetry(List.of(move), false);
+            }
+            if (error != null) {
+                quarantineAll(moves.subList(i, moves.size()), error);
+                return i;
+            }
+        }
+        return moves.size();
+    }
+
+    // A batch holding moves of a failed match goes straight to the game-by-game path
+    private RuntimeException refuseFailed(List<PendingMove> batch) throws InterruptedException {
+        for (PendingMove move : batch) {
+            if (failedMatches.contains(move.matchId)) {
+                return new IllegalStateException("Batch has moves of game " + move.matchId
+                        + ", which has a quarantined move");
+            }
+        }
+        return writeWithRetry(batch, true);
+    }
+
+    private void quarantineAll(List<PendingMove> moves, RuntimeException error) {
+        failedMatches.add(moves.get(0).matchId);
+        for (PendingMove move : moves) {
+            quarantine(move, error);
+        }
+    }
+
+    private void quarantine(PendingMove move, RuntimeException error) {
+        quarantined.increment();
+        String line = LocalDateTime.now() + " game=" + move.matchId + " ply=" + move.ply + " uci=" + move.uci
+                + " san=" + move.san + " fenAfter=" + move.fenAfter + " error=" + error.getMessage();
+        System.err.println("🚫 Quarantined move: " + line);
+        try {
+            Files.writeString(journalDir.resolve(QUARANTINE_FILE), line + System.lineSeparator(),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("⚠️ Failed to record quarantined move: " + e.getMessage());
+        }
+        move.written.completeExceptionally(error);
+    }
+
+    // Connection, lock and timeout failures pass; anything else fails the same way on every attempt
+    private static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException || cause instanceof TransactionException
+                    || cause instanceof SQLTransientException || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<Long, List<PendingMove>> byMatch(List<PendingMove> moves) {
+        Map<Long, List<PendingMove>> byMatch = new LinkedHashMap<>();
+        for (PendingMove move : moves) {
+            byMatch.computeIfAbsent(move.matchId, id -> new ArrayList<>()).add(move);
+        }
+        return byMatch;
+    }
+
+    private void writeBatch(List<PendingMove> batch, boolean withRows) {
+        if (withRows && writeMoveRows) {
+            insertMoveRows(batch);
+        }
+
+        // One update per match: its new plies are appended to the packed columns in one go
+        Map<Long, List<PendingMove>> byMatch = byMatch(batch);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<List<PendingMove>> matches = new ArrayList<>(byMatch.values());
+        int[][] updated = jdbcTemplate.batchUpdate(UPDATE_MATCH, matches, matches.size(), (ps, moves) -> {
+            byte[] codes = new byte[moves.size() * PackedMoves.BYTES_PER_MOVE];
+            byte[] times = new byte[codes.length];
+            ByteArrayOutputStream checkpoints = new ByteArrayOutputStream();
+            for (int i = 0; i < moves.size(); i++) {
+                PendingMove move = moves.get(i);
+                PackedMoves.put(codes, i, Move.code(move.move));
+                PackedMoves.put(times, i, move.thinkTime);
+                if (move.checkpoint != null) {
+                    checkpoints.writeBytes(move.checkpoint);
+                }
+            }
+            int previousPly = moves.get(0).ply - 1;
+            PendingMove last = moves.get(moves.size() - 1);
+            ps.setInt(1, last.checkpointInterval);
+            ps.setInt(2, previousPly);
+            ps.setBytes(3, checkpoints.toByteArray());
+            ps.setInt(4, previousPly);
+            ps.setBytes(5, codes);
+            ps.setInt(6, previousPly);
+            ps.setBytes(7, times);
+            ps.setString(8, last.fenAfter);
+            ps.setString(9, last.uci);
+            ps.setInt(10, last.ply);
+            ps.setTimestamp(11, now);
+            ps.setString(12, last.finalStatus != null ? last.finalStatus.name() : null);
+            ps.setTimestamp(13, last.finalStatus != null ? Timestamp.valueOf(last.createdAt) : null);
+            ps.setLong(14, last.matchId);
+            ps.setInt(15, previousPly);
+        });
+        // Rolls the whole transaction back, move rows included
+        for (int i = 0; i < matches.size(); i++) {
+            if (updated[0][i] == 0) {
+                List<PendingMove> moves = matches.get(i);
+                throw new JdbcUpdateAffectedIncorrectNumberOfRowsException("Game " + moves.get(0).matchId
+                        + " is not at ply " + (moves.get(0).ply - 1) + ", so plies " + moves.get(0).ply + ".."
+                        + moves.get(moves.size() - 1).ply + " cannot follow on", 1, 0);
+            }
+        }
+    }
+
+    private void insertMoveRows(List<PendingMove> batch) {
+        jdbcTemplate.batchUpdate(INSERT_MOVE, batch, batch.size(), (ps, move) -> {
+            ps.setLong(1, move.matchId);
+            ps.setInt(2, move.ply);
+            ps.setInt(3, (move.ply - 1) / 2 + 1);
+            ps.setString(4, move.white ? "WHITE" : "BLACK");
+            ps.setString(5, move.uci);
+            ps.setString(6, move.san);
+            ps.setString(7, move.piece);
+            ps.setString(8, move.promotedTo);
+            ps.setString(9, move.capturedPiece);
+            ps.setBoolean(10, move.castled);
+            ps.setBoolean(11, move.enPassant);
+            ps.setBoolean(12, move.promotion);
+            ps.setInt(13, move.fromRow);
+            ps.setInt(14, move.fromCol);
+            ps.setInt(15, move.toRow);
+            ps.setInt(16, move.toCol);
+            ps.setString(17, move.fenBefore);
+            ps.setString(18, move.fenAfter);
+            ps.setTimestamp(19, Timestamp.valueOf(move.createdAt));
+        });
+    }
+
+    /** Moves journalled by the last run, oldest first. Some may already be in the database. */
+    List<MoveJournal.Entry> journalTail() throws IOException {
+        return journal.readTail();
+    }
+
+    /**
+     * Writes moves rebuilt from the journal tail, then drops the tail. Runs at
+     * startup, before any new move is queued.
+     */
+    void writeRecovered(List<PendingMove> moves) throws IOException {
+        for (int i = 0; i < moves.size(); i += maxBatch) {
+            List<PendingMove> batch = moves.subList(i, Math.min(moves.size(), i + maxBatch));
+            transactionTemplate.executeWithoutResult(status -> writeBatch(batch, true));
+        }
+        persisted.increment(moves.size());
+        journal.releaseTail();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException, IOException {
+        running = false;
+        if (syncer != null) {
+            syncer.join(TimeUnit.SECONDS.toMillis(10));
+            syncer.interrupt();
+        }
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+            writer.interrupt();
+        }
+        if (journal != null) {
+            synchronized (journalLock) {
+                journal.close();
+            }
+        }
+    }
+}
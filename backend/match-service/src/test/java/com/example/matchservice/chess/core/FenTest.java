@@ -0,0 +1,69 @@
+package com.example.matchservice.chess.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FenTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            Fen.INITIAL,
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 17 42"
+    })
+    void formatsWhatItParsed(String fen) {
+        assertEquals(fen, Fen.format(Fen.parse(fen)));
+    }
+
+    // No white pawn can take on e6, so the square is dropped
+    @Test
+    void dropsAnEnPassantSquareNoPawnCanTakeOn() {
+        Position position = Fen.parse("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq e6 0 2");
+
+        assertEquals(Square.NONE, position.epSquare());
+        assertEquals("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 2", Fen.format(position));
+    }
+
+    // e2e4 gives black nothing to take en passant, so it must hash like the same position without a square
+    @Test
+    void doublePushOnlySetsACapturableSquare() {
+        Position position = Fen.parse(Fen.INITIAL);
+        position.makeMove(find(position, "e2", "e4"));
+
+        assertEquals(Square.NONE, position.epSquare());
+        assertEquals(Fen.parse("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1").hash(), position.hash());
+        assertEquals(Zobrist.compute(position), position.hash());
+
+        position = Fen.parse("rnbqkbnr/ppp1pppp/8/4P3/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 2");
+        position.makeMove(find(position, "f7", "f5"));
+
+        assertEquals("rnbqkbnr/ppp1p1pp/8/4Pp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3", Fen.format(position));
+        assertEquals(Zobrist.compute(position), position.hash());
+    }
+
+    private static int find(Position position, String from, String to) {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(position, moves);
+        return moves.find(Square.parse(from), Square.parse(to), 0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            Fen.INITIAL,
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 17 42"
+    })
+    void packedPositionKeepsEveryField(String fen) {
+        Position position = Fen.parse(fen);
+        Position decoded = PackedPosition.decode(PackedPosition.encode(position));
+
+        assertEquals(fen, Fen.format(decoded));
+        assertEquals(position.hash(), decoded.hash());
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.matchservice.chess.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PackedMovesTest {
+
+    @Test
+    void decodesWhatItEncoded() {
+        int[] values = {0, 1, 0x7FFF, 0x8000, 0xFFFF, Square.of(4, 1) | Square.of(4, 3) << 6};
+        byte[] packed = PackedMoves.encode(values);
+
+        assertEquals(values.length * PackedMoves.BYTES_PER_MOVE, packed.length);
+        assertEquals(values.length, PackedMoves.count(packed));
+        assertArrayEquals(values, PackedMoves.decode(packed));
+        assertEquals(0xFFFF, PackedMoves.get(packed, 4));
+    }
+
+    @Test
+    void replayingMoveCodesRebuildsThePosition() {
+        Position position = Position.initial();
+        MoveList moves = new MoveList();
+        int[] codes = new int[8];
+        // Always the last legal move, which covers captures and castling soon enough
+        for (int ply = 0; ply < codes.length; ply++) {
+            MoveGenerator.generateLegal(position, moves);
+            int move = moves.get(moves.size() - 1);
+            codes[ply] = Move.code(move);
+            position.makeMove(move);
+        }
+
+        Position replayed = Position.initial();
+        for (int code : PackedMoves.decode(PackedMoves.encode(codes))) {
+            MoveGenerator.generateLegal(replayed, moves);
+            replayed.makeMove(moves.find(Move.from(code), Move.to(code), Move.promotion(code)));
+        }
+        assertEquals(Fen.format(position), Fen.format(replayed));
+    }
+
+    @Test
+    void thinkTimesAreCapped() {
+        assertEquals(0, PackedMoves.toTenths(-5));
+        assertEquals(12, PackedMoves.toTenths(1_299));
+        assertEquals(0xFFFF, PackedMoves.toTenths(Long.MAX_VALUE));
+        assertEquals(1_200, PackedMoves.toMillis(12));
+    }
+}
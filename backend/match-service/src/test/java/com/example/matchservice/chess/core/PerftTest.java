@@ -0,0 +1,30 @@
+package com.example.matchservice.chess.core;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PerftTest {
+
+    // The standard perft positions with their published node counts at depths 1 to 3
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1; 20; 400; 8902",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1; 48; 2039; 97862",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1; 14; 191; 2812",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1; 6; 264; 9467",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8; 44; 1486; 62379",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10; 46; 2079; 89890"
+    })
+    void countsMatchPublishedValues(String fen, long depth1, long depth2, long depth3) {
+        Perft perft = new Perft(3);
+        Position position = Fen.parse(fen);
+
+        assertEquals(depth1, perft.count(position, 1));
+        assertEquals(depth2, perft.count(position, 2));
+        assertEquals(depth3, perft.count(position, 3));
+        // Make and unmake must leave the position as it was
+        assertEquals(fen, Fen.format(position));
+    }
+}
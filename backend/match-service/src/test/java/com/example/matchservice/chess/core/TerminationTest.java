@@ -0,0 +1,78 @@
+package com.example.matchservice.chess.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TerminationTest {
+
+    @Test
+    void foolsMateIsCheckmate() {
+        Termination termination = Termination.detect(
+                Fen.parse("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3"));
+
+        assertEquals(Termination.CHECKMATE, termination);
+        assertFalse(termination.isDraw());
+    }
+
+    @Test
+    void noMovesOutOfCheckIsStalemate() {
+        assertEquals(Termination.STALEMATE, Termination.detect(Fen.parse("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1")));
+    }
+
+    // Mate on the hundredth half-move still ends the game as checkmate
+    @Test
+    void fiftyMoveRuleEndsTheGameButNotAMate() {
+        assertEquals(Termination.FIFTY_MOVE_RULE,
+                Termination.detect(Fen.parse("4k3/8/8/8/8/8/R7/4K3 w - - 100 80")));
+        assertNull(Termination.detect(Fen.parse("4k3/8/8/8/8/8/R7/4K3 w - - 99 80")));
+        assertEquals(Termination.CHECKMATE,
+                Termination.detect(Fen.parse("R3k3/8/4K3/8/8/8/8/8 b - - 100 80")));
+    }
+
+    @Test
+    void thirdOccurrenceIsRepetition() {
+        Position position = Fen.parse(Fen.INITIAL);
+        String[] shuffle = {"g1", "f3", "g8", "f6", "f3", "g1", "f6", "g8"};
+        for (int round = 0; round < 2; round++) {
+            assertNull(Termination.detect(position));
+            for (int i = 0; i < shuffle.length; i += 2) {
+                position.makeMove(find(position, shuffle[i], shuffle[i + 1]));
+            }
+        }
+
+        assertEquals(Termination.THREEFOLD_REPETITION, Termination.detect(position));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "4k3/8/8/8/8/8/8/4K3 w - - 0 1",
+            "4k3/8/8/8/8/8/8/2N1K3 w - - 0 1",
+            "4k3/8/8/8/8/8/8/2B1K3 b - - 0 1",
+            "2b1k3/8/8/8/8/8/8/3BK3 w - - 0 1"
+    })
+    void barePiecesAreInsufficientMaterial(String fen) {
+        assertEquals(Termination.INSUFFICIENT_MATERIAL, Termination.detect(Fen.parse(fen)));
+    }
+
+    // Bishops on both square colours, two knights or a single pawn can still mate
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "3bk3/8/8/8/8/8/8/3BK3 w - - 0 1",
+            "4k3/8/8/8/8/8/8/1NN1K3 w - - 0 1",
+            "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1"
+    })
+    void matingMaterialPlaysOn(String fen) {
+        assertFalse(Termination.isInsufficientMaterial(Fen.parse(fen)));
+    }
+
+    private static int find(Position position, String from, String to) {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateLegal(position, moves);
+        return moves.find(Square.parse(from), Square.parse(to), 0);
+    }
+}
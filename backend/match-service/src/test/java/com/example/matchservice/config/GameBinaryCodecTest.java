@@ -0,0 +1,103 @@
+package com.example.matchservice.config;
+
+import com.example.matchservice.model.DTO.GameStatusDTO;
+import com.example.matchservice.model.DTO.MatchEvent;
+import com.example.matchservice.model.DTO.MoveEvent;
+import com.example.matchservice.model.DTO.MoveRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameBinaryCodecTest {
+
+    @Test
+    void moveRequestRoundTrip() {
+        MoveRequest request = new MoveRequest();
+        // e7-e8, promoting to a queen
+        request.setFromRow(1);
+        request.setFromCol(4);
+        request.setToRow(0);
+        request.setToCol(4);
+        request.setPromotedTo("Q");
+        request.setPlayerColor("white");
+
+        MoveRequest decoded = (MoveRequest) GameBinaryCodec.decode(GameBinaryCodec.encode(request), MoveRequest.class);
+
+        assertEquals(1, decoded.getFromRow());
+        assertEquals(4, decoded.getFromCol());
+        assertEquals(0, decoded.getToRow());
+        assertEquals(4, decoded.getToCol());
+        assertEquals("q", decoded.getPromotedTo());
+        assertTrue(decoded.getIsPromotion());
+        assertEquals("white", decoded.getPlayerColor());
+    }
+
+    @Test
+    void moveEventRoundTrip() {
+        MoveEvent event = new MoveEvent(42L, 17, 12 | 28 << 6, "Nxe4+", "8e2a5c1f", 1_234);
+
+        MoveEvent decoded = (MoveEvent) GameBinaryCodec.decode(GameBinaryCodec.encode(event), MoveEvent.class);
+
+        assertEquals(42L, decoded.getMatchId());
+        assertEquals(17, decoded.getPly());
+        assertEquals(12 | 28 << 6, decoded.getMove());
+        assertEquals("Nxe4+", decoded.getSan());
+        assertEquals("8e2a5c1f", decoded.getPositionHash());
+        assertEquals(1_234, decoded.getThinkTime());
+    }
+
+    @Test
+    void matchEventWithStatusRoundTrip() {
+        GameStatusDTO status = new GameStatusDTO();
+        status.setMatchId(9L);
+        status.setStatus("IN_PROGRESS");
+        status.setPlayerColor("black");
+        status.setFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1");
+        status.setMyTurn(true);
+        status.setPly(1);
+        status.setPositionHash("0a1b2c3d");
+
+        Object decoded = GameBinaryCodec.decode(
+                GameBinaryCodec.encode(new MatchEvent(MatchEvent.Type.STATE, 9L, status)), MatchEvent.class);
+
+        MatchEvent event = assertInstanceOf(MatchEvent.class, decoded);
+        assertEquals(MatchEvent.Type.STATE, event.getType());
+        assertEquals(9L, event.getMatchId());
+        GameStatusDTO data = assertInstanceOf(GameStatusDTO.class, event.getData());
+        assertEquals(9L, data.getMatchId());
+        assertEquals("IN_PROGRESS", data.getStatus());
+        assertEquals("black", data.getPlayerColor());
+        assertEquals(status.getFen(), data.getFen());
+        assertTrue(data.isMyTurn());
+        assertFalse(data.isWhiteTurn());
+        assertEquals(1, data.getPly());
+        assertEquals("0a1b2c3d", data.getPositionHash());
+        assertNull(data.getResult());
+        assertNull(data.getReason());
+    }
+
+    @Test
+    void statusWithMovesStaysJson() {
+        GameStatusDTO status = new GameStatusDTO();
+        status.setMoves(List.of());
+
+        assertNull(GameBinaryCodec.encode(status));
+        assertNull(GameBinaryCodec.encode(new MatchEvent(MatchEvent.Type.JOINED, 1L, status)));
+    }
+
+    @Test
+    void truncatedMessageIsRejected() {
+        byte[] bytes = GameBinaryCodec.encode(new MoveEvent(1L, 1, 0, "e4", null, 0));
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+
+        assertThrows(IllegalArgumentException.class, () -> GameBinaryCodec.decode(truncated, MoveEvent.class));
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.matchservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboundQueueSessionTest {
+
+    private static final String KEY = OutboundQueues.CONFLATION_KEY_HEADER + ":/topic/match/1\n";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Socket socket = new Socket();
+    private OutboundQueues queues;
+
+    @AfterEach
+    void stop() {
+        socket.open.countDown();
+        if (queues != null) {
+            queues.shutdown();
+        }
+    }
+
+    // A newer snapshot replaces the queued one; frames without a key keep their place
+    @Test
+    void newerSnapshotReplacesTheQueuedOne() throws Exception {
+        OutboundQueueSession session = session(256, 512);
+        session.sendMessage(frame("move-1", false));
+        socket.started.await(5, TimeUnit.SECONDS);
+        session.sendMessage(frame("snapshot-1", true));
+        session.sendMessage(frame("move-2", false));
+        session.sendMessage(frame("snapshot-2", true));
+        socket.open.countDown();
+
+        assertEquals(List.of("move-1", "move-2", "snapshot-2"), socket.bodies(3));
+        assertEquals(1, meterRegistry.get("game.ws.outbound.conflated").counter().count());
+    }
+
+    @Test
+    void conflationKeyNeverReachesTheClient() throws Exception {
+        OutboundQueueSession session = session(256, 512);
+        socket.open.countDown();
+        byte[] binary = frame("binary", true).getPayload().getBytes(StandardCharsets.ISO_8859_1);
+
+        for (WebSocketMessage<?> message : List.of(frame("text", true), new BinaryMessage(binary))) {
+            session.sendMessage(message);
+            WebSocketMessage<?> sent = socket.sent.poll(5, TimeUnit.SECONDS);
+            String payload = sent instanceof BinaryMessage binaryMessage
+                    ? StandardCharsets.ISO_8859_1.decode(binaryMessage.getPayload()).toString()
+                    : ((TextMessage) sent).getPayload();
+            assertFalse(payload.contains(OutboundQueues.CONFLATION_KEY_HEADER), payload);
+            assertTrue(payload.startsWith("MESSAGE\ndestination:/topic/match/1\n\n"), payload);
+        }
+    }
+
+    @Test
+    void tooManyQueuedFramesCloseTheSession() throws Exception {
+        OutboundQueueSession session = session(3, 512);
+        session.sendMessage(frame("first", false));
+        socket.started.await(5, TimeUnit.SECONDS);
+
+        SessionLimitExceededException error = assertThrows(SessionLimitExceededException.class, () -> {
+            for (int i = 0; i < 10; i++) {
+                session.sendMessage(frame("move-" + i, false));
+            }
+        });
+        assertEquals(OutboundQueues.RESYNC, error.getStatus());
+        assertEquals(0, session.depth());
+
+        // Anything sent afterwards is dropped rather than queued
+        session.sendMessage(frame("late", false));
+        socket.open.countDown();
+        assertEquals(List.of("first"), socket.bodies(1));
+        assertNull(socket.sent.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(1, meterRegistry.get("game.ws.outbound.disconnects").counter().count());
+    }
+
+    @Test
+    void tooManyQueuedBytesCloseTheSession() throws Exception {
+        OutboundQueueSession session = session(256, 1);
+        session.sendMessage(frame("first", false));
+        socket.started.await(5, TimeUnit.SECONDS);
+        String large = "x".repeat(600);
+
+        session.sendMessage(frame(large, false));
+        SessionLimitExceededException error = assertThrows(SessionLimitExceededException.class,
+                () -> session.sendMessage(frame(large, false)));
+        assertEquals(OutboundQueues.RESYNC, error.getStatus());
+    }
+
+    @Test
+    void failedWriteClosesTheSessionForAResync() throws Exception {
+        OutboundQueueSession session = session(256, 512);
+        socket.failWrites = true;
+        socket.open.countDown();
+        session.sendMessage(frame("move", false));
+
+        assertEquals(OutboundQueues.RESYNC, socket.closes.poll(5, TimeUnit.SECONDS));
+    }
+
+    private OutboundQueueSession session(int maxFrames, int maxBufferKb) {
+        queues = new OutboundQueues(meterRegistry, maxFrames, maxBufferKb, 10_000, 1);
+        return new OutboundQueueSession(socket.session(), queues);
+    }
+
+    private static TextMessage frame(String body, boolean conflated) {
+        return new TextMessage("MESSAGE\ndestination:/topic/match/1\n" + (conflated ? KEY : "") + "\n" + body + "\0");
+    }
+
+    /** The socket under the queue; writes wait until it opens. */
+    private static final class Socket {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch open = new CountDownLatch(1);
+        final BlockingQueue<WebSocketMessage<?>> sent = new LinkedBlockingQueue<>();
+        final BlockingQueue<CloseStatus> closes = new LinkedBlockingQueue<>();
+        volatile boolean failWrites;
+
+        WebSocketSession session() {
+            return (WebSocketSession) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] {WebSocketSession.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "getId" -> "s1";
+                        case "isOpen" -> true;
+                        case "sendMessage" -> {
+                            started.countDown();
+                            open.await(5, TimeUnit.SECONDS);
+                            if (failWrites) {
+                                throw new IOException("Broken pipe");
+                            }
+                            sent.add((WebSocketMessage<?>) args[0]);
+                            yield null;
+                        }
+                        case "close" -> {
+                            closes.add(args != null ? (CloseStatus) args[0] : CloseStatus.NORMAL);
+                            yield null;
+                        }
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        case "toString" -> "socket";
+                        default -> null;
+                    });
+        }
+
+        List<String> bodies(int count) throws InterruptedException {
+            List<String> bodies = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                WebSocketMessage<?> message = sent.poll(5, TimeUnit.SECONDS);
+                if (message == null) {
+                    break;
+                }
+                String payload = ((TextMessage) message).getPayload();
+                bodies.add(payload.substring(payload.indexOf("\n\n") + 2, payload.length() - 1));
+            }
+            return bodies;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.matchservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RecipientInterceptorTest {
+
+    private final RecipientInterceptor interceptor = new RecipientInterceptor();
+
+    @Test
+    void playerEventReachesOnlyThatPlayersSessions() {
+        connect("s1", "alice");
+        connect("s2", "alice");
+        connect("s3", "bob");
+
+        assertNotNull(interceptor.preSend(broadcast("s1", "alice"), null));
+        assertNotNull(interceptor.preSend(broadcast("s2", "alice"), null));
+        assertNull(interceptor.preSend(broadcast("s3", "alice"), null));
+        // A spectator session that never authenticated
+        assertNull(interceptor.preSend(broadcast("s4", "alice"), null));
+    }
+
+    @Test
+    void broadcastWithoutARecipientReachesEveryone() {
+        connect("s1", "alice");
+
+        assertNotNull(interceptor.preSend(broadcast("s1", null), null));
+        assertNotNull(interceptor.preSend(broadcast("s4", null), null));
+    }
+
+    @Test
+    void disconnectForgetsTheSession() {
+        connect("s1", "alice");
+        StompHeaderAccessor disconnect = StompHeaderAccessor.create(StompCommand.DISCONNECT);
+        disconnect.setSessionId("s1");
+        interceptor.preSend(MessageBuilder.createMessage(new byte[0], disconnect.getMessageHeaders()), null);
+
+        assertNull(interceptor.preSend(broadcast("s1", "alice"), null));
+    }
+
+    private void connect(String sessionId, String username) {
+        StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+        connect.setSessionId(sessionId);
+        connect.setUser(() -> username);
+        interceptor.preSend(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()), null);
+    }
+
+    private static Message<byte[]> broadcast(String sessionId, String recipient) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(sessionId);
+        headers.setDestination("/topic/match/1");
+        if (recipient != null) {
+            headers.setHeader(RecipientInterceptor.RECIPIENT_HEADER, recipient);
+        }
+        return MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.matchservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MatchMailboxesTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MatchMailboxes mailboxes = new MatchMailboxes(meterRegistry, 4);
+
+    @AfterEach
+    void stop() {
+        mailboxes.shutdown();
+    }
+
+    // Tasks of one match never overlap and run in the order they were submitted
+    @Test
+    void runsOneMatchInSubmissionOrder() throws Exception {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger running = new AtomicInteger();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int task = i;
+            futures.add(mailboxes.execute(1L, () -> {
+                assertEquals(1, running.incrementAndGet());
+                order.add(task);
+                running.decrementAndGet();
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, order.get(i));
+        }
+    }
+
+    // A match stuck on a slow task does not hold up the others
+    @Test
+    void otherMatchesRunWhileOneIsBusy() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> blocked = mailboxes.execute(1L, () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        CompletableFuture<String> queued = mailboxes.submit(1L, () -> "after");
+
+        assertEquals("other", mailboxes.submit(2L, () -> "other").get(5, TimeUnit.SECONDS));
+        assertTrue(!blocked.isDone() && !queued.isDone());
+        release.countDown();
+        assertEquals("after", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failedTaskCompletesItsFutureAndTheMailboxGoesOn() throws Exception {
+        CompletableFuture<String> failed = mailboxes.submit(1L, () -> {
+            throw new RuntimeException("Illegal move");
+        });
+        CompletableFuture<String> next = mailboxes.submit(1L, () -> "next");
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RuntimeException.class, error.getCause());
+        assertEquals("next", next.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void drainedMailboxesAreDropped() throws Exception {
+        for (long matchId = 1; matchId <= 20; matchId++) {
+            mailboxes.submit(matchId, () -> null).get(5, TimeUnit.SECONDS);
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (active() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, active());
+    }
+
+    private double active() {
+        return meterRegistry.get("game.mailboxes.active").gauge().value();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.chess.core.Fen;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MoveHistoryTest {
+
+    // Clients compute the same value from their board, so it must not change
+    @Test
+    void positionHashIsCrc32OfThePiecePlacement() {
+        assertEquals("a98a9026", MoveHistory.positionHash(Fen.INITIAL));
+        assertEquals("a98a9026", MoveHistory.positionHash("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR"));
+    }
+
+    @Test
+    void positionHashIgnoresEverythingButThePieces() {
+        assertEquals(MoveHistory.positionHash("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1"),
+                MoveHistory.positionHash("4k3/8/8/8/8/8/4P3/4K3 b - - 12 40"));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.matchservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoveJournalTest {
+
+    private static final long SEGMENT_SIZE = 4 * MoveJournal.RECORD_SIZE;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void nextRunReadsWhatThisRunAppended() throws IOException {
+        try (MoveJournal journal = new MoveJournal(dir, SEGMENT_SIZE, false)) {
+            for (int ply = 1; ply <= 6; ply++) {
+                journal.append(7, ply, 100 + ply, 1_000L * ply);
+            }
+        }
+
+        try (MoveJournal journal = new MoveJournal(dir, SEGMENT_SIZE, true)) {
+            List<MoveJournal.Entry> entries = journal.readTail();
+            assertEquals(6, entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                MoveJournal.Entry entry = entries.get(i);
+                assertEquals(7, entry.matchId);
+                assertEquals(i + 1, entry.ply);
+                assertEquals(101 + i, entry.moveCode);
+                assertEquals(1_000L * (i + 1), entry.timestamp);
+            }
+        }
+    }
+
+    @Test
+    void recoveryStopsAtATornRecord() throws IOException {
+        try (MoveJournal journal = new MoveJournal(dir, SEGMENT_SIZE, false)) {
+            for (int ply = 1; ply <= 6; ply++) {
+                journal.append(7, ply, ply, ply);
+            }
+        }
+        // The third record, the last of those fully on disk, loses its second half mid-write
+        Path first = segments().get(0);
+        try (FileChannel channel = FileChannel.open(first, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(MoveJournal.RECORD_SIZE / 2),
+                    2L * MoveJournal.RECORD_SIZE + MoveJournal.RECORD_SIZE / 2);
+        }
+
+        try (MoveJournal journal = new MoveJournal(dir, SEGMENT_SIZE, false)) {
+            List<MoveJournal.Entry> entries = journal.readTail();
+            // Nothing after the torn record is trusted, including the next segment
+            assertEquals(2, entries.size());
+            assertEquals(2, entries.get(1).ply);
+        }
+    }
+
+    @Test
+    void releasedSegmentsAreDeleted() throws IOException {
+        try (MoveJournal journal = new MoveJournal(dir, SEGMENT_SIZE, false)) {
+            long last = 0;
+            for (int ply = 1; ply <= 9; ply++) {
+                last = journal.append(7, ply, ply, ply);
+            }
+            assertEquals(3, segments().size());
+
+            journal.release(last);
+            assertEquals(List.of(last), segments().stream().map(MoveJournalTest::number).toList());
+        }
+
+        try (MoveJournal journal = new MoveJournal(dir, SEGMENT_SIZE, false)) {
+            assertEquals(1, journal.readTail().size());
+            journal.releaseTail();
+            // Only the segment the new run opened is left
+            assertEquals(1, segments().size());
+            assertTrue(journal.readTail().isEmpty());
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static long number(Path segment) {
+        return Long.parseLong(segment.getFileName().toString().replaceAll("\\D", ""));
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.matchservice.service;
+
+import com.example.matchservice.chess.core.PackedMoves;
+import com.example.matchservice.model.DTO.MoveRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoveWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private final FakeDatabase database = new FakeDatabase();
+    private MoveWriter writer;
+
+    @AfterEach
+    void stop() throws Exception {
+        database.open.countDown();
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    void savesEveryMatchBehindTheJournal() throws Exception {
+        start();
+        for (int ply = 1; ply <= 3; ply++) {
+            writer.write(move(1, ply));
+            writer.write(move(2, ply));
+        }
+        database.open.countDown();
+
+        writer.awaitPersisted(1L);
+        writer.awaitPersisted(2L);
+        assertArrayEquals(new int[] {101, 102, 103}, database.codes(1));
+        assertArrayEquals(new int[] {201, 202, 203}, database.codes(2));
+        assertEquals(3, database.plies.get(1L));
+        assertEquals(6, database.rows.size());
+    }
+
+    @Test
+    void retriesTransientFailures() throws Exception {
+        database.transientFailures = 2;
+        start();
+        writer.write(move(1, 1));
+        database.open.countDown();
+
+        writer.awaitPersisted(1L);
+        assertArrayEquals(new int[] {101}, database.codes(1));
+        assertEquals(0, quarantined().size());
+    }
+
+    // Ply 2 is refused for good: ply 3 must not be appended in its slot, and the game takes no more moves
+    @Test
+    void quarantineStopsOnlyThatGame() throws Exception {
+        database.refusedMoves.add(102);
+        start();
+        for (int ply = 1; ply <= 3; ply++) {
+            writer.write(move(1, ply));
+            writer.write(move(2, ply));
+        }
+        database.open.countDown();
+
+        assertThrows(RuntimeException.class, () -> writer.awaitPersisted(1L));
+        writer.awaitPersisted(2L);
+        assertArrayEquals(new int[] {101}, database.codes(1));
+        assertEquals(1, database.plies.get(1L));
+        assertArrayEquals(new int[] {201, 202, 203}, database.codes(2));
+        assertEquals(2, quarantined().size());
+        assertThrows(IllegalStateException.class, () -> writer.write(move(1, 4)));
+    }
+
+    @Test
+    void savesAMoveWhoseRowIsRefusedWithoutTheRow() throws Exception {
+        database.refusedRows.add(102);
+        start();
+        for (int ply = 1; ply <= 3; ply++) {
+            writer.write(move(1, ply));
+        }
+        database.open.countDown();
+
+        writer.awaitPersisted(1L);
+        assertArrayEquals(new int[] {101, 102, 103}, database.codes(1));
+        assertEquals(List.of(101, 103), database.rows);
+        assertEquals(0, quarantined().size());
+    }
+
+    @Test
+    void refusesABatchThatDoesNotFollowTheStoredPly() throws Exception {
+        database.plies.put(1L, 5);
+        start();
+        writer.write(move(1, 3));
+        database.open.countDown();
+
+        assertThrows(RuntimeException.class, () -> writer.awaitPersisted(1L));
+        assertArrayEquals(new int[0], database.codes(1));
+        assertEquals(5, database.plies.get(1L));
+        assertEquals(1, quarantined().size());
+    }
+
+    private void start() throws IOException {
+        writer = new MoveWriter(database, new TransactionTemplate(database), new SimpleMeterRegistry(),
+                dir.toString(), 1, false, 0, 20, 500, 5000, true);
+        writer.start();
+    }
+
+    private List<String> quarantined() throws IOException {
+        Path log = dir.resolve("quarantine.log");
+        return Files.exists(log) ? Files.readAllLines(log) : List.of();
+    }
+
+    // The engine move is 100 * match + ply, so the stored codes show which ply went in which slot
+    private static MoveWriter.PendingMove move(long matchId, int ply) {
+        MoveRequest request = new MoveRequest();
+        request.setPlayerColor(ply % 2 == 1 ? "white" : "black");
+        request.setFromRow(6);
+        request.setFromCol(4);
+        request.setToRow(4);
+        request.setToCol(4);
+        return MoveWriter.PendingMove.of(matchId, ply, (int) (100 * matchId + ply), request, "e2e4", "e4", null,
+                LocalDateTime.now(), 10).withCheckpoint(16, null);
+    }
+
+    /**
+     * The matches table as UPDATE_MATCH changes it, and the moves rows. A
+     * transaction that fails rolls back to where it started.
+     */
+    private static final class FakeDatabase extends JdbcTemplate implements PlatformTransactionManager {
+
+        final CountDownLatch open = new CountDownLatch(1);
+        final Map<Long, Integer> plies = new HashMap<>();
+        final Map<Long, byte[]> codes = new HashMap<>();
+        final List<Integer> rows = new ArrayList<>();
+        // Moves, as 100 * match + ply, whose moves row or matches update the database refuses
+        final Set<Integer> refusedRows = new HashSet<>();
+        final Set<Integer> refusedMoves = new HashSet<>();
+        int transientFailures;
+
+        private Map<Long, Integer> savedPlies;
+        private Map<Long, byte[]> savedCodes;
+        private int savedRows;
+
+        int[] codes(long matchId) {
+            return PackedMoves.decode(codes.getOrDefault(matchId, new byte[0]));
+        }
+
+        @Override
+        public synchronized <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                ParameterizedPreparedStatementSetter<T> setter) {
+            try {
+                // Holds the writer until the test has queued everything, so later moves wait in the queue
+                open.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (transientFailures > 0) {
+                transientFailures--;
+                throw new TransientDataAccessResourceException("Connection reset");
+            }
+            int[] counts = new int[batchArgs.size()];
+            int i = 0;
+            for (T args : batchArgs) {
+                Object[] parameters = parameters(setter, args);
+                counts[i++] = sql.startsWith("INSERT") ? insert(parameters) : update(parameters);
+            }
+            return new int[][] {counts};
+        }
+
+        private int insert(Object[] parameters) {
+            int move = (int) (100 * (Long) parameters[1] + (Integer) parameters[2]);
+            if (refusedRows.contains(move)) {
+                throw new DataIntegrityViolationException("Refused row " + move);
+            }
+            rows.add(move);
+            return 1;
+        }
+
+        // Appends the codes only if the stored game is at the ply before the batch, as the WHERE clause does
+        private int update(Object[] parameters) {
+            for (int move : PackedMoves.decode((byte[]) parameters[5])) {
+                if (refusedMoves.contains(move)) {
+                    throw new DataIntegrityViolationException("Refused move " + move);
+                }
+            }
+            long matchId = (Long) parameters[14];
+            int previousPly = (Integer) parameters[15];
+            if (plies.getOrDefault(matchId, 0) != previousPly) {
+                return 0;
+            }
+            byte[] stored = codes.getOrDefault(matchId, new byte[0]);
+            if (stored.length == 2 * (Integer) parameters[6]) {
+                ByteArrayOutputStream appended = new ByteArrayOutputStream();
+                appended.writeBytes(stored);
+                appended.writeBytes((byte[]) parameters[5]);
+                codes.put(matchId, appended.toByteArray());
+            }
+            plies.put(matchId, (Integer) parameters[10]);
+            return 1;
+        }
+
+        private static <T> Object[] parameters(ParameterizedPreparedStatementSetter<T> setter, T args) {
+            Object[] parameters = new Object[20];
+            PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(
+                    MoveWriterTest.class.getClassLoader(), new Class<?>[] {PreparedStatement.class},
+                    (proxy, method, methodArgs) -> {
+                        if (method.getName().startsWith("set") && methodArgs != null && methodArgs.length == 2) {
+                            parameters[(Integer) methodArgs[0]] = methodArgs[1];
+                        }
+                        return null;
+                    });
+            try {
+                setter.setValues(statement, args);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return parameters;
+        }
+
+        @Override
+        public synchronized TransactionStatus getTransaction(TransactionDefinition definition) {
+            savedPlies = new HashMap<>(plies);
+            savedCodes = new HashMap<>(codes);
+            savedRows = rows.size();
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public synchronized void rollback(TransactionStatus status) {
+            plies.clear();
+            plies.putAll(savedPlies);
+            codes.clear();
+            codes.putAll(savedCodes);
+            rows.subList(savedRows, rows.size()).clear();
+        }
+    }
+}
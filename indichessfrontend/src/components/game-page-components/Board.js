@@ -3,6 +3,24 @@ import "../component-styles/Board.css";  // Importing CSS file
 import PromotionModal from "../game-page-components/PromotionModal";
 import ChessPiece from "./ChessPiece";
 
+// The server sends positions as FEN; expand the placement field into the 8x8 array the board renders
+const boardFromFen = (fen) => {
+  if (!fen) return null;
+  const rows = fen.split(" ")[0].split("/");
+  if (rows.length !== 8) return null;
+  return rows.map((row) => {
+    const squares = [];
+    for (const c of row) {
+      if (c >= "1" && c <= "8") {
+        for (let i = 0; i < Number(c); i++) squares.push("");
+      } else {
+        squares.push(c);
+      }
+    }
+    return squares;
+  });
+};
+
 // MODIFICATION 1: Update props to include WebSocket functionality
 const Board = ({
   addMove,
@@ -19,7 +37,7 @@ const Board = ({
   setGameStatus        // Setter for game status
 }) => {
   const [boardSize, setBoardSize] = useState(500); // Initial size of the board
-  const [board, setBoard] = useState(initialGameData?.board || [
+  const [board, setBoard] = useState(initialGameData?.board || boardFromFen(initialGameData?.fen) || [
     ["r", "n", "b", "q", "k", "b", "n", "r"],
     ["p", "p", "p", "p", "p", "p", "p", "p"],
     ["", "", "", "", "", "", "", ""],
@@ -99,15 +117,16 @@ const Board = ({
   }, [isWhiteTurn, board]);
 
   useEffect(() => {
-    if (initialGameData?.board) {
+    const initialBoard = initialGameData?.board || boardFromFen(initialGameData?.fen);
+    if (initialBoard) {
       console.log("🔄 Initializing/Syncing board from initialGameData");
-      setBoard(initialGameData.board);
+      setBoard(initialBoard);
 
       // Update king coordinates
       for (let r = 0; r < 8; r++) {
         for (let c = 0; c < 8; c++) {
-          if (initialGameData.board[r][c] === 'K') setWhiteKingCoordinates([r, c]);
-          if (initialGameData.board[r][c] === 'k') setBlackKingCoordinates([r, c]);
+          if (initialBoard[r][c] === 'K') setWhiteKingCoordinates([r, c]);
+          if (initialBoard[r][c] === 'k') setBlackKingCoordinates([r, c]);
         }
       }
     }
@@ -158,7 +177,13 @@ const Board = ({
       return;
     }
 
-    const { piece, promotedTo, capturedPiece, castled, isPromotion, isEnPassant, board: newBoardFromData, isWhiteTurn } = moveData;
+    const { promotedTo, capturedPiece, isPromotion, isWhiteTurn } = moveData;
+    // Compact move events leave out what follows from the board the move is played on
+    const piece = moveData.piece || board[from.row]?.[from.col];
+    const castled = moveData.castled ?? ((piece === 'K' || piece === 'k') && Math.abs(to.col - from.col) === 2);
+    const isEnPassant = moveData.isEnPassant ??
+      ((piece === 'P' || piece === 'p') && from.col !== to.col && board[to.row]?.[to.col] === "");
+    const newBoardFromData = moveData.board || boardFromFen(moveData.fenAfter);
 
     // Validate coordinates
     if (from.row === undefined || from.col === undefined ||
@@ -169,7 +194,7 @@ const Board = ({
 
     console.log(`🎯 Opponent move: ${piece} from [${from.row},${from.col}] to [${to.row},${to.col}]`);
 
-    // OPTION 1: If board is provided in moveData, use it directly (simpler and more reliable)
+    // OPTION 1: If the board (or the FEN after the move) is provided, use it directly (simpler and more reliable)
     if (newBoardFromData && Array.isArray(newBoardFromData) && newBoardFromData.length === 8) {
       console.log("✅ Using board from move data");
       setBoard(newBoardFromData);
@@ -950,7 +975,7 @@ const Board = ({
 
   // MODIFICATION 11: Update handlePromotion to send move to server
   const handlePromotion = (promotionPiece) => {
-    const [row, col, piece, fromRow, fromCol, capturedPiece, fenBefore, castled, isEnPassant] = promotingPawn;
+    const [row, col, piece, fromRow, fromCol, capturedPiece, fenBefore, castled] = promotingPawn;
 
     const promotedPiece = (row === 7) ? promotionPiece.toLowerCase() : promotionPiece.toUpperCase();
 
@@ -963,34 +988,13 @@ const Board = ({
     // Update move locally
     updatePrevMove(fromRow, fromCol, row, col, piece, capturedPiece, castled, fenBefore);
 
-    // Generate move notation
-    const notation = createMoveNotation(
-      { row: fromRow, col: fromCol },
-      { row: row, col: col },
-      piece,
-      capturedPiece,
-      castled,
-      newBoard
-    );
-
-    // MODIFICATION 12: Prepare and send move data to server
+    // MODIFICATION 12: Send only the move itself; the server validates and applies it
     const moveData = {
-      from: { row: fromRow, col: fromCol },
-      to: { row: row, col: col },
-      piece: piece,
-      promotedTo: promotedPiece,
-      capturedPiece: capturedPiece,
-      castled: castled,
-      isEnPassant: isEnPassant,
-      fenBefore: fenBefore,
-      fenAfter: convertBoardToFEN(newBoard),
-      board: newBoard,
-      timestamp: new Date().toISOString(),
-      isWhiteTurn: isWhiteTurn,
-      isPromotion: true,
-      matchId: matchId,
-      playerColor: playerColor?.toLowerCase(),
-      moveNotation: notation
+      fromRow: fromRow,
+      fromCol: fromCol,
+      toRow: row,
+      toCol: col,
+      promotedTo: promotedPiece
     };
 
     // Send move to server via WebSocket
@@ -1145,35 +1149,12 @@ const Board = ({
       // Update move locally
       updatePrevMove(fromRow, fromCol, row, col, piece, capturedPiece, castled, fenBefore);
 
-      const notation = createMoveNotation(
-        { row: fromRow, col: fromCol },
-        { row: row, col: col },
-        piece,
-        capturedPiece,
-        castled,
-        newBoard
-      );
-
+      // The server validates the move and derives everything else from its own position
       const moveData = {
-        from: { row: fromRow, col: fromCol },
-        to: { row: row, col: col },
         fromRow: fromRow,
         fromCol: fromCol,
         toRow: row,
-        toCol: col,
-        piece: piece,
-        capturedPiece: capturedPiece || "",
-        castled: castled || false,
-        isEnPassant: isEnPassant || false,
-        isPromotion: false,
-        fenBefore: fenBefore,
-        fenAfter: convertBoardToFEN(newBoard),
-        board: newBoard,
-        isWhiteTurn: isWhiteTurn,
-        playerColor: playerColor?.toLowerCase(),
-        matchId: matchId,
-        timestamp: new Date().toISOString(),
-        moveNotation: notation
+        toCol: col
       };
 
       if (sendMove) {
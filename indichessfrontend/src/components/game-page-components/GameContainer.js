@@ -2,7 +2,79 @@ import React, { useState, useEffect, useRef } from "react";
 import BoardLayout from "./BoardLayout";
 import GamePlayControlContainer from "./GamePlayControlContainer";
 
-const GameContainer = ({ matchId, stompClient, isConnected, playerColor, initialGameData }) => {
+// Move events carry the packed move (from square, to square, promotion type; a1 = 0) instead of the board
+const decodeMoveEvent = (event) => {
+  const from = event.move & 63;
+  const to = (event.move >> 6) & 63;
+  const promotion = (event.move >> 12) & 7;
+  const white = event.ply % 2 === 1;
+  const promotedTo = promotion ? "?NBRQ"[promotion] : null;
+  return {
+    fromRow: 7 - (from >> 3),
+    fromCol: from & 7,
+    toRow: 7 - (to >> 3),
+    toCol: to & 7,
+    isPromotion: promotion !== 0,
+    promotedTo: promotedTo && (white ? promotedTo : promotedTo.toLowerCase()),
+    playerColor: white ? 'white' : 'black',
+    isWhiteTurn: !white,
+    moveNotation: event.san,
+    ply: event.ply
+  };
+};
+
+// The server's positionHash is the CRC-32 of the FEN piece placement field, in hex
+const CRC_TABLE = Array.from({ length: 256 }, (_, n) => {
+  let c = n;
+  for (let k = 0; k < 8; k++) c = c & 1 ? 0xEDB88320 ^ (c >>> 1) : c >>> 1;
+  return c >>> 0;
+});
+
+const positionHash = (placement) => {
+  let crc = 0xFFFFFFFF;
+  for (let i = 0; i < placement.length; i++) {
+    crc = CRC_TABLE[(crc ^ placement.charCodeAt(i)) & 0xFF] ^ (crc >>> 8);
+  }
+  return ((crc ^ 0xFFFFFFFF) >>> 0).toString(16).padStart(8, "0");
+};
+
+// Rows from rank 8 down, "" for an empty square
+const squaresFromFen = (fen) => {
+  const rows = fen?.split(" ")[0].split("/");
+  if (!rows || rows.length !== 8) return null;
+  return rows.map((row) => [...row].flatMap((c) => (c >= "1" && c <= "8" ? Array(Number(c)).fill("") : [c])));
+};
+
+const placementOf = (squares) =>
+  squares.map((row) => {
+    let out = "";
+    let empty = 0;
+    for (const square of row) {
+      if (square === "") {
+        empty++;
+      } else {
+        out += (empty || "") + square;
+        empty = 0;
+      }
+    }
+    return out + (empty || "");
+  }).join("/");
+
+// Plays a decoded move on the squares, including the rook of a castle and the pawn taken en passant
+const playOn = (squares, move) => {
+  const piece = squares[move.fromRow][move.fromCol];
+  if (piece.toLowerCase() === "k" && Math.abs(move.toCol - move.fromCol) === 2) {
+    const rookFrom = move.toCol === 6 ? 7 : 0;
+    squares[move.fromRow][move.toCol === 6 ? 5 : 3] = squares[move.fromRow][rookFrom];
+    squares[move.fromRow][rookFrom] = "";
+  } else if (piece.toLowerCase() === "p" && move.fromCol !== move.toCol && squares[move.toRow][move.toCol] === "") {
+    squares[move.fromRow][move.toCol] = "";
+  }
+  squares[move.toRow][move.toCol] = move.promotedTo || piece;
+  squares[move.fromRow][move.fromCol] = "";
+};
+
+const GameContainer = ({ matchId, stompClient, isConnected, playerColor, initialGameData, onResync }) => {
   // Helper to format moves from server into the structure used for the Moves component
   const formatInitialMoves = (moveDtos) => {
     if (!moveDtos || !Array.isArray(moveDtos) || moveDtos.length === 0) return [];
@@ -45,6 +117,9 @@ const GameContainer = ({ matchId, stompClient, isConnected, playerColor, initial
   const [gameStatus, setGameStatus] = useState("active");
   const [opponentMove, setOpponentMove] = useState(null);
   const moveSubscriptionRef = useRef(null);
+  const lastPlyRef = useRef(initialGameData?.ply);
+  // What the server's board should be, to check each move's positionHash against
+  const squaresRef = useRef(squaresFromFen(initialGameData?.fen));
   const timerIntervalRef = useRef(null);
 
   // Determine usernames for display
@@ -64,9 +139,11 @@ const GameContainer = ({ matchId, stompClient, isConnected, playerColor, initial
     if (initialGameData) {
       console.log("🔄 Resetting GameContainer state for new match:", matchId);
       setMoves(formatInitialMoves(initialGameData.moves));
+      lastPlyRef.current = initialGameData.ply;
+      squaresRef.current = squaresFromFen(initialGameData.fen);
       setIsWhiteTurn(initialGameData.whiteTurn ?? true);
       setIsMyTurn(initialGameData.myTurn ?? (playerColor?.toLowerCase() === 'white'));
-      setGameStatus(initialGameData.status === "FINISHED" ? `Game Over: ${initialGameData.status}` : "active");
+      setGameStatus(initialGameData.status && initialGameData.status !== "IN_PROGRESS" ? `Game Over: ${initialGameData.status}` : "active");
       setOpponentMove(null);
       // Reset times if needed (should ideally come from server, but 600 is default)
       setWhiteTime(600);
@@ -97,64 +174,92 @@ const GameContainer = ({ matchId, stompClient, isConnected, playerColor, initial
   useEffect(() => {
     if (!stompClient || !isConnected || !stompClient.connected) return;
 
-    const sub = stompClient.subscribe(`/topic/moves/${matchId}`, (message) => {
-      try {
-        const moveData = JSON.parse(message.body);
-        console.log("📥 Received Move from WebSocket:", moveData);
-
-        if (moveData.type === 'MOVE_ERROR') {
-          console.error("❌ Move rejected by server:", moveData.error);
-          // If our move was rejected, we need our turn back!
-          setIsMyTurn(true);
-          // Alert user (optional, can be a toast)
-          alert(`Move rejected: ${moveData.error}`);
+    const handleMove = (event) => {
+      const lastPly = lastPlyRef.current;
+      if (lastPly !== undefined && event.ply <= lastPly) return; // Already applied
+      if (lastPly !== undefined && event.ply !== lastPly + 1) {
+        // Missed a move; the board can no longer be patched, so reload the game
+        console.warn(`⚠️ Expected ply ${lastPly + 1} but got ${event.ply}, resyncing`);
+        onResync?.();
+        return;
+      }
+      lastPlyRef.current = event.ply;
+      const moveData = decodeMoveEvent(event);
+
+      const squares = squaresRef.current;
+      if (squares && event.positionHash) {
+        playOn(squares, moveData);
+        const hash = positionHash(placementOf(squares));
+        if (hash !== event.positionHash) {
+          console.warn(`⚠️ Board after ply ${event.ply} is ${hash}, server has ${event.positionHash}, resyncing`);
+          onResync?.();
           return;
         }
+      }
 
-        // Always update move history and turn based on backend's MoveDTO
-        addMove(moveData);
+      // Always update move history and turn based on the server's move
+      addMove(moveData);
 
-        // Update turn states based on backend's next player turn
-        const nextIsWhiteTurn = moveData.isWhiteTurn;
-        const amIWhite = playerColor?.toLowerCase() === 'white';
-        const isNowMyTurn = (nextIsWhiteTurn && amIWhite) || (!nextIsWhiteTurn && !amIWhite);
+      // Update turn states based on backend's next player turn
+      const nextIsWhiteTurn = moveData.isWhiteTurn;
+      const amIWhite = playerColor?.toLowerCase() === 'white';
+      const isNowMyTurn = (nextIsWhiteTurn && amIWhite) || (!nextIsWhiteTurn && !amIWhite);
 
-        setIsWhiteTurn(nextIsWhiteTurn);
-        setIsMyTurn(isNowMyTurn);
+      setIsWhiteTurn(nextIsWhiteTurn);
+      setIsMyTurn(isNowMyTurn);
 
-        console.log(`📡 WebSocket Sync: NextTurn=${nextIsWhiteTurn ? 'White' : 'Black'}, IsMyTurn=${isNowMyTurn}`);
+      console.log(`📡 WebSocket Sync: NextTurn=${nextIsWhiteTurn ? 'White' : 'Black'}, IsMyTurn=${isNowMyTurn}`);
 
-        if (moveData.playerColor?.toLowerCase() !== playerColor?.toLowerCase()) {
-          console.log(`🎯 Opponent (${moveData.playerColor}) moved. Updating board.`);
-          setOpponentMove({ ...moveData }); // Ensure fresh object reference
-        } else {
-          console.log("✅ Our move confirmed by server.");
-          setOpponentMove(null);
-        }
-      } catch (e) {
-        console.error("Move sync error:", e);
+      if (moveData.playerColor?.toLowerCase() !== playerColor?.toLowerCase()) {
+        console.log(`🎯 Opponent (${moveData.playerColor}) moved. Updating board.`);
+        setOpponentMove({ ...moveData }); // Ensure fresh object reference
+      } else {
+        console.log("✅ Our move confirmed by server.");
+        setOpponentMove(null);
       }
-    });
+    };
+
+    const handleState = (state) => {
+      console.log("🎮 Game State Update:", state);
+      if (state.status === "RESIGNED" || state.type === "RESIGNATION") {
+        setGameStatus("Game Over: RESIGNED");
+      } else if (state.reason === "CHECKMATE") {
+        setGameStatus(`checkmate-${state.result === "1-0" ? "white" : "black"}`);
+      } else if (state.status === "DRAW" || state.type === "DRAW_ACCEPTED") {
+        setGameStatus(state.reason ? `Game Over: DRAW (${state.reason.replace(/_/g, " ")})` : "Game Over: DRAW");
+      }
+    };
 
-    const stateSub = stompClient.subscribe(`/topic/game-state/${matchId}`, (message) => {
+    // One subscription per game: moves, state changes, chat and draw offers all arrive here
+    const sub = stompClient.subscribe(`/topic/match/${matchId}`, (message) => {
       try {
-        const state = JSON.parse(message.body);
-        console.log("🎮 Game State Update:", state);
-        if (state.status === "RESIGNED" || state.type === "RESIGNATION") {
-          setGameStatus("Game Over: RESIGNED");
-        } else if (state.status === "DRAW" || state.type === "DRAW_ACCEPTED") {
-          setGameStatus("Game Over: DRAW");
+        const event = JSON.parse(message.body);
+        switch (event.type) {
+          case 'MOVE':
+            handleMove(event.data);
+            break;
+          case 'MOVE_ERROR':
+            console.error("❌ Move rejected by server:", event.data.error);
+            // If our move was rejected, we need our turn back!
+            setIsMyTurn(true);
+            // Alert user (optional, can be a toast)
+            alert(`Move rejected: ${event.data.error}`);
+            break;
+          case 'STATE':
+            handleState(event.data);
+            break;
+          default:
+            console.log(`📨 ${event.type} event:`, event.data);
         }
       } catch (e) {
-        console.error("State sync error:", e);
+        console.error("Match event error:", e);
       }
     });
 
     return () => {
       sub.unsubscribe();
-      stateSub.unsubscribe();
     };
-  }, [stompClient, isConnected, matchId, playerColor]);
+  }, [stompClient, isConnected, matchId, playerColor, onResync]);
 
   const addMove = (moveData) => {
     const notation = moveData.moveNotation || "??";
@@ -3,10 +3,13 @@ import SideNav from "../components/SideNav";
 import GameContainer from "../components/game-page-components/GameContainer";
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
-import { useEffect, useState, useRef } from "react";
+import { useCallback, useEffect, useState, useRef } from "react";
 import { useParams } from "react-router-dom";
 import { FaTimes, FaChessPawn } from 'react-icons/fa';
 
+// Close code the server uses for a session whose outbound queue overflowed
+const RESYNC_CLOSE_CODE = 4001;
+
 const Game = () => {
   const { matchId } = useParams();
   const [stompClient, setStompClient] = useState(null);
@@ -16,13 +19,12 @@ const Game = () => {
   const [playerColor, setPlayerColor] = useState();
 
   const playerColorRef = useRef();
+  const gameDataRef = useRef(null);
 
-  useEffect(() => {
-    if (!matchId) return;
-
+  // Full game snapshot: on first load, and again whenever the live move stream has a gap
+  const loadGame = useCallback(() => {
     const token = localStorage.getItem("token");
 
-    // Fetch initial game data
     fetch(`http://localhost:8080/game/${matchId}`, {
       method: 'GET',
       headers: {
@@ -40,23 +42,31 @@ const Game = () => {
         const normalizedColor = data.playerColor?.toLowerCase();
         setPlayerColor(normalizedColor);
         playerColorRef.current = normalizedColor;
-        setGameData({ ...data, playerColor: normalizedColor });
+        gameDataRef.current = { ...data, playerColor: normalizedColor };
+        setGameData(gameDataRef.current);
       })
       .catch(err => {
         console.error("Initialization error:", err);
         setError(err.message);
       });
+  }, [matchId]);
+
+  useEffect(() => {
+    if (!matchId) return;
+    loadGame();
 
     // No cleanup for this effect related to stompClient anymore,
     // as it's handled by the separate WebSocket effect.
-  }, [matchId]);
+  }, [matchId, loadGame]);
+
+  const gameLoaded = gameData !== null;
 
   const stompClientRef = useRef(null);
   const isUnmounting = useRef(false);
 
   // Connection logic
   useEffect(() => {
-    if (!gameData) return;
+    if (!gameLoaded) return;
 
     isUnmounting.current = false;
     console.log(`🔌 Initializing WebSocket for match ${matchId}...`);
@@ -71,10 +81,9 @@ const Game = () => {
 
     // Fallback: pass token in query for SockJS if needed
     const wsUrl = token ? `http://localhost:8080/ws?token=${token}` : 'http://localhost:8080/ws';
-    const socket = new SockJS(wsUrl);
-
     const client = new Client({
-      webSocketFactory: () => socket,
+      // A fresh socket per attempt, so automatic reconnects work
+      webSocketFactory: () => new SockJS(wsUrl),
       connectHeaders: token ? { 'Authorization': `Bearer ${token}` } : {}, // Add connectHeaders here
       debug: (str) => {
         // console.log(new Date().toISOString() + ': ' + str);
@@ -100,7 +109,9 @@ const Game = () => {
         body: JSON.stringify({
           type: 'PLAYER_JOINED',
           playerColor: playerColorRef.current,
-          timestamp: new Date().toISOString()
+          timestamp: new Date().toISOString(),
+          // History was loaded over REST; only ask for moves made since then
+          fromPly: gameDataRef.current?.ply
         })
       });
 
@@ -113,9 +124,14 @@ const Game = () => {
       setError(`Error: ${frame.headers?.message || 'STOMP error'}`);
     };
 
-    client.onWebSocketClose = () => {
+    client.onWebSocketClose = (event) => {
       console.log('🔌 WebSocket connection closed');
       setIsConnected(false);
+      if (event?.code === RESYNC_CLOSE_CODE) {
+        // The server dropped us for falling behind; moves were lost, so reload before the reconnect
+        console.warn('🐢 Too far behind the game, resyncing');
+        loadGame();
+      }
     };
 
     client.activate();
@@ -130,7 +146,7 @@ const Game = () => {
       setStompClient(null);
       setIsConnected(false);
     };
-  }, [matchId, gameData]);
+  }, [matchId, gameLoaded, loadGame]);
 
   if (error) {
     return (
@@ -182,6 +198,7 @@ const Game = () => {
           isConnected={isConnected}
           playerColor={playerColor}
           initialGameData={gameData}
+          onResync={loadGame}
         />
       </div>
     </div>